@@ -0,0 +1,16 @@
+package com.example.cms;
+
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+
+// The app as the instrumented tests run it, see CmsTestRunner
+public class CmsTestApplication extends CmsApplication {
+
+    // Keep the cache in memory so every flow starts cold
+    @Override
+    protected FirebaseFirestoreSettings firestoreSettings(FirebaseFirestoreSettings current) {
+        return new FirebaseFirestoreSettings.Builder(current)
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.cms;
+
+import android.app.Application;
+import android.content.Context;
+
+import androidx.test.runner.AndroidJUnitRunner;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Runs the tests in {@link CmsTestApplication} and points Firebase at the local
+ * emulators before the application applies its Firestore settings.
+ */
+public class CmsTestRunner extends AndroidJUnitRunner {
+
+    // The host machine as seen from the Android emulator
+    public static final String EMULATOR_HOST = "10.0.2.2";
+    public static final int FIRESTORE_PORT = 8080;
+    public static final int AUTH_PORT = 9099;
+
+    @Override
+    public Application newApplication(ClassLoader classLoader, String className, Context context)
+            throws ClassNotFoundException, IllegalAccessException, InstantiationException {
+        return super.newApplication(classLoader, CmsTestApplication.class.getName(), context);
+    }
+
+    @Override
+    public void callApplicationOnCreate(Application app) {
+        FirebaseFirestore.getInstance().useEmulator(EMULATOR_HOST, FIRESTORE_PORT);
+        FirebaseAuth.getInstance().useEmulator(EMULATOR_HOST, AUTH_PORT);
+
+        super.callApplicationOnCreate(app);
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static androidx.test.espresso.Espresso.onView;
+import static androidx.test.espresso.action.ViewActions.click;
+import static androidx.test.espresso.action.ViewActions.closeSoftKeyboard;
+import static androidx.test.espresso.action.ViewActions.scrollTo;
+import static androidx.test.espresso.action.ViewActions.typeText;
+import static androidx.test.espresso.matcher.ViewMatchers.withId;
+import static androidx.test.espresso.matcher.ViewMatchers.withText;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs each major user flow against the Firebase emulators and fails when the
+ * flow reads or writes more documents than its declared budget.
+ *
+ * Start the emulators before running: firebase emulators:start --only auth,firestore
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadBudgetTest {
+
+    // Emulator endpoints that CmsTestRunner configured
+    private static final String EMULATOR_HOST = CmsTestRunner.EMULATOR_HOST;
+    private static final int FIRESTORE_PORT = CmsTestRunner.FIRESTORE_PORT;
+    private static final int AUTH_PORT = CmsTestRunner.AUTH_PORT;
+
+    private static final String PASSWORD = "password123";
+    private static final String INSTITUTION_NAME = "Budget Test College";
+    private static final List<String> ROLES = Arrays.asList("Principal", "Teacher", "Student");
+    private static final int REPORT_COUNT = 5;
+
+    // Budgets for the seeded data set: 1 institution, 2 users, REPORT_COUNT reports
+    // The manager dashboard adds one read per count() aggregation (pending, investigating)
+    private static final int MANAGER_DASHBOARD_READS = 4;
+    private static final int LOGIN_READS = MANAGER_DASHBOARD_READS;
+    private static final int USER_DASHBOARD_READS = 2;
+    // Institution, manager, the report sync and the resolution-time metrics document;
+    // the first sync of an empty mirror reads the newest report once more for its watermark
+    private static final int OPEN_INSTITUTION_READS = 4 + REPORT_COUNT;
+    private static final int LIST_REPORTS_READS = REPORT_COUNT + 2;
+    // Header, body, submitter, the claim transaction and the update's version check;
+    // the claim writes the header, the update writes header, body, a history entry
+    // and the first-response sample together
+    private static final int MANAGE_REPORT_READS = 5;
+    private static final int MANAGE_REPORT_WRITES = 5;
+    // Joining also reads the legacy field migration marker
+    private static final int JOIN_INSTITUTION_READS = 4;
+    private static final int JOIN_INSTITUTION_WRITES = 1;
+
+    private FirebaseAuth mAuth;
+    private FirebaseFirestore db;
+    private Context context;
+
+    private String managerId;
+    private String memberId;
+    private String institutionId;
+    private String reportId;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAuth = FirebaseAuth.getInstance();
+        db = FirebaseFirestore.getInstance();
+
+        CmsApplication.currentUser(context).clear();
+        EntityStore.clear();
+        BacklogCounts.clear();
+        Tasks.await(ReportMirror.getInstance(context).clear());
+        clearEmulators();
+        seedData();
+        FirestoreUsage.reset();
+    }
+
+    @After
+    public void tearDown() {
+        mAuth.signOut();
+    }
+
+    @Test
+    public void loginFlow_staysWithinBudget() {
+        signIn("manager");
+        try (ActivityScenario<LoginActivity> ignored = ActivityScenario.launch(LoginActivity.class)) {
+            awaitQuiet();
+            assertWithinBudget("login", LOGIN_READS, 0);
+        }
+    }
+
+    @Test
+    public void managerDashboardFlow_staysWithinBudget() {
+        signIn("manager");
+        try (ActivityScenario<ManagerDashboardActivity> ignored =
+                     ActivityScenario.launch(ManagerDashboardActivity.class)) {
+            awaitQuiet();
+            assertWithinBudget("manager dashboard", MANAGER_DASHBOARD_READS, 0);
+        }
+    }
+
+    @Test
+    public void userDashboardFlow_staysWithinBudget() {
+        signIn("member");
+        try (ActivityScenario<UserDashboardActivity> ignored =
+                     ActivityScenario.launch(UserDashboardActivity.class)) {
+            awaitQuiet();
+            assertWithinBudget("user dashboard", USER_DASHBOARD_READS, 0);
+        }
+    }
+
+    @Test
+    public void openInstitutionFlow_staysWithinBudget() {
+        signIn("manager");
+        Intent intent = new Intent(context, InstitutionDetailActivity.class);
+        intent.putExtra("institutionId", institutionId);
+        try (ActivityScenario<InstitutionDetailActivity> ignored = ActivityScenario.launch(intent)) {
+            awaitQuiet();
+            assertWithinBudget("open institution", OPEN_INSTITUTION_READS, 0);
+        }
+    }
+
+    @Test
+    public void listReportsFlow_staysWithinBudget() {
+        signIn("manager");
+        Intent intent = new Intent(context, ViewAllReportsActivity.class);
+        intent.putExtra("institutionId", institutionId);
+        intent.putExtra("institutionName", INSTITUTION_NAME);
+        try (ActivityScenario<ViewAllReportsActivity> ignored = ActivityScenario.launch(intent)) {
+            awaitQuiet();
+            assertWithinBudget("list reports", LIST_REPORTS_READS, 0);
+        }
+    }
+
+    @Test
+    public void manageReportFlow_staysWithinBudget() {
+        signIn("manager");
+        Intent intent = new Intent(context, ManageReportActivity.class);
+        intent.putExtra("reportId", reportId);
+        intent.putExtra("institutionName", INSTITUTION_NAME);
+        try (ActivityScenario<ManageReportActivity> ignored = ActivityScenario.launch(intent)) {
+            awaitQuiet();
+            onView(withId(R.id.updateReportButton)).perform(scrollTo(), click());
+            awaitQuiet();
+            assertWithinBudget("manage report", MANAGE_REPORT_READS, MANAGE_REPORT_WRITES);
+        }
+    }
+
+    @Test
+    public void joinInstitutionFlow_staysWithinBudget() throws Exception {
+        // Start from a member who has not joined anything yet
+        Map<String, Object> reset = new HashMap<>();
+        reset.put("institutions", new ArrayList<>());
+        Tasks.await(db.collection("users").document(memberId).update(reset));
+        FirestoreUsage.reset();
+
+        signIn("member");
+        try (ActivityScenario<JoinInstitutionActivity> ignored =
+                     ActivityScenario.launch(JoinInstitutionActivity.class)) {
+            awaitQuiet();
+            onView(withId(R.id.institutionNameEditText))
+                    .perform(typeText(INSTITUTION_NAME), closeSoftKeyboard());
+            onView(withId(R.id.searchButton)).perform(click());
+            awaitQuiet();
+            onView(withText("Student")).perform(click());
+            onView(withId(R.id.joinButton)).perform(click());
+            awaitQuiet();
+            assertWithinBudget("join institution", JOIN_INSTITUTION_READS, JOIN_INSTITUTION_WRITES);
+        }
+    }
+
+    private void assertWithinBudget(String flow, int readBudget, int writeBudget) {
+        int reads = FirestoreUsage.getReads();
+        int writes = FirestoreUsage.getWrites();
+        assertTrue(flow + " read " + reads + " documents, budget is " + readBudget,
+                reads <= readBudget);
+        assertTrue(flow + " wrote " + writes + " documents, budget is " + writeBudget,
+                writes <= writeBudget);
+    }
+
+    // Wait until no Firestore callback has fired for a while, or give up after a timeout
+    private void awaitQuiet() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        long deadline = SystemClock.elapsedRealtime() + 15000;
+        long quietSince = SystemClock.elapsedRealtime();
+        int lastTotal = -1;
+        while (SystemClock.elapsedRealtime() < deadline) {
+            int total = FirestoreUsage.getReads() + FirestoreUsage.getWrites();
+            if (total != lastTotal) {
+                lastTotal = total;
+                quietSince = SystemClock.elapsedRealtime();
+            } else if (SystemClock.elapsedRealtime() - quietSince >= 1500) {
+                return;
+            }
+            SystemClock.sleep(100);
+        }
+    }
+
+    private void signIn(String name) {
+        try {
+            Tasks.await(mAuth.signInWithEmailAndPassword(name + "@budget.test", PASSWORD));
+        } catch (Exception e) {
+            throw new AssertionError("Could not sign in " + name, e);
+        }
+        FirestoreUsage.reset();
+    }
+
+    private String createAccount(String name, String userType) throws Exception {
+        String userId = Tasks.await(mAuth.createUserWithEmailAndPassword(name + "@budget.test", PASSWORD))
+                .getUser().getUid();
+        Map<String, Object> user = new HashMap<>();
+        user.put("userId", userId);
+        user.put("email", name + "@budget.test");
+        user.put("fullName", name);
+        user.put("userType", userType);
+        user.put("institutions", new ArrayList<>());
+        Tasks.await(db.collection("users").document(userId).set(user));
+        return userId;
+    }
+
+    private void seedData() throws Exception {
+        managerId = createAccount("manager", "manager");
+
+        Map<String, Object> institution = new HashMap<>();
+        institution.put("institutionName", INSTITUTION_NAME);
+        institution.put("managerIds", Arrays.asList(managerId));
+        institution.put("managerId", managerId);
+        institution.put("managerRoleName", ROLES.get(0));
+        institution.put("roles", ROLES);
+        institution.put("createdAt", System.currentTimeMillis());
+        Map<String, Object> managerLoad = new HashMap<>();
+        managerLoad.put(managerId, (long) REPORT_COUNT);
+        institution.put("managerLoad", managerLoad);
+        institutionId = Tasks.await(db.collection("institutions").add(institution)).getId();
+
+        Map<String, Object> managerMembership = new HashMap<>();
+        managerMembership.put("institutionId", institutionId);
+        managerMembership.put("role", ROLES.get(0));
+        managerMembership.put("isManager", true);
+        Tasks.await(db.collection("users").document(managerId)
+                .update("institutions", Arrays.asList(managerMembership)));
+        mAuth.signOut();
+
+        memberId = createAccount("member", "user");
+        Map<String, Object> membership = new HashMap<>();
+        membership.put("institutionId", institutionId);
+        membership.put("role", "Student");
+        membership.put("isManager", false);
+        Tasks.await(db.collection("users").document(memberId)
+                .update("institutions", Arrays.asList(membership)));
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < REPORT_COUNT; i++) {
+            Map<String, Object> report = new HashMap<>();
+            report.put("userId", memberId);
+            report.put("institutionId", institutionId);
+            report.put("institutionName", INSTITUTION_NAME);
+            report.put("userRole", "Student");
+            report.put("title", "Report " + i);
+            report.put("status", "pending");
+            report.put("assignedTo", managerId);
+            report.put("createdAt", now - i * 60000L);
+            report.put("updatedAt", now - i * 60000L);
+            ReportMirror.stampUpdated(report);
+            reportId = Tasks.await(db.collection("reports").add(report)).getId();
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("description", "Description of report " + i);
+            body.put("managerResponse", "");
+            body.put("updatedAt", now - i * 60000L);
+            Tasks.await(ReportBodies.reference(db, reportId).set(body));
+        }
+        mAuth.signOut();
+    }
+
+    private void clearEmulators() throws Exception {
+        mAuth.signOut();
+        String projectId = FirebaseApp.getInstance().getOptions().getProjectId();
+        delete("http://" + EMULATOR_HOST + ":" + FIRESTORE_PORT + "/emulator/v1/projects/"
+                + projectId + "/databases/(default)/documents");
+        delete("http://" + EMULATOR_HOST + ":" + AUTH_PORT + "/emulator/v1/projects/"
+                + projectId + "/accounts");
+    }
+
+    private void delete(String url) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("DELETE");
+        try {
+            int code = connection.getResponseCode();
+            assertTrue("Emulator reset failed with HTTP " + code + " for " + url, code == 200);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
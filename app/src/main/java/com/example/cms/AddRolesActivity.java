@@ -17,7 +17,9 @@ import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AddRolesActivity extends AppCompatActivity {
 
@@ -34,6 +36,7 @@ public class AddRolesActivity extends AppCompatActivity {
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String institutionId;
@@ -76,30 +79,22 @@ public class AddRolesActivity extends AppCompatActivity {
     }
 
     private void loadInstitutionData() {
-        progressBar.setVisibility(View.VISIBLE);
+        // Render immediately from the copy the detail screen already loaded
+        Map<String, Object> cachedInstitution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (cachedInstitution != null) {
+            displayInstitution(cachedInstitution);
+        } else {
+            progressBar.setVisibility(View.VISIBLE);
+        }
 
-        db.collection("institutions").document(institutionId)
-                .get()
+        // Revalidate against Firestore in the background
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     progressBar.setVisibility(View.GONE);
 
                     if (documentSnapshot.exists()) {
-                        String institutionName = documentSnapshot.getString("institutionName");
-                        List<String> roles = (List<String>) documentSnapshot.get("roles");
-
-                        // Set institution name
-                        if (institutionName != null) {
-                            institutionNameText.setText(institutionName);
-                        }
-
-                        // Set current roles
-                        if (roles != null && !roles.isEmpty()) {
-                            String rolesText = String.join(", ", roles);
-                            currentRolesText.setText(rolesText);
-                        } else {
-                            currentRolesText.setText("No roles defined yet.");
-                        }
-
+                        EntityStore.put(documentSnapshot);
+                        displayInstitution(documentSnapshot.getData());
                         Log.d(TAG, "Institution data loaded");
                     } else {
                         Toast.makeText(this, "Institution not found", Toast.LENGTH_SHORT).show();
@@ -113,6 +108,24 @@ public class AddRolesActivity extends AppCompatActivity {
                 });
     }
 
+    private void displayInstitution(Map<String, Object> institution) {
+        String institutionName = (String) institution.get("institutionName");
+        List<String> roles = (List<String>) institution.get("roles");
+
+        // Set institution name
+        if (institutionName != null) {
+            institutionNameText.setText(institutionName);
+        }
+
+        // Set current roles
+        if (roles != null && !roles.isEmpty()) {
+            String rolesText = String.join(", ", roles);
+            currentRolesText.setText(rolesText);
+        } else {
+            currentRolesText.setText("No roles defined yet.");
+        }
+    }
+
     private void setupListeners() {
         // Add Roles button click
         addRolesButton.setOnClickListener(v -> {
@@ -161,15 +174,11 @@ public class AddRolesActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
 
         // First, get current roles to check for duplicates
-        db.collection("institutions").document(institutionId)
-                .get()
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        List<String> currentRoles = (List<String>) documentSnapshot.get("roles");
-                        
-                        if (currentRoles == null) {
-                            currentRoles = new ArrayList<>();
-                        }
+                        List<String> loadedRoles = (List<String>) documentSnapshot.get("roles");
+                        List<String> currentRoles = loadedRoles != null ? loadedRoles : new ArrayList<>();
 
                         // Filter out duplicates
                         List<String> rolesToAdd = new ArrayList<>();
@@ -199,7 +208,15 @@ public class AddRolesActivity extends AppCompatActivity {
                         db.collection("institutions").document(institutionId)
                                 .update("roles", FieldValue.arrayUnion(rolesToAdd.toArray()))
                                 .addOnSuccessListener(aVoid -> {
+                                    FirestoreUsage.recordWrites(1);
                                     progressBar.setVisibility(View.GONE);
+
+                                    // Keep the shared copy in step so the detail screen shows the new roles
+                                    List<String> updatedRoles = new ArrayList<>(currentRoles);
+                                    updatedRoles.addAll(rolesToAdd);
+                                    Map<String, Object> changes = new HashMap<>();
+                                    changes.put("roles", updatedRoles);
+                                    EntityStore.merge(EntityStore.institutionPath(institutionId), changes);
                                     
                                     String message = rolesToAdd.size() + " role(s) added successfully";
                                     if (!duplicates.isEmpty()) {
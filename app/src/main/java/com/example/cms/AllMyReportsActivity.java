@@ -0,0 +1,309 @@
+package com.example.cms;
+
+import android.graphics.Color;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class AllMyReportsActivity extends AppCompatActivity {
+
+    private static final String TAG = "AllMyReports";
+
+    // Reports shown per "Load More"
+    private static final int PAGE_SIZE = 10;
+
+    // UI Components
+    private LinearLayout reportsContainer;
+    private Button loadMoreButton;
+    private Button backButton;
+
+    // Firebase
+    private FirebaseAuth mAuth;
+    private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
+
+    // Data
+    private ReportFeed reportFeed;
+    private boolean isLoading = false;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_all_my_reports);
+
+        // Initialize Firebase
+        mAuth = FirebaseAuth.getInstance();
+        db = FirebaseFirestore.getInstance();
+
+        // Initialize views
+        initializeViews();
+
+        // Load the user's institutions, then the first page of reports
+        loadInstitutions();
+
+        // Set up listeners
+        setupListeners();
+    }
+
+    private void initializeViews() {
+        reportsContainer = findViewById(R.id.reportsContainer);
+        loadMoreButton = findViewById(R.id.loadMoreButton);
+        backButton = findViewById(R.id.backButton);
+    }
+
+    private void setupListeners() {
+        loadMoreButton.setOnClickListener(v -> loadNextPage());
+        backButton.setOnClickListener(v -> finish());
+    }
+
+    private void loadInstitutions() {
+        String userId = mAuth.getCurrentUser().getUid();
+
+        // The dashboard has normally loaded the user document already
+        scope.bind(CmsApplication.currentUser(this).load(userId))
+                .addOnSuccessListener(documentSnapshot -> {
+                    Set<String> institutionIds = new LinkedHashSet<>();
+                    List<Map<String, Object>> institutions =
+                            (List<Map<String, Object>>) documentSnapshot.get("institutions");
+                    if (institutions != null) {
+                        for (Map<String, Object> institution : institutions) {
+                            String institutionId = (String) institution.get("institutionId");
+                            if (institutionId != null) {
+                                institutionIds.add(institutionId);
+                            }
+                        }
+                    }
+
+                    reportFeed = new ReportFeed(db, userId, institutionIds, PAGE_SIZE);
+                    loadNextPage();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading user data", e);
+                    Toast.makeText(this, "Error loading user data", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void loadNextPage() {
+        if (reportFeed == null || isLoading) {
+            return;
+        }
+        isLoading = true;
+        loadMoreButton.setEnabled(false);
+
+        // Merged page is formatted on the background pipeline
+        // Bound rather than tied to onStop, so a page arriving in the background still clears isLoading
+        scope.bind(ResultPipeline.map(reportFeed.nextPage(), this::buildRows))
+                .addOnSuccessListener(rows -> {
+                    isLoading = false;
+                    loadMoreButton.setEnabled(true);
+
+                    if (rows.isEmpty() && reportsContainer.getChildCount() == 0) {
+                        // No reports found
+                        TextView noReportsText = new TextView(this);
+                        noReportsText.setText("You haven't submitted any reports yet.");
+                        noReportsText.setTextSize(14);
+                        noReportsText.setTextColor(Color.parseColor("#757575"));
+                        noReportsText.setGravity(android.view.Gravity.CENTER);
+                        noReportsText.setPadding(16, 16, 16, 16);
+                        reportsContainer.addView(noReportsText);
+                    }
+
+                    // Display reports
+                    for (ReportRow row : rows) {
+                        addReportCard(row);
+                    }
+                    loadMoreButton.setVisibility(reportFeed.hasMore() ? View.VISIBLE : View.GONE);
+                })
+                .addOnFailureListener(e -> {
+                    isLoading = false;
+                    loadMoreButton.setEnabled(true);
+                    loadMoreButton.setVisibility(View.VISIBLE);
+                    Log.e(TAG, "Error loading reports", e);
+                    Toast.makeText(this, "Error loading reports: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    // Runs on the pipeline pool
+    private List<ReportRow> buildRows(List<DocumentSnapshot> documents) {
+        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+
+        List<ReportRow> rows = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            ReportRow row = new ReportRow(
+                    document.getId(),
+                    document.getString("title"),
+                    document.getString("userId"),
+                    document.getString("userRole"),
+                    document.getString("status"),
+                    document.getLong("createdAt"),
+                    document.getString("description"),
+                    document.getString("managerResponse"),
+                    sdf);
+            row.setInstitutionName(document.getString("institutionName"));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void addReportCard(ReportRow row) {
+        // Create card layout
+        androidx.constraintlayout.widget.ConstraintLayout reportCard = 
+                new androidx.constraintlayout.widget.ConstraintLayout(this);
+        reportCard.setLayoutParams(new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT));
+        reportCard.setPadding(16, 16, 16, 16);
+        reportCard.setBackgroundResource(R.drawable.report_item_background);
+        
+        // Set margin
+        LinearLayout.LayoutParams cardParams = (LinearLayout.LayoutParams) reportCard.getLayoutParams();
+        cardParams.setMargins(0, 0, 0, 16);
+        reportCard.setLayoutParams(cardParams);
+
+        // Report Title
+        TextView titleText = new TextView(this);
+        titleText.setId(View.generateViewId());
+        titleText.setText(row.getTitle());
+        titleText.setTextSize(16);
+        titleText.setTextColor(Color.parseColor("#212121"));
+        android.text.TextPaint paint = titleText.getPaint();
+        paint.setFakeBoldText(true);
+        
+        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams titleParams = 
+                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.MATCH_PARENT,
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
+        titleParams.topToTop = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        titleParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        titleParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        titleText.setLayoutParams(titleParams);
+        reportCard.addView(titleText);
+
+        // Institution Name
+        TextView institutionText = new TextView(this);
+        institutionText.setId(View.generateViewId());
+        institutionText.setText("Institution: " + (row.getInstitutionName() != null ? row.getInstitutionName() : "Unknown"));
+        institutionText.setTextSize(12);
+        institutionText.setTextColor(Color.parseColor("#757575"));
+        
+        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams institutionParams = 
+                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
+        institutionParams.topToBottom = titleText.getId();
+        institutionParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        institutionParams.topMargin = 4;
+        institutionText.setLayoutParams(institutionParams);
+        reportCard.addView(institutionText);
+
+        // Report Status
+        TextView statusText = new TextView(this);
+        statusText.setId(View.generateViewId());
+        statusText.setText(row.getStatusLabel());
+        statusText.setTextSize(14);
+        statusText.setTextColor(row.getStatusColor());
+        
+        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams statusParams = 
+                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
+        statusParams.topToBottom = institutionText.getId();
+        statusParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        statusParams.topMargin = 8;
+        statusText.setLayoutParams(statusParams);
+        reportCard.addView(statusText);
+
+        // Report Date
+        TextView dateText = new TextView(this);
+        dateText.setId(View.generateViewId());
+        dateText.setText("Date: " + row.getDateLabel());
+        dateText.setTextSize(12);
+        dateText.setTextColor(Color.parseColor("#757575"));
+        
+        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams dateParams = 
+                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
+                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
+        dateParams.topToBottom = statusText.getId();
+        dateParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
+        dateParams.topMargin = 4;
+        dateText.setLayoutParams(dateParams);
+        reportCard.addView(dateText);
+
+        // Make card clickable to show details
+        reportCard.setOnClickListener(v -> openReportDetails(row));
+
+        reportsContainer.addView(reportCard);
+    }
+
+    private void openReportDetails(ReportRow row) {
+        // The list only loaded the header; fetch the body now. Reports from before the
+        // header/body split still carry these fields on the header.
+        Map<String, Object> legacyHeader = new HashMap<>();
+        legacyHeader.put("description", row.getDescription());
+        legacyHeader.put("managerResponse", row.getManagerResponse());
+
+        scope.bind(ReportBodies.load(db, row.getReportId(), legacyHeader))
+                .addOnSuccessListener(body -> showReportDetails(row.getTitle(),
+                        (String) body.get("description"), row.getStatus(),
+                        (String) body.get("managerResponse"), row.getCreatedAt()))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading report details", e);
+                    Toast.makeText(this, "Error loading report details: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void showReportDetails(String title, String description, String status, 
+                                   String managerResponse, long createdAt) {
+        // Create dialog to show full report details
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(title != null ? title : "Report Details");
+
+        // Build message
+        StringBuilder message = new StringBuilder();
+        
+        // Date
+        if (createdAt > 0) {
+            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
+            message.append("Date: ").append(sdf.format(new Date(createdAt))).append("\n\n");
+        }
+        
+        // Description
+        message.append("Description:\n").append(description != null ? description : "No description").append("\n\n");
+        
+        // Status
+        message.append("Status: ").append(ReportRow.capitalize(status)).append("\n\n");
+        
+        // Manager Response
+        if (managerResponse != null && !managerResponse.isEmpty()) {
+            message.append("Manager Response:\n").append(managerResponse);
+        } else {
+            message.append("Manager Response: No response yet");
+        }
+
+        builder.setMessage(message.toString());
+        builder.setPositiveButton("Close", (dialog, which) -> dialog.dismiss());
+        builder.show();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.cms;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up Firebase off the main thread while the splash screen is showing:
+ * initializes Auth and opens the Firestore cache, so the first screen does not
+ * pay for it.
+ *
+ * The Firestore settings are applied synchronously in Application.onCreate
+ * instead. They can only be set before the Firestore client starts, and an
+ * activity restored after process death uses Firestore without waiting for
+ * {@link #whenReady()}, which could start the client before a background
+ * thread got to them. The settings come from
+ * {@link CmsApplication#firestoreSettings}.
+ *
+ * Each step is logged with its duration under the "AppStartup" tag and wrapped
+ * in a systrace section, together with the time from process start until the
+ * first screen is usable.
+ */
+public final class AppStartup {
+
+    private static final String TAG = "AppStartup";
+
+    // Never hold the splash screen longer than this, even if the cache is slow to open
+    private static final long CACHE_WARMUP_TIMEOUT_MS = 2000;
+
+    private static final TaskCompletionSource<Void> ready = new TaskCompletionSource<>();
+    private static volatile boolean isReady = false;
+    private static boolean firstScreenReported = false;
+
+    private AppStartup() {
+    }
+
+    // Call from Application.onCreate, before anything else uses Firestore
+    public static void start(CmsApplication application) {
+        // Cheap, and must not race the first Firestore use of a restored activity
+        try {
+            step("firebase_app", () -> {
+                if (FirebaseApp.getApps(application).isEmpty()) {
+                    FirebaseApp.initializeApp(application);
+                }
+            });
+            step("firestore_settings", () -> applyFirestoreSettings(application));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Applying Firestore settings failed", e);
+        }
+
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_FOREGROUND);
+            long startedAt = SystemClock.elapsedRealtime();
+
+            try {
+                step("firebase_auth", FirebaseAuth::getInstance);
+                step("firestore_cache", AppStartup::openFirestoreCache);
+            } catch (RuntimeException e) {
+                // Activities fall back to initializing Firebase lazily themselves
+                Log.e(TAG, "Startup warm-up failed", e);
+            }
+
+            Log.i(TAG, "Warm-up finished in " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+            new Handler(Looper.getMainLooper()).post(() -> {
+                isReady = true;
+                ready.trySetResult(null);
+            });
+        }, "cms-startup");
+        thread.start();
+    }
+
+    // Completes on the main thread once the warm-up has finished
+    public static Task<Void> whenReady() {
+        return ready.getTask();
+    }
+
+    public static boolean isReady() {
+        return isReady;
+    }
+
+    // Logs the time from process start until the first screen can be used
+    public static void reportFirstScreen(String screen) {
+        if (firstScreenReported) {
+            return;
+        }
+        firstScreenReported = true;
+        long sinceProcessStart = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        Log.i(TAG, screen + " usable " + sinceProcessStart + " ms after process start");
+    }
+
+    private static void applyFirestoreSettings(CmsApplication application) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        db.setFirestoreSettings(application.firestoreSettings(db.getFirestoreSettings()));
+    }
+
+    // Any read starts the Firestore client, which opens the on-disk cache
+    private static void openFirestoreCache() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String documentId = user != null ? user.getUid() : "startup-warmup";
+        try {
+            Tasks.await(FirestoreUsage.get(FirebaseFirestore.getInstance()
+                    .collection("users").document(documentId), Source.CACHE), CACHE_WARMUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // A cache miss still leaves the cache open, which is all we need
+            Log.d(TAG, "Cache warm-up read: " + e.getMessage());
+        }
+    }
+
+    private static void step(String name, Runnable work) {
+        long startedAt = SystemClock.elapsedRealtime();
+        Trace.beginSection("AppStartup." + name);
+        try {
+            work.run();
+        } finally {
+            Trace.endSection();
+        }
+        Log.i(TAG, name + " took " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+    }
+}
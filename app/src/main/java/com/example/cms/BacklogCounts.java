@@ -0,0 +1,100 @@
+package com.example.cms;
+
+import android.os.SystemClock;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open-report counts (pending and investigating) per institution, fetched with
+ * server-side count() aggregations instead of downloading the reports, and
+ * cached for a short time so returning to the dashboard does not re-count.
+ */
+public final class BacklogCounts {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    public static class Backlog {
+        private final long pending;
+        private final long investigating;
+        private final long fetchedAt;
+
+        Backlog(long pending, long investigating, long fetchedAt) {
+            this.pending = pending;
+            this.investigating = investigating;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        public long getInvestigating() {
+            return investigating;
+        }
+    }
+
+    private static final Map<String, Backlog> cache = new HashMap<>();
+
+    private BacklogCounts() {
+    }
+
+    // Returns the cached backlog while it is fresh, otherwise counts both statuses in parallel
+    public static Task<Backlog> load(FirebaseFirestore db, String institutionId) {
+        Backlog cached = getCached(institutionId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+
+        Task<AggregateQuerySnapshot> pendingCount = count(db, institutionId, "pending");
+        Task<AggregateQuerySnapshot> investigatingCount = count(db, institutionId, "investigating");
+
+        return Tasks.whenAll(pendingCount, investigatingCount).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            long pending = pendingCount.getResult().getCount();
+            long investigating = investigatingCount.getResult().getCount();
+
+            Backlog backlog = new Backlog(pending, investigating, SystemClock.elapsedRealtime());
+            synchronized (cache) {
+                cache.put(institutionId, backlog);
+            }
+            return backlog;
+        });
+    }
+
+    // Called after a report's status changes so the next load re-counts
+    public static void invalidate(String institutionId) {
+        synchronized (cache) {
+            cache.remove(institutionId);
+        }
+    }
+
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static Backlog getCached(String institutionId) {
+        synchronized (cache) {
+            Backlog backlog = cache.get(institutionId);
+            if (backlog != null && SystemClock.elapsedRealtime() - backlog.fetchedAt < TTL_MILLIS) {
+                return backlog;
+            }
+            return null;
+        }
+    }
+
+    private static Task<AggregateQuerySnapshot> count(FirebaseFirestore db, String institutionId, String status) {
+        return FirestoreUsage.count(db.collection("reports")
+                .whereEqualTo("institutionId", institutionId)
+                .whereEqualTo("status", status));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cms;
+
+import android.app.Application;
+import android.content.Context;
+
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+
+public class CmsApplication extends Application {
+
+    private static final String TAG = "CmsApplication";
+
+    // Local cache budget; the SDK default is 100 MB
+    private static final long CACHE_SIZE_BYTES = 50L * 1024 * 1024;
+
+    // Session-scoped state shared by all activities
+    private final CurrentUserStore currentUserStore = new CurrentUserStore();
+
+    private boolean migrationStarted = false;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Warm up Firebase in the background while the splash screen shows
+        AppStartup.start(this);
+
+        // Drop everything cached for the previous user when they sign out
+        AppStartup.whenReady().addOnSuccessListener(ready -> registerAuthListener());
+    }
+
+    // Applied by AppStartup before the Firestore client starts; the instrumented tests override it
+    protected FirebaseFirestoreSettings firestoreSettings(FirebaseFirestoreSettings current) {
+        return new FirebaseFirestoreSettings.Builder(current)
+                .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                        .setSizeBytes(CACHE_SIZE_BYTES)
+                        .build())
+                .build();
+    }
+
+    private void registerAuthListener() {
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            if (auth.getCurrentUser() == null) {
+                currentUserStore.clear();
+                EntityStore.clear();
+                BacklogCounts.clear();
+                ReportMirror.getInstance(this).clear();
+                SlaEscalationWorker.cancel(this);
+                ReportUpdatesWorker.cancel(this);
+                ReportImporter.discardCheckpoint(this);
+                ReportArchiveWorker.cancel(this);
+            } else {
+                runLegacyFieldMigration(auth.getCurrentUser());
+            }
+        });
+    }
+
+    // Only an account with the admin claim may rewrite other users' documents
+    private void runLegacyFieldMigration(FirebaseUser user) {
+        LegacyFieldMigration migration = new LegacyFieldMigration(this, FirebaseFirestore.getInstance());
+        if (migrationStarted || migration.isComplete()) {
+            return;
+        }
+        user.getIdToken(false).addOnSuccessListener(result -> {
+            if (!Boolean.TRUE.equals(result.getClaims().get("admin")) || migrationStarted) {
+                return;
+            }
+            migrationStarted = true;
+            migration.run()
+                    .addOnSuccessListener(aVoid -> Log.d(TAG, "Legacy field migration complete"))
+                    .addOnFailureListener(e -> {
+                        // Resumes from the last checkpoint on the next sign-in
+                        Log.e(TAG, "Legacy field migration interrupted", e);
+                        migrationStarted = false;
+                    });
+        });
+    }
+
+    public CurrentUserStore getCurrentUserStore() {
+        return currentUserStore;
+    }
+
+    public static CurrentUserStore currentUser(Context context) {
+        return ((CmsApplication) context.getApplicationContext()).getCurrentUserStore();
+    }
+}
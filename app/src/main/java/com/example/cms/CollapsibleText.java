@@ -0,0 +1,109 @@
+package com.example.cms;
+
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+/**
+ * Shows a possibly very long text (a report description) collapsed to a short
+ * preview, with a "Show more" / "Show less" toggle below it.
+ *
+ * Only the preview is laid out when the text is set. The full text is measured
+ * with PrecomputedTextCompat on the pipeline pool meanwhile, so expanding a
+ * multi-thousand-character complaint does not measure it on the main thread.
+ * Texts short enough to show whole are set directly and get no toggle.
+ */
+public class CollapsibleText {
+
+    static final int PREVIEW_LENGTH = 400;
+    static final int PREVIEW_LINES = 6;
+
+    private final TextView textView;
+    private final TextView toggle;
+
+    private CharSequence preview;
+    private Task<PrecomputedTextCompat> fullText;
+    private boolean expanded = false;
+    // Ignore measurements of a text that has been replaced since
+    private int generation = 0;
+
+    public CollapsibleText(TextView textView, TextView toggle) {
+        this.textView = textView;
+        this.toggle = toggle;
+        toggle.setOnClickListener(v -> setExpanded(!expanded));
+    }
+
+    public void setText(String text) {
+        generation++;
+        expanded = false;
+        String shortText = preview(text, PREVIEW_LENGTH, PREVIEW_LINES);
+        if (shortText.equals(text)) {
+            // Short enough to lay out directly
+            preview = null;
+            fullText = null;
+            textView.setText(text);
+            toggle.setVisibility(View.GONE);
+            return;
+        }
+
+        preview = shortText;
+        textView.setText(preview);
+        toggle.setText("Show more");
+        toggle.setVisibility(View.VISIBLE);
+
+        // Params have to be read on the main thread, from the view the text goes into
+        PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+        fullText = Tasks.call(ResultPipeline.EXECUTOR, () -> PrecomputedTextCompat.create(text, params));
+    }
+
+    private void setExpanded(boolean expand) {
+        if (preview == null) {
+            return;
+        }
+        expanded = expand;
+        toggle.setText(expand ? "Show less" : "Show more");
+        if (!expand) {
+            textView.setText(preview);
+            return;
+        }
+        final int current = generation;
+        fullText.addOnSuccessListener(result -> {
+            if (current == generation && expanded) {
+                TextViewCompat.setPrecomputedText(textView, result);
+            }
+        });
+    }
+
+    /**
+     * The text cut to at most maxLength characters and maxLines lines, at a word
+     * boundary where there is one, with an ellipsis; the text itself when it fits.
+     */
+    static String preview(String text, int maxLength, int maxLines) {
+        int end = Math.min(text.length(), maxLength);
+        int newlines = 0;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '\n' && ++newlines == maxLines) {
+                end = i;
+                break;
+            }
+        }
+        if (end == text.length()) {
+            return text;
+        }
+
+        // Don't cut a word in half, unless the only break is near the start
+        int wordEnd = end;
+        while (wordEnd > 0 && !Character.isWhitespace(text.charAt(wordEnd))) {
+            wordEnd--;
+        }
+        if (wordEnd > end / 2) {
+            end = wordEnd;
+        }
+        return text.substring(0, end).trim() + "…";
+    }
+}
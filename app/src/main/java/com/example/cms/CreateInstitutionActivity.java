@@ -10,8 +10,11 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +36,7 @@ public class CreateInstitutionActivity extends AppCompatActivity {
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -104,102 +108,80 @@ public class CreateInstitutionActivity extends AppCompatActivity {
         List<String> managerIds = new ArrayList<>();
         managerIds.add(managerId);
         institution.put("managerIds", managerIds);
-        institution.put("managerId", managerId); // Keep for backwards compatibility
         
         institution.put("managerRoleName", managerRoleName);
         institution.put("roles", roles);
         institution.put("createdAt", System.currentTimeMillis());
 
-        // Add to Firestore with auto-generated ID
-        db.collection("institutions")
-                .add(institution)
-                .addOnSuccessListener(documentReference -> {
-                    String institutionId = documentReference.getId();
-                    Log.d(TAG, "Institution created with ID: " + institutionId);
-                    
-                    // Update manager's user document with institutionId
-                    updateManagerInstitution(institutionId, managerId);
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    createButton.setEnabled(true);
-                    Log.e(TAG, "Error creating institution", e);
-                    Toast.makeText(this, "Error creating institution: " + e.getMessage(), 
-                            Toast.LENGTH_SHORT).show();
-                });
-    }
+        // The ID is generated up front so the manager's membership is written in the same batch
+        DocumentReference institutionRef = db.collection("institutions").document();
 
-    private void updateManagerInstitution(String institutionId, String managerId) {
-        // Get the first role from the institution document to set as manager's roleName
-        db.collection("institutions").document(institutionId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String managerRoleName = documentSnapshot.getString("managerRoleName");
-                        
-                        // First, get current user's institutions array
-                        db.collection("users").document(managerId)
-                                .get()
-                                .addOnSuccessListener(userDoc -> {
-                                    List<Map<String, Object>> institutions = new ArrayList<>();
-                                    
-                                    // Get existing institutions if any
-                                    if (userDoc.exists() && userDoc.contains("institutions")) {
-                                        List<Map<String, Object>> existingInstitutions = 
-                                                (List<Map<String, Object>>) userDoc.get("institutions");
-                                        if (existingInstitutions != null) {
-                                            institutions.addAll(existingInstitutions);
-                                        }
-                                    }
-                                    
-                                    // Add new institution with manager role
-                                    Map<String, Object> newInstitution = new HashMap<>();
-                                    newInstitution.put("institutionId", institutionId);
-                                    newInstitution.put("role", managerRoleName);
-                                    newInstitution.put("isManager", true);
-                                    institutions.add(newInstitution);
-                                    
-                                    // Update user document with institutions array
-                                    Map<String, Object> updates = new HashMap<>();
-                                    updates.put("institutions", institutions);
-                                    updates.put("roleName", managerRoleName); // Keep for backwards compatibility
-                                    updates.put("institutionId", institutionId); // Keep for backwards compatibility
-
-                                    db.collection("users").document(managerId)
-                                            .update(updates)
-                                            .addOnSuccessListener(aVoid -> {
-                                                progressBar.setVisibility(View.GONE);
-                                                createButton.setEnabled(true);
-                                                Log.d(TAG, "Manager's institutions updated successfully");
-                                                Toast.makeText(this, "Institution created successfully!", 
-                                                        Toast.LENGTH_SHORT).show();
-                                                
-                                                // Go back to dashboard
-                                                finish();
-                                            })
-                                            .addOnFailureListener(e -> {
-                                                progressBar.setVisibility(View.GONE);
-                                                createButton.setEnabled(true);
-                                                Log.e(TAG, "Error updating manager's institution", e);
-                                                Toast.makeText(this, "Institution created but error updating your profile: " 
-                                                        + e.getMessage(), Toast.LENGTH_LONG).show();
-                                                
-                                                // Still go back since institution was created
-                                                finish();
-                                            });
-                                })
-                                .addOnFailureListener(e -> {
-                                    progressBar.setVisibility(View.GONE);
-                                    createButton.setEnabled(true);
-                                    Log.e(TAG, "Error fetching user data", e);
-                                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                                });
+        // Never fails; false while the legacy fields are still read
+        Task<Boolean> migrated = LegacyFieldMigration.isMigrated(db);
+
+        // Get current user's institutions array from the session store
+        scope.bind(migrated.continueWithTask(task -> CmsApplication.currentUser(this).load(managerId)))
+                .addOnSuccessListener(userDoc -> {
+                    List<Map<String, Object>> institutions = new ArrayList<>();
+                    
+                    // Get existing institutions if any
+                    if (userDoc.exists() && userDoc.contains("institutions")) {
+                        List<Map<String, Object>> existingInstitutions = 
+                                (List<Map<String, Object>>) userDoc.get("institutions");
+                        if (existingInstitutions != null) {
+                            institutions.addAll(existingInstitutions);
+                        }
+                    }
+                    
+                    // Add new institution with manager role
+                    Map<String, Object> newInstitution = new HashMap<>();
+                    newInstitution.put("institutionId", institutionRef.getId());
+                    newInstitution.put("role", managerRoleName);
+                    newInstitution.put("isManager", true);
+                    institutions.add(newInstitution);
+                    
+                    // Update user document with institutions array
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put("institutions", institutions);
+                    // Keep for backwards compatibility until LegacyFieldMigration has finished
+                    if (!migrated.getResult()) {
+                        institution.put("managerId", managerId);
+                        updates.put("roleName", managerRoleName);
+                        updates.put("institutionId", institutionRef.getId());
                     }
+
+                    // Institution, manager's profile and member index are created together
+                    WriteBatch batch = db.batch();
+                    batch.set(institutionRef, institution);
+                    batch.update(db.collection("users").document(managerId), updates);
+                    batch.set(InstitutionMembers.reference(db, institutionRef.getId(), managerId),
+                            InstitutionMembers.entry(userDoc, managerRoleName, true,
+                                    (Long) institution.get("createdAt")));
+
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> {
+                                FirestoreUsage.recordWrites(3);
+                                progressBar.setVisibility(View.GONE);
+                                createButton.setEnabled(true);
+                                Log.d(TAG, "Institution created with ID: " + institutionRef.getId());
+                                Toast.makeText(this, "Institution created successfully!", 
+                                        Toast.LENGTH_SHORT).show();
+                                
+                                // Go back to dashboard
+                                finish();
+                            })
+                            .addOnFailureListener(e -> {
+                                progressBar.setVisibility(View.GONE);
+                                createButton.setEnabled(true);
+                                Log.e(TAG, "Error creating institution", e);
+                                Toast.makeText(this, "Error creating institution: " + e.getMessage(), 
+                                        Toast.LENGTH_SHORT).show();
+                            });
                 })
                 .addOnFailureListener(e -> {
                     progressBar.setVisibility(View.GONE);
                     createButton.setEnabled(true);
-                    Log.e(TAG, "Error fetching institution data", e);
+                    Log.e(TAG, "Error fetching user data", e);
                     Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
     }
@@ -0,0 +1,108 @@
+package com.example.cms;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the signed-in user's users/{uid} document for the whole session.
+ * The document is loaded once and kept fresh by a single snapshot listener,
+ * so every screen works from the same copy instead of fetching its own.
+ * Owned by {@link CmsApplication}.
+ */
+public class CurrentUserStore {
+
+    private static final String TAG = "CurrentUserStore";
+
+    public interface Listener {
+        void onUserChanged(DocumentSnapshot user);
+    }
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private String userId;
+    private DocumentSnapshot snapshot;
+    private ListenerRegistration registration;
+    private TaskCompletionSource<DocumentSnapshot> firstLoad;
+
+    /**
+     * Starts listening to the given user's document, or returns the pending/finished
+     * load if we are already listening to it. Callbacks run on the main thread.
+     */
+    public Task<DocumentSnapshot> load(String uid) {
+        if (uid.equals(userId) && firstLoad != null) {
+            return firstLoad.getTask();
+        }
+
+        clear();
+        userId = uid;
+        TaskCompletionSource<DocumentSnapshot> load = new TaskCompletionSource<>();
+        firstLoad = load;
+
+        registration = FirebaseFirestore.getInstance()
+                .collection("users").document(uid)
+                .addSnapshotListener((documentSnapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error listening to user data", e);
+                        // Drop a failed first load so the next caller retries
+                        if (load.trySetException(e) && firstLoad == load) {
+                            clear();
+                        }
+                        return;
+                    }
+                    if (documentSnapshot == null) {
+                        return;
+                    }
+
+                    // Local writes are echoed from the cache without a read
+                    if (!documentSnapshot.getMetadata().isFromCache()) {
+                        FirestoreUsage.recordRead();
+                    }
+                    snapshot = documentSnapshot;
+                    load.trySetResult(documentSnapshot);
+                    for (Listener listener : new ArrayList<>(listeners)) {
+                        listener.onUserChanged(documentSnapshot);
+                    }
+                });
+        return load.getTask();
+    }
+
+    // Latest copy of the user document, or null before the first load completes
+    public DocumentSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    // Registers a listener and immediately delivers the current copy if there is one
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        if (snapshot != null) {
+            listener.onUserChanged(snapshot);
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Called on sign-out so the next user starts from a clean store
+    public void clear() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        userId = null;
+        snapshot = null;
+        firstLoad = null;
+    }
+}
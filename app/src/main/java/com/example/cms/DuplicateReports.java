@@ -0,0 +1,102 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up open reports of an institution that are likely duplicates of a text,
+ * using the {@link NearDuplicates} band keys stored on each report header
+ * (lshBands) to fetch candidates and their stored signature (minhash) to
+ * confirm them without reading any report bodies.
+ *
+ * Only open reports carry band keys; they are removed when a report is
+ * resolved or merged, so the candidate limit is never used up by closed copies
+ * of a recurring issue. The signature itself stays, so a reopened report gets
+ * its band keys back.
+ */
+public final class DuplicateReports {
+
+    // A popular issue may have many copies; the closest ones are enough to suggest or merge
+    private static final int CANDIDATE_LIMIT = 20;
+
+    public static class Match {
+        private final DocumentSnapshot report;
+        private final double similarity;
+
+        Match(DocumentSnapshot report, double similarity) {
+            this.report = report;
+            this.similarity = similarity;
+        }
+
+        public DocumentSnapshot getReport() {
+            return report;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+
+        public String getLabel() {
+            String title = report.getString("title");
+            return (title != null ? title : "Untitled report")
+                    + " (" + ReportRow.capitalize(report.getString("status")) + ", "
+                    + Math.round(similarity * 100) + "% similar)";
+        }
+    }
+
+    private DuplicateReports() {
+    }
+
+    // Stores the signature on a report header, with its band keys only while the report is open
+    public static void putSignature(Map<String, Object> header, int[] signature, boolean open) {
+        if (open) {
+            header.put("lshBands", NearDuplicates.bandKeys(signature));
+        }
+        header.put("minhash", NearDuplicates.toList(signature));
+    }
+
+    // Removes the band keys in an update of a report that is no longer open
+    public static void clearBands(Map<String, Object> update) {
+        update.put("lshBands", FieldValue.delete());
+    }
+
+    /**
+     * Completes with the open, unmerged reports similar to the signature, most
+     * similar first. excludeReportId (may be null) is left out of the results.
+     */
+    public static Task<List<Match>> find(FirebaseFirestore db, String institutionId,
+                                         int[] signature, String excludeReportId) {
+        return FirestoreUsage.get(db.collection("reports")
+                .whereEqualTo("institutionId", institutionId)
+                .whereArrayContainsAny("lshBands", NearDuplicates.bandKeys(signature))
+                .limit(CANDIDATE_LIMIT))
+                .continueWith(ResultPipeline.EXECUTOR, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    List<Match> matches = new ArrayList<>();
+                    for (DocumentSnapshot candidate : task.getResult().getDocuments()) {
+                        // Reports closed before band keys were cleared on close still have them
+                        if (candidate.getId().equals(excludeReportId)
+                                || candidate.get("duplicateOf") != null
+                                || !ReportAssignment.isOpen(candidate.getString("status"))) {
+                            continue;
+                        }
+                        // Sharing a band only makes it a candidate; confirm on the full signature
+                        int[] other = NearDuplicates.fromList((List<?>) candidate.get("minhash"));
+                        double similarity = NearDuplicates.similarity(signature, other);
+                        if (similarity >= NearDuplicates.DUPLICATE_THRESHOLD) {
+                            matches.add(new Match(candidate, similarity));
+                        }
+                    }
+                    matches.sort((a, b) -> Double.compare(b.similarity, a.similarity));
+                    return matches;
+                });
+    }
+}
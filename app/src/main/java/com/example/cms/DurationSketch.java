@@ -0,0 +1,104 @@
+package com.example.cms;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Quantile sketch for durations with logarithmic buckets: a duration of x
+ * seconds falls in bucket ceil(log_gamma(x)), so every bucket spans the same
+ * relative width and any quantile is estimated within
+ * {@link #RELATIVE_ACCURACY} of the true value, however many samples there are.
+ *
+ * A sketch is only a count per bucket, so two sketches merge by adding counts.
+ * That is what lets Firestore maintain one with FieldValue.increment() and no
+ * reads (see {@link ResolutionMetrics}).
+ */
+public class DurationSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.05;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // Field name prefix of bucket counts in stored sketches
+    static final String BUCKET_PREFIX = "b";
+
+    private final TreeMap<Integer, Long> counts = new TreeMap<>();
+    private long count = 0;
+
+    // Bucket of a duration; everything under a second shares bucket 0
+    public static int bucketOf(long millis) {
+        double seconds = millis / 1000.0;
+        if (seconds <= 1) {
+            return 0;
+        }
+        return (int) Math.ceil(Math.log(seconds) / LOG_GAMMA);
+    }
+
+    // Representative duration of a bucket, within the relative accuracy of all its members
+    static long valueOf(int bucket) {
+        if (bucket <= 0) {
+            return 1000;
+        }
+        return Math.round(2 * Math.pow(GAMMA, bucket) / (GAMMA + 1) * 1000);
+    }
+
+    // Reads a stored sketch: bucket counts under "b<index>" keys
+    public static DurationSketch fromMap(Map<String, Object> stored) {
+        DurationSketch sketch = new DurationSketch();
+        if (stored == null) {
+            return sketch;
+        }
+        for (Map.Entry<String, Object> entry : stored.entrySet()) {
+            if (!entry.getKey().startsWith(BUCKET_PREFIX) || !(entry.getValue() instanceof Number)) {
+                continue;
+            }
+            try {
+                int bucket = Integer.parseInt(entry.getKey().substring(BUCKET_PREFIX.length()));
+                sketch.addToBucket(bucket, ((Number) entry.getValue()).longValue());
+            } catch (NumberFormatException ignored) {
+                // Not a bucket field
+            }
+        }
+        return sketch;
+    }
+
+    public void add(long millis) {
+        addToBucket(bucketOf(millis), 1);
+    }
+
+    public void merge(DurationSketch other) {
+        for (Map.Entry<Integer, Long> entry : other.counts.entrySet()) {
+            addToBucket(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Estimated q-quantile (0..1) in milliseconds, or -1 when the sketch is empty
+    public long quantile(double q) {
+        if (count == 0) {
+            return -1;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> entry : counts.entrySet()) {
+            seen += entry.getValue();
+            if (seen > rank) {
+                return valueOf(entry.getKey());
+            }
+        }
+        return valueOf(counts.lastKey());
+    }
+
+    private void addToBucket(int bucket, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        Long current = counts.get(bucket);
+        counts.put(bucket, (current != null ? current : 0L) + amount);
+        count += amount;
+    }
+}
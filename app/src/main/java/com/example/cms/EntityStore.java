@@ -0,0 +1,77 @@
+package com.example.cms;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small in-memory store of documents that have already been loaded, keyed by
+ * document path (e.g. "reports/abc123"). A screen that just listed an entity
+ * puts it here so the next screen can render it immediately and only
+ * revalidate against Firestore in the background.
+ */
+public final class EntityStore {
+
+    private static final int MAX_ENTRIES = 256;
+
+    // Access-ordered so the least recently used documents are evicted first
+    private static final Map<String, Map<String, Object>> entries =
+            new LinkedHashMap<String, Map<String, Object>>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private EntityStore() {
+    }
+
+    public static void put(DocumentSnapshot snapshot) {
+        if (snapshot == null || !snapshot.exists() || snapshot.getData() == null) {
+            return;
+        }
+        put(snapshot.getReference().getPath(), snapshot.getData());
+    }
+
+    public static synchronized void put(String path, Map<String, Object> data) {
+        entries.put(path, Collections.unmodifiableMap(new HashMap<>(data)));
+    }
+
+    // Merge changed fields into an already stored document, e.g. after a successful update()
+    public static synchronized void merge(String path, Map<String, Object> changes) {
+        Map<String, Object> existing = entries.get(path);
+        if (existing == null) {
+            return;
+        }
+        Map<String, Object> merged = new HashMap<>(existing);
+        merged.putAll(changes);
+        entries.put(path, Collections.unmodifiableMap(merged));
+    }
+
+    public static synchronized Map<String, Object> get(String path) {
+        return entries.get(path);
+    }
+
+    public static synchronized void remove(String path) {
+        entries.remove(path);
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+    }
+
+    public static String reportPath(String reportId) {
+        return "reports/" + reportId;
+    }
+
+    public static String userPath(String userId) {
+        return "users/" + userId;
+    }
+
+    public static String institutionPath(String institutionId) {
+        return "institutions/" + institutionId;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cms;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escalation levels of pending reports: a report that stays pending for 3, 7
+ * or 14 days reaches level 1, 2 or 3.
+ *
+ * Remembers the level each report was last escalated at, so a report raises a
+ * notification once per level instead of on every check. Saved as a string set
+ * of "reportId=level" entries.
+ */
+public class EscalationLevels {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // Pending for at least this long puts a report at level 1, 2, 3
+    static final long[] LEVEL_AFTER_MILLIS = {3 * DAY_MILLIS, 7 * DAY_MILLIS, 14 * DAY_MILLIS};
+
+    public static final int MAX_LEVEL = LEVEL_AFTER_MILLIS.length;
+
+    private final Map<String, Integer> levels = new HashMap<>();
+
+    public EscalationLevels(Set<String> saved) {
+        if (saved == null) {
+            return;
+        }
+        for (String entry : saved) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                levels.put(entry.substring(0, separator), Integer.parseInt(entry.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                // Dropped; the report is escalated again at its current level
+            }
+        }
+    }
+
+    // Reports created before this are at least level 1
+    public static long firstLevelCutoff(long now) {
+        return now - LEVEL_AFTER_MILLIS[0];
+    }
+
+    public static int levelFor(long createdAt, long now) {
+        long age = now - createdAt;
+        int level = 0;
+        while (level < MAX_LEVEL && age >= LEVEL_AFTER_MILLIS[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    public static long daysPending(long createdAt, long now) {
+        return (now - createdAt) / DAY_MILLIS;
+    }
+
+    public int getLevel(String reportId) {
+        Integer level = levels.get(reportId);
+        return level != null ? level : 0;
+    }
+
+    /**
+     * Records the pending reports found overdue now (createdAt by report ID) and
+     * returns the ones whose level rose since the last check, with their new level.
+     * complete is false when the query was cut off at its limit; reports missing
+     * from an incomplete result are kept, since they may still be pending.
+     */
+    public Map<String, Integer> update(Map<String, Long> overdue, long now, boolean complete) {
+        if (complete) {
+            // Anything not returned has been picked up or closed since
+            levels.keySet().retainAll(overdue.keySet());
+        }
+
+        Map<String, Integer> raised = new HashMap<>();
+        for (Map.Entry<String, Long> report : overdue.entrySet()) {
+            int level = levelFor(report.getValue(), now);
+            if (level > getLevel(report.getKey())) {
+                levels.put(report.getKey(), level);
+                raised.put(report.getKey(), level);
+            }
+        }
+        return raised;
+    }
+
+    public Set<String> toSet() {
+        Set<String> saved = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : levels.entrySet()) {
+            saved.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return saved;
+    }
+}
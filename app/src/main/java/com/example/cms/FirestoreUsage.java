@@ -0,0 +1,111 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.AggregateQuery;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide tally of Firestore documents read and written by the app, so
+ * instrumented tests can reset the counters, run a flow and compare against a
+ * budget.
+ *
+ * All reads go through the get() and count() helpers here, which record what
+ * each read is billed for; FirestoreUsageTest fails the build on a direct
+ * get() anywhere else. Writes are recorded by their success listeners.
+ */
+public final class FirestoreUsage {
+
+    // Records on the thread that completes the read, before any caller's listener runs
+    private static final Executor DIRECT = Runnable::run;
+
+    private static final AtomicInteger reads = new AtomicInteger();
+    private static final AtomicInteger writes = new AtomicInteger();
+
+    private FirestoreUsage() {
+    }
+
+    // A single document get() is billed as one read
+    public static Task<DocumentSnapshot> get(DocumentReference reference) {
+        return reference.get().continueWithTask(DIRECT, task -> {
+            if (task.isSuccessful()) {
+                recordRead();
+            }
+            return task;
+        });
+    }
+
+    // Reads served by the local cache are not billed
+    public static Task<DocumentSnapshot> get(DocumentReference reference, Source source) {
+        if (source == Source.CACHE) {
+            return reference.get(source);
+        }
+        return reference.get(source).continueWithTask(DIRECT, task -> {
+            if (task.isSuccessful()) {
+                recordRead();
+            }
+            return task;
+        });
+    }
+
+    // A query is billed per returned document, with a minimum of one read
+    public static Task<QuerySnapshot> get(Query query) {
+        return query.get().continueWithTask(DIRECT, task -> {
+            if (task.isSuccessful()) {
+                reads.addAndGet(Math.max(1, task.getResult().size()));
+            }
+            return task;
+        });
+    }
+
+    // A count() aggregation is billed one read per 1000 index entries counted, minimum one
+    public static Task<AggregateQuerySnapshot> count(Query query) {
+        AggregateQuery count = query.count();
+        return count.get(AggregateSource.SERVER).continueWithTask(DIRECT, task -> {
+            if (task.isSuccessful()) {
+                reads.addAndGet((int) Math.max(1, (task.getResult().getCount() + 999) / 1000));
+            }
+            return task;
+        });
+    }
+
+    // A document read inside a transaction is billed on every attempt
+    public static DocumentSnapshot get(Transaction transaction, DocumentReference reference)
+            throws FirebaseFirestoreException {
+        DocumentSnapshot snapshot = transaction.get(reference);
+        recordRead();
+        return snapshot;
+    }
+
+    // Snapshot listeners bypass get(); they record each update they are billed for
+    public static void recordRead() {
+        reads.incrementAndGet();
+    }
+
+    public static void recordWrites(int count) {
+        writes.addAndGet(count);
+    }
+
+    public static int getReads() {
+        return reads.get();
+    }
+
+    public static int getWrites() {
+        return writes.get();
+    }
+
+    public static void reset() {
+        reads.set(0);
+        writes.set(0);
+    }
+}
@@ -1,38 +1,98 @@
 package com.example.cms;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 public class InstitutionDetailActivity extends AppCompatActivity {
 
     private static final String TAG = "InstitutionDetail";
 
+    private static final long OVERDUE_AFTER_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    // Choices of the archive spinner, in days; 0 never archives
+    private static final int[] ARCHIVE_AFTER_DAYS = {0, 90, 180, 365};
+
     // UI Components
     private TextView institutionNameText;
     private TextView managerInfoText;
     private TextView rolesListText;
     private TextView reportsStatsText;
+    private TextView slaStatsText;
+    private Spinner assignmentPolicySpinner;
+    private Spinner archiveAfterSpinner;
     private Button addRolesButton;
     private Button viewReportsButton;
+    private Button viewMembersButton;
+    private Button exportReportsButton;
+    private Button importReportsButton;
     private Button backButton;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
+    private ReportMirror reportMirror;
 
     // Data
     private String institutionId;
+    private String assignmentPolicy = ReportAssignment.POLICY_LEAST_LOADED;
+    private int archiveAfterDays = ReportArchiver.DEFAULT_ARCHIVE_AFTER_DAYS;
+
+    // Export in progress, if any, and its progress dialog
+    private ReportExporter exporter;
+    private AlertDialog exportProgressDialog;
+
+    // Import in progress, if any, its progress dialog, and the error report of the last finished one
+    private ReportImporter importer;
+    private AlertDialog importProgressDialog;
+    private File importErrorReport;
+
+    // The user picks where the export is saved; each format needs its own launcher
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"),
+            uri -> startExport(uri, ReportExportWriter.FORMAT_CSV));
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"),
+            uri -> startExport(uri, ReportExportWriter.FORMAT_JSON));
+    private final ActivityResultLauncher<String[]> importFileLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            this::startImport);
+    private final ActivityResultLauncher<String> errorReportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"),
+            this::saveImportErrors);
     
     // Flag to track if this is first load
     private boolean isFirstLoad = true;
@@ -45,6 +105,7 @@ public class InstitutionDetailActivity extends AppCompatActivity {
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
+        reportMirror = ReportMirror.getInstance(this);
 
         // Get institution ID from intent
         institutionId = getIntent().getStringExtra("institutionId");
@@ -58,11 +119,16 @@ public class InstitutionDetailActivity extends AppCompatActivity {
         // Initialize views
         initializeViews();
 
+        // Setup assignment policy spinner
+        setupAssignmentPolicy();
+        setupArchiveAfter();
+
         // Load institution data
         loadInstitutionData();
 
         // Load reports statistics
         loadReportsStatistics();
+        loadResolutionTimes();
 
         // Set up listeners
         setupListeners();
@@ -75,50 +141,65 @@ public class InstitutionDetailActivity extends AppCompatActivity {
         if (!isFirstLoad) {
             loadInstitutionData();
             loadReportsStatistics();
+            loadResolutionTimes();
         }
         isFirstLoad = false;
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Leaving the screen stops the export, and the partial file is deleted once
+        // it stops. When the screen is only recreated, e.g. on rotation, the export
+        // finishes on its own and announces the result with a toast.
+        if (exporter != null) {
+            if (isFinishing()) {
+                exporter.cancel();
+            }
+            exportProgressDialog.dismiss();
+        }
+        // Leaving the screen pauses the import at its next checkpoint, to be resumed
+        // later; a recreated screen lets it run on
+        if (importer != null) {
+            if (isFinishing()) {
+                importer.cancel();
+            }
+            importProgressDialog.dismiss();
+        }
+    }
+
     private void initializeViews() {
         institutionNameText = findViewById(R.id.institutionNameText);
         managerInfoText = findViewById(R.id.managerInfoText);
         rolesListText = findViewById(R.id.rolesListText);
         reportsStatsText = findViewById(R.id.reportsStatsText);
+        slaStatsText = findViewById(R.id.slaStatsText);
+        assignmentPolicySpinner = findViewById(R.id.assignmentPolicySpinner);
+        archiveAfterSpinner = findViewById(R.id.archiveAfterSpinner);
         addRolesButton = findViewById(R.id.addRolesButton);
         viewReportsButton = findViewById(R.id.viewReportsButton);
+        viewMembersButton = findViewById(R.id.viewMembersButton);
+        exportReportsButton = findViewById(R.id.exportReportsButton);
+        importReportsButton = findViewById(R.id.importReportsButton);
         backButton = findViewById(R.id.backButton);
     }
 
     private void loadInstitutionData() {
-        db.collection("institutions").document(institutionId)
-                .get()
+        // Render immediately from the copy the dashboard already loaded
+        Map<String, Object> cachedInstitution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (cachedInstitution != null) {
+            displayInstitution(cachedInstitution);
+        }
+
+        // Revalidate against Firestore in the background
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        String institutionName = documentSnapshot.getString("institutionName");
-                        String managerId = documentSnapshot.getString("managerId");
-                        String managerRoleName = documentSnapshot.getString("managerRoleName");
-                        List<String> roles = (List<String>) documentSnapshot.get("roles");
-
-                        // Set institution name
-                        if (institutionName != null) {
-                            institutionNameText.setText(institutionName);
-                        }
-
-                        // Load manager name
-                        if (managerId != null) {
-                            loadManagerName(managerId, managerRoleName);
-                        }
-
-                        // Set roles list
-                        if (roles != null && !roles.isEmpty()) {
-                            String rolesText = String.join(", ", roles);
-                            rolesListText.setText(rolesText);
-                        } else {
-                            rolesListText.setText("No roles defined yet.");
-                        }
-
-                        Log.d(TAG, "Institution data loaded: " + institutionName);
+                        EntityStore.put(documentSnapshot);
+                        displayInstitution(documentSnapshot.getData());
+                        Log.d(TAG, "Institution data loaded: " + documentSnapshot.getString("institutionName"));
                     } else {
+                        EntityStore.remove(EntityStore.institutionPath(institutionId));
                         Toast.makeText(this, "Institution not found", Toast.LENGTH_SHORT).show();
                         finish();
                     }
@@ -129,17 +210,158 @@ public class InstitutionDetailActivity extends AppCompatActivity {
                 });
     }
 
+    private void displayInstitution(Map<String, Object> institution) {
+        String institutionName = (String) institution.get("institutionName");
+        List<String> managerIds = (List<String>) institution.get("managerIds");
+        // Institutions not yet migrated by LegacyFieldMigration only have the old managerId
+        String managerId = managerIds != null && !managerIds.isEmpty()
+                ? managerIds.get(0) : (String) institution.get("managerId");
+        String managerRoleName = (String) institution.get("managerRoleName");
+        List<String> roles = (List<String>) institution.get("roles");
+
+        // Set institution name
+        if (institutionName != null) {
+            institutionNameText.setText(institutionName);
+        }
+
+        // Load manager name
+        if (managerId != null) {
+            loadManagerName(managerId, managerRoleName);
+        }
+
+        // Show the current assignment policy
+        String policy = (String) institution.get("assignmentPolicy");
+        assignmentPolicy = ReportAssignment.POLICY_ROUND_ROBIN.equals(policy)
+                ? ReportAssignment.POLICY_ROUND_ROBIN : ReportAssignment.POLICY_LEAST_LOADED;
+        assignmentPolicySpinner.setSelection(
+                ReportAssignment.POLICY_ROUND_ROBIN.equals(assignmentPolicy) ? 1 : 0);
+
+        // Show when resolved reports are archived
+        archiveAfterDays = ReportArchiver.archiveAfterDays(institution);
+        for (int i = 0; i < ARCHIVE_AFTER_DAYS.length; i++) {
+            if (ARCHIVE_AFTER_DAYS[i] == archiveAfterDays) {
+                archiveAfterSpinner.setSelection(i);
+            }
+        }
+
+        // Set roles list
+        if (roles != null && !roles.isEmpty()) {
+            String rolesText = String.join(", ", roles);
+            rolesListText.setText(rolesText);
+        } else {
+            rolesListText.setText("No roles defined yet.");
+        }
+    }
+
+    private void setupAssignmentPolicy() {
+        List<String> policyOptions = new ArrayList<>();
+        policyOptions.add("Least busy manager");
+        policyOptions.add("Each manager in turn");
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                policyOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        assignmentPolicySpinner.setAdapter(adapter);
+
+        assignmentPolicySpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                String selected = position == 1
+                        ? ReportAssignment.POLICY_ROUND_ROBIN : ReportAssignment.POLICY_LEAST_LOADED;
+                // Ignore the callbacks from showing the stored policy
+                if (!selected.equals(assignmentPolicy)) {
+                    updateAssignmentPolicy(selected);
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    private void updateAssignmentPolicy(String policy) {
+        assignmentPolicy = policy;
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("assignmentPolicy", policy);
+        db.collection("institutions").document(institutionId)
+                .update(updates)
+                .addOnSuccessListener(aVoid -> {
+                    FirestoreUsage.recordWrites(1);
+                    EntityStore.merge(EntityStore.institutionPath(institutionId), updates);
+                    Log.d(TAG, "Assignment policy set to " + policy);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error updating assignment policy", e);
+                    Toast.makeText(this, "Error updating assignment policy", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void setupArchiveAfter() {
+        List<String> archiveOptions = new ArrayList<>();
+        archiveOptions.add("Never");
+        archiveOptions.add("After 90 days");
+        archiveOptions.add("After 180 days");
+        archiveOptions.add("After 1 year");
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                archiveOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        archiveAfterSpinner.setAdapter(adapter);
+        archiveAfterSpinner.setSelection(2);
+
+        archiveAfterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                // Ignore the callbacks from showing the stored setting
+                if (ARCHIVE_AFTER_DAYS[position] != archiveAfterDays) {
+                    updateArchiveAfter(ARCHIVE_AFTER_DAYS[position]);
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    private void updateArchiveAfter(int days) {
+        archiveAfterDays = days;
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("archiveAfterDays", days);
+        db.collection("institutions").document(institutionId)
+                .update(updates)
+                .addOnSuccessListener(aVoid -> {
+                    FirestoreUsage.recordWrites(1);
+                    EntityStore.merge(EntityStore.institutionPath(institutionId), updates);
+                    Log.d(TAG, "Archiving set to " + days + " days");
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error updating archive setting", e);
+                    Toast.makeText(this, "Error updating archive setting", Toast.LENGTH_SHORT).show();
+                });
+    }
+
     private void loadManagerName(String managerId, String managerRoleName) {
-        db.collection("users").document(managerId)
-                .get()
+        Map<String, Object> cachedManager = EntityStore.get(EntityStore.userPath(managerId));
+        if (cachedManager != null) {
+            displayManagerName((String) cachedManager.get("fullName"), managerRoleName);
+            return;
+        }
+
+        scope.bind(FirestoreUsage.get(db.collection("users").document(managerId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        String managerName = documentSnapshot.getString("fullName");
-                        if (managerName != null && managerRoleName != null) {
-                            managerInfoText.setText("Manager: " + managerName + " (" + managerRoleName + ")");
-                        } else if (managerName != null) {
-                            managerInfoText.setText("Manager: " + managerName);
-                        }
+                        EntityStore.put(documentSnapshot);
+                        displayManagerName(documentSnapshot.getString("fullName"), managerRoleName);
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -147,6 +369,14 @@ public class InstitutionDetailActivity extends AppCompatActivity {
                 });
     }
 
+    private void displayManagerName(String managerName, String managerRoleName) {
+        if (managerName != null && managerRoleName != null) {
+            managerInfoText.setText("Manager: " + managerName + " (" + managerRoleName + ")");
+        } else if (managerName != null) {
+            managerInfoText.setText("Manager: " + managerName);
+        }
+    }
+
     private void setupListeners() {
         // Add More Roles button
         addRolesButton.setOnClickListener(v -> {
@@ -167,6 +397,26 @@ public class InstitutionDetailActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        // View Members button
+        viewMembersButton.setOnClickListener(v -> {
+            Intent intent = new Intent(InstitutionDetailActivity.this, MemberRosterActivity.class);
+            intent.putExtra("institutionId", institutionId);
+            intent.putExtra("institutionName", institutionNameText.getText().toString());
+            startActivity(intent);
+        });
+
+        // Export Reports button
+        exportReportsButton.setOnClickListener(v -> {
+            Log.d(TAG, "Export Reports button clicked");
+            chooseExportFormat();
+        });
+
+        // Import Reports button
+        importReportsButton.setOnClickListener(v -> {
+            Log.d(TAG, "Import Reports button clicked");
+            chooseImport();
+        });
+
         // Back button
         backButton.setOnClickListener(v -> {
             Log.d(TAG, "Back button clicked");
@@ -174,46 +424,226 @@ public class InstitutionDetailActivity extends AppCompatActivity {
         });
     }
 
-    private void loadReportsStatistics() {
-        db.collection("reports")
-                .whereEqualTo("institutionId", institutionId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    int totalReports = queryDocumentSnapshots.size();
-                    int pendingCount = 0;
-                    int investigatingCount = 0;
-                    int verifiedCount = 0;
-                    int rejectedCount = 0;
-
-                    // Count reports by status
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        String status = document.getString("status");
-                        if (status != null) {
-                            switch (status.toLowerCase()) {
-                                case "pending":
-                                    pendingCount++;
-                                    break;
-                                case "investigating":
-                                    investigatingCount++;
-                                    break;
-                                case "verified":
-                                    verifiedCount++;
-                                    break;
-                                case "rejected":
-                                    rejectedCount++;
-                                    break;
-                            }
-                        }
+    private void chooseExportFormat() {
+        String[] formats = {"CSV (spreadsheets)", "JSON"};
+        new AlertDialog.Builder(this)
+                .setTitle("Export reports as")
+                .setItems(formats, (dialog, which) -> {
+                    if (which == 0) {
+                        exportCsvLauncher.launch(exportFileName(ReportExportWriter.FORMAT_CSV));
+                    } else {
+                        exportJsonLauncher.launch(exportFileName(ReportExportWriter.FORMAT_JSON));
                     }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
-                    // Update the UI
-                    String statsText = "Total: " + totalReports + " | " +
-                            "Pending: " + pendingCount + " | " +
-                            "Investigating: " + investigatingCount + " | " +
-                            "Verified: " + verifiedCount + " | " +
-                            "Rejected: " + rejectedCount;
-                    reportsStatsText.setText(statsText);
+    private String exportFileName(String extension) {
+        String name = institutionNameText.getText().toString().replaceAll("[^A-Za-z0-9]+", "-");
+        String date = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
+        return name + "-reports-" + date + "." + extension;
+    }
+
+    private void startExport(Uri uri, String format) {
+        // The user backed out of the file picker
+        if (uri == null) {
+            return;
+        }
 
+        exporter = new ReportExporter(db, getContentResolver(), institutionId, uri, format);
+        ReportExporter running = exporter;
+        exportProgressDialog = new AlertDialog.Builder(this)
+                .setTitle("Exporting reports")
+                .setMessage("Preparing export...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> running.cancel())
+                .show();
+        exportReportsButton.setEnabled(false);
+
+        running.run((exported, total) -> {
+                    if (exportProgressDialog.isShowing()) {
+                        exportProgressDialog.setMessage(total >= 0
+                                ? "Exported " + exported + " of " + total + " reports"
+                                : "Exported " + exported + " reports");
+                    }
+                })
+                // Not scoped to the activity: in the background the result still has to
+                // reset the dialog and button, and after a rotation it is still announced
+                .addOnCompleteListener(task -> finishExport())
+                .addOnSuccessListener(count -> Toast.makeText(getApplicationContext(),
+                        "Exported " + count + " reports", Toast.LENGTH_SHORT).show())
+                .addOnFailureListener(e -> {
+                    if (e instanceof CancellationException) {
+                        Toast.makeText(getApplicationContext(), "Export cancelled", Toast.LENGTH_SHORT).show();
+                    } else {
+                        Log.e(TAG, "Error exporting reports", e);
+                        Toast.makeText(getApplicationContext(), "Error exporting reports", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void finishExport() {
+        exporter = null;
+        if (scope.isActive()) {
+            exportProgressDialog.dismiss();
+            exportReportsButton.setEnabled(true);
+        }
+    }
+
+    private void chooseImport() {
+        // Still running from before the screen was recreated
+        if (ReportImporter.isRunning()) {
+            Toast.makeText(this, "An import is still running", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (ReportImporter.getPendingImport(this, institutionId) == null) {
+            pickImportFile();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Unfinished import")
+                .setMessage("An earlier import into this institution did not finish. Resume it where it stopped?")
+                .setPositiveButton("Resume", (dialog, which) -> runImport(null))
+                .setNegativeButton("Choose Another File", (dialog, which) -> pickImportFile())
+                .setNeutralButton("Cancel", null)
+                .show();
+    }
+
+    private void pickImportFile() {
+        new AlertDialog.Builder(this)
+                .setTitle("Import reports")
+                .setMessage("Choose a CSV file with a header row. Required columns: title, description. "
+                        + "Optional: status, role, createdAt (yyyy-MM-dd), response.")
+                .setPositiveButton("Choose File", (dialog, which) -> importFileLauncher.launch(
+                        new String[]{"text/csv", "text/comma-separated-values", "text/plain"}))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void startImport(Uri uri) {
+        // The user backed out of the file picker
+        if (uri == null) {
+            return;
+        }
+        // Keep read access across restarts, so an interrupted import can be resumed
+        try {
+            getContentResolver().takePersistableUriPermission(uri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        } catch (SecurityException e) {
+            Log.w(TAG, "Import file cannot be resumed after a restart", e);
+        }
+        runImport(uri);
+    }
+
+    // Starts a new import of uri, or resumes the unfinished one when uri is null
+    private void runImport(Uri uri) {
+        importer = new ReportImporter(this, db, institutionId,
+                institutionNameText.getText().toString(), mAuth.getCurrentUser().getUid());
+        ReportImporter running = importer;
+        importProgressDialog = new AlertDialog.Builder(this)
+                .setTitle("Importing reports")
+                .setMessage("Reading file...")
+                .setCancelable(false)
+                .setNegativeButton("Pause", (dialog, which) -> running.cancel())
+                .show();
+        importReportsButton.setEnabled(false);
+
+        ReportImporter.ProgressListener listener = (imported, failed) -> {
+            if (importProgressDialog.isShowing()) {
+                importProgressDialog.setMessage("Imported " + imported + " reports"
+                        + (failed > 0 ? ", " + failed + " rows with errors" : ""));
+            }
+        };
+        (uri != null ? running.start(uri, listener) : running.resume(listener))
+                // Not scoped to the activity, like the export's listeners
+                .addOnCompleteListener(task -> finishImport())
+                .addOnSuccessListener(summary -> {
+                    if (scope.isActive()) {
+                        showImportSummary(summary);
+                        loadReportsStatistics();
+                    } else {
+                        Toast.makeText(getApplicationContext(), "Imported " + summary.getImported() + " reports",
+                                Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (e instanceof CancellationException) {
+                        Toast.makeText(getApplicationContext(), "Import paused; tap Import Reports to resume",
+                                Toast.LENGTH_LONG).show();
+                    } else {
+                        Log.e(TAG, "Error importing reports", e);
+                        Toast.makeText(getApplicationContext(), "Import stopped: " + e.getMessage(),
+                                Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
+
+    private void finishImport() {
+        importer = null;
+        if (scope.isActive()) {
+            importProgressDialog.dismiss();
+            importReportsButton.setEnabled(true);
+        }
+    }
+
+    private void showImportSummary(ReportImporter.Summary summary) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                .setTitle("Import finished")
+                .setMessage("Imported " + summary.getImported() + " reports."
+                        + (summary.getFailed() > 0
+                        ? "\n\n" + summary.getFailed() + " rows were skipped because of errors." : ""))
+                .setPositiveButton("OK", null);
+        if (summary.getFailed() > 0) {
+            importErrorReport = summary.getErrorReport();
+            builder.setNeutralButton("Save Error Report",
+                    (dialog, which) -> errorReportLauncher.launch(exportFileName("errors.csv")));
+        }
+        builder.show();
+    }
+
+    // Copies the error report of the last import to the file the user picked
+    private void saveImportErrors(Uri uri) {
+        if (uri == null || importErrorReport == null) {
+            return;
+        }
+        File source = importErrorReport;
+        Tasks.call(ResultPipeline.EXECUTOR, () -> {
+            try (InputStream in = new FileInputStream(source);
+                 OutputStream out = getContentResolver().openOutputStream(uri, "wt")) {
+                if (out == null) {
+                    throw new IOException("Cannot open " + uri);
+                }
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            return null;
+        }).addOnSuccessListener(ignored -> {
+            Toast.makeText(getApplicationContext(), "Error report saved", Toast.LENGTH_SHORT).show();
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Error saving error report", e);
+            Toast.makeText(getApplicationContext(), "Error saving error report", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private void loadReportsStatistics() {
+        // Bring the local mirror up to date (only changed reports are downloaded),
+        // then count with indexed queries on the device. Offline, the last synced
+        // copy is counted instead. Archived reports are not counted.
+        long archivedBefore = ReportArchiver.archivedBefore(
+                EntityStore.get(EntityStore.institutionPath(institutionId)));
+        Task<Void> synced = reportMirror.sync(institutionId).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Report sync failed, using saved reports", task.getException());
+            }
+            return reportMirror.pruneArchived(institutionId, archivedBefore);
+        }).continueWith(task -> null);
+
+        scope.bind(ResultPipeline.map(synced, ignored -> buildStatsText()))
+                .addOnSuccessListener(statsText -> {
+                    reportsStatsText.setText(statsText);
                     Log.d(TAG, "Reports statistics loaded: " + statsText);
                 })
                 .addOnFailureListener(e -> {
@@ -221,4 +651,57 @@ public class InstitutionDetailActivity extends AppCompatActivity {
                     reportsStatsText.setText("Error loading reports statistics");
                 });
     }
+
+    // Percentiles come from the institution's pre-aggregated sketches, one document read
+    private void loadResolutionTimes() {
+        scope.bind(ResolutionMetrics.load(db, institutionId))
+                .addOnSuccessListener(sketches -> {
+                    DurationSketch firstResponse = sketches.get(ResolutionMetrics.FIRST_RESPONSE);
+                    DurationSketch resolution = sketches.get(ResolutionMetrics.RESOLUTION);
+                    if (firstResponse.getCount() == 0 && resolution.getCount() == 0) {
+                        slaStatsText.setText("Response times: no data yet");
+                        return;
+                    }
+                    slaStatsText.setText("First response: " + formatPercentiles(firstResponse) + "\n"
+                            + "Resolution: " + formatPercentiles(resolution));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading resolution times", e);
+                });
+    }
+
+    private String formatPercentiles(DurationSketch sketch) {
+        if (sketch.getCount() == 0) {
+            return "no data yet";
+        }
+        return "p50 " + ResolutionMetrics.formatDuration(sketch.quantile(0.5))
+                + " | p90 " + ResolutionMetrics.formatDuration(sketch.quantile(0.9))
+                + " (" + sketch.getCount() + " reports)";
+    }
+
+    // Runs on the pipeline pool
+    private String buildStatsText() {
+        Map<String, Integer> counts = reportMirror.countByStatusNow(institutionId);
+        int totalReports = 0;
+        for (int count : counts.values()) {
+            totalReports += count;
+        }
+
+        // Pending reports nobody has picked up within a week
+        int overdueCount = reportMirror.countNow(new ReportFilter(institutionId)
+                .status("pending")
+                .createdBefore(System.currentTimeMillis() - OVERDUE_AFTER_MILLIS));
+
+        return "Total: " + totalReports + " | " +
+                "Pending: " + getOrZero(counts, "pending") + " | " +
+                "Investigating: " + getOrZero(counts, "investigating") + " | " +
+                "Verified: " + getOrZero(counts, "verified") + " | " +
+                "Rejected: " + getOrZero(counts, "rejected") + " | " +
+                "Overdue: " + overdueCount;
+    }
+
+    private static int getOrZero(Map<String, Integer> counts, String status) {
+        Integer count = counts.get(status);
+        return count != null ? count : 0;
+    }
 }
@@ -0,0 +1,114 @@
+package com.example.cms;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recycled list of institution cards shared by the manager dashboard, the user
+ * dashboard and the join screen. Updates are diffed against the previous list,
+ * so a refresh only rebinds the cards that changed.
+ */
+public class InstitutionListAdapter extends ListAdapter<InstitutionListItem, InstitutionListAdapter.ViewHolder> {
+
+    public interface OnInstitutionClickListener {
+        void onInstitutionClick(InstitutionListItem item);
+    }
+
+    private static final DiffUtil.ItemCallback<InstitutionListItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<InstitutionListItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull InstitutionListItem oldItem,
+                                               @NonNull InstitutionListItem newItem) {
+                    return oldItem.getInstitutionId().equals(newItem.getInstitutionId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull InstitutionListItem oldItem,
+                                                  @NonNull InstitutionListItem newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+
+    private final OnInstitutionClickListener clickListener;
+
+    // Document IDs are strings, so hand out a stable long per institution
+    private final Map<String, Long> stableIds = new HashMap<>();
+
+    public InstitutionListAdapter(OnInstitutionClickListener clickListener) {
+        super(DIFF_CALLBACK);
+        this.clickListener = clickListener;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String institutionId = getItem(position).getInstitutionId();
+        Long id = stableIds.get(institutionId);
+        if (id == null) {
+            id = (long) stableIds.size();
+            stableIds.put(institutionId, id);
+        }
+        return id;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_institution, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        InstitutionListItem item = getItem(position);
+
+        holder.nameText.setText(item.getName() != null ? item.getName() : "Institution");
+        bindLine(holder.detailText, item.getDetail());
+        holder.detailText.setTextColor(item.getDetailColor());
+        bindLine(holder.secondaryText, item.getSecondary());
+        bindLine(holder.footerText, item.getFooter());
+        holder.footerText.setTextColor(item.getFooterColor());
+
+        holder.itemView.setOnClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (adapterPosition != RecyclerView.NO_POSITION) {
+                clickListener.onInstitutionClick(getItem(adapterPosition));
+            }
+        });
+    }
+
+    private void bindLine(TextView textView, String text) {
+        if (text != null) {
+            textView.setText(text);
+            textView.setVisibility(View.VISIBLE);
+        } else {
+            textView.setVisibility(View.GONE);
+        }
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView nameText;
+        final TextView detailText;
+        final TextView secondaryText;
+        final TextView footerText;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            nameText = itemView.findViewById(R.id.institutionNameText);
+            detailText = itemView.findViewById(R.id.detailText);
+            secondaryText = itemView.findViewById(R.id.secondaryText);
+            footerText = itemView.findViewById(R.id.footerText);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cms;
+
+import java.util.Objects;
+
+/**
+ * Ready-to-bind display model for one institution card. Lines that are null
+ * are hidden. Equality covers everything that is displayed so the list can
+ * tell which cards actually changed.
+ */
+public class InstitutionListItem {
+
+    private final String institutionId;
+    private final String name;
+    private final String detail;
+    private final int detailColor;
+    private final String secondary;
+    private final String footer;
+    private final int footerColor;
+
+    public InstitutionListItem(String institutionId, String name, String detail, int detailColor,
+                               String secondary, String footer, int footerColor) {
+        this.institutionId = institutionId;
+        this.name = name;
+        this.detail = detail;
+        this.detailColor = detailColor;
+        this.secondary = secondary;
+        this.footer = footer;
+        this.footerColor = footerColor;
+    }
+
+    // Same card with a different secondary line
+    public InstitutionListItem withSecondary(String newSecondary) {
+        return new InstitutionListItem(institutionId, name, detail, detailColor, newSecondary, footer, footerColor);
+    }
+
+    public String getInstitutionId() {
+        return institutionId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public int getDetailColor() {
+        return detailColor;
+    }
+
+    public String getSecondary() {
+        return secondary;
+    }
+
+    public String getFooter() {
+        return footer;
+    }
+
+    public int getFooterColor() {
+        return footerColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InstitutionListItem)) return false;
+        InstitutionListItem that = (InstitutionListItem) o;
+        return detailColor == that.detailColor
+                && footerColor == that.footerColor
+                && Objects.equals(institutionId, that.institutionId)
+                && Objects.equals(name, that.name)
+                && Objects.equals(detail, that.detail)
+                && Objects.equals(secondary, that.secondary)
+                && Objects.equals(footer, that.footer);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(institutionId, name, detail, detailColor, secondary, footer, footerColor);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cms;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Members of an institution, one document per user in
+ * institutions/{id}/members/{userId} with the user's role, name and email, so a
+ * manager can list and count members with indexed queries instead of scanning
+ * every user's institutions array. Joining or creating an institution writes
+ * the user's array and the member document in the same batch.
+ */
+public final class InstitutionMembers {
+
+    public static final String COLLECTION = "members";
+
+    private InstitutionMembers() {
+    }
+
+    public static DocumentReference reference(FirebaseFirestore db, String institutionId, String userId) {
+        return db.collection("institutions").document(institutionId)
+                .collection(COLLECTION).document(userId);
+    }
+
+    /**
+     * Member document for a user; name and email are copied from the user document
+     * so the roster needs no user reads. joinedAt is left out when null, e.g. when
+     * indexing memberships that existed before the index.
+     */
+    public static Map<String, Object> entry(DocumentSnapshot user, String role, boolean isManager, Long joinedAt) {
+        Map<String, Object> member = new HashMap<>();
+        member.put("userId", user.getId());
+        // The roster is ordered by name, and documents without the field would be left out
+        String fullName = user.getString("fullName");
+        member.put("fullName", fullName != null ? fullName : "");
+        member.put("email", user.getString("email"));
+        member.put("role", role);
+        member.put("isManager", isManager);
+        if (joinedAt != null) {
+            member.put("joinedAt", joinedAt);
+        }
+        return member;
+    }
+
+    // Members in name order; role is null for all roles
+    public static Query roster(FirebaseFirestore db, String institutionId, String role) {
+        Query query = db.collection("institutions").document(institutionId).collection(COLLECTION);
+        if (role != null) {
+            query = query.whereEqualTo("role", role);
+        }
+        return query.orderBy("fullName");
+    }
+}
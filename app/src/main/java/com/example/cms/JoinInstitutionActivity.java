@@ -5,19 +5,23 @@ import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
-import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -36,17 +40,20 @@ public class JoinInstitutionActivity extends AppCompatActivity {
     private RadioGroup rolesRadioGroup;
     private Button joinButton;
     private Button cancelButton;
-    private LinearLayout institutionsListContainer;
+    private RecyclerView institutionsRecyclerView;
+    private TextView institutionsEmptyText;
+    private InstitutionListAdapter institutionsAdapter;
     private ProgressBar progressBar;
-    private ScrollView mainScrollView;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String currentInstitutionId;
     private String currentInstitutionName;
+    private final Map<String, DocumentSnapshot> loadedInstitutions = new HashMap<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,19 +78,6 @@ public class JoinInstitutionActivity extends AppCompatActivity {
     }
 
     private void initializeViews() {
-        // Find ScrollView by traversing the view hierarchy
-        View decorView = getWindow().getDecorView();
-        View rootView = decorView.findViewById(android.R.id.content);
-        if (rootView instanceof android.view.ViewGroup) {
-            android.view.ViewGroup viewGroup = (android.view.ViewGroup) rootView;
-            if (viewGroup.getChildCount() > 0) {
-                View child = viewGroup.getChildAt(0);
-                if (child instanceof ScrollView) {
-                    mainScrollView = (ScrollView) child;
-                }
-            }
-        }
-        
         institutionNameEditText = findViewById(R.id.institutionNameEditText);
         searchButton = findViewById(R.id.searchButton);
         institutionDetailsContainer = findViewById(R.id.institutionDetailsContainer);
@@ -91,8 +85,12 @@ public class JoinInstitutionActivity extends AppCompatActivity {
         rolesRadioGroup = findViewById(R.id.rolesRadioGroup);
         joinButton = findViewById(R.id.joinButton);
         cancelButton = findViewById(R.id.cancelButton);
-        institutionsListContainer = findViewById(R.id.institutionsListContainer);
+        institutionsRecyclerView = findViewById(R.id.institutionsRecyclerView);
+        institutionsEmptyText = findViewById(R.id.institutionsEmptyText);
         progressBar = findViewById(R.id.progressBar);
+
+        institutionsAdapter = new InstitutionListAdapter(this::selectInstitution);
+        institutionsRecyclerView.setAdapter(institutionsAdapter);
     }
 
     private void checkUserInstitution() {
@@ -152,69 +150,61 @@ public class JoinInstitutionActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         institutionDetailsContainer.setVisibility(View.GONE);
 
-        // Search institutions by name (case-insensitive)
-        db.collection("institutions")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
+        // Search institutions by name (case-insensitive); the scan runs on the background pipeline
+        scope.bind(ResultPipeline.map(FirestoreUsage.get(db.collection("institutions")),
+                        queryDocumentSnapshots -> findInstitution(queryDocumentSnapshots, searchName)))
+                .addOnSuccessListener(document -> {
                     progressBar.setVisibility(View.GONE);
 
-                    boolean found = false;
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        String institutionName = document.getString("institutionName");
-                        
-                        if (institutionName != null && institutionName.equalsIgnoreCase(searchName)) {
-                            // Found matching institution
-                            currentInstitutionId = document.getId();
-                            currentInstitutionName = institutionName;
-                            String managerRoleName = document.getString("managerRoleName");
-                            List<String> roles = (List<String>) document.get("roles");
-
-                            // Display institution details
-                            institutionNameText.setText(currentInstitutionName);
-
-                            // Clear previous radio buttons
-                            rolesRadioGroup.removeAllViews();
-
-                            // Add radio buttons for each role (exclude manager role)
-                            if (roles != null && !roles.isEmpty()) {
-                                for (String role : roles) {
-                                    // Skip manager role - only regular users can join
-                                    if (role.equalsIgnoreCase(managerRoleName)) {
-                                        continue;
-                                    }
-                                    
-                                    RadioButton radioButton = new RadioButton(this);
-                                    radioButton.setText(role);
-                                    radioButton.setTextSize(16);
-                                    radioButton.setTextColor(android.graphics.Color.parseColor("#212121"));
-                                    radioButton.setPadding(16, 16, 16, 16);
-                                    rolesRadioGroup.addView(radioButton);
-                                }
-                                
-                                if (rolesRadioGroup.getChildCount() == 0) {
-                                    Toast.makeText(this, "No roles available for users to join", 
-                                            Toast.LENGTH_SHORT).show();
-                                    return;
-                                }
-                            } else {
-                                Toast.makeText(this, "No roles available in this institution", 
-                                        Toast.LENGTH_SHORT).show();
-                                return;
-                            }
+                    if (document == null) {
+                        Toast.makeText(this, "Institution not found. Please check the name.", 
+                                Toast.LENGTH_SHORT).show();
+                        return;
+                    }
 
-                            // Show institution details container
-                            institutionDetailsContainer.setVisibility(View.VISIBLE);
+                    // Found matching institution
+                    currentInstitutionId = document.getId();
+                    currentInstitutionName = institutionName;
+                    String managerRoleName = document.getString("managerRoleName");
+                    List<String> roles = (List<String>) document.get("roles");
 
-                            Log.d(TAG, "Institution found: " + currentInstitutionName);
-                            found = true;
-                            break;
-                        }
-                    }
+                    // Display institution details
+                    institutionNameText.setText(currentInstitutionName);
 
-                    if (!found) {
-                        Toast.makeText(this, "Institution not found. Please check the name.", 
+                    // Clear previous radio buttons
+                    rolesRadioGroup.removeAllViews();
+
+                    // Add radio buttons for each role (exclude manager role)
+                    if (roles != null && !roles.isEmpty()) {
+                        for (String role : roles) {
+                            // Skip manager role - only regular users can join
+                            if (role.equalsIgnoreCase(managerRoleName)) {
+                                continue;
+                            }
+                            
+                            RadioButton radioButton = new RadioButton(this);
+                            radioButton.setText(role);
+                            radioButton.setTextSize(16);
+                            radioButton.setTextColor(android.graphics.Color.parseColor("#212121"));
+                            radioButton.setPadding(16, 16, 16, 16);
+                            rolesRadioGroup.addView(radioButton);
+                        }
+                        
+                        if (rolesRadioGroup.getChildCount() == 0) {
+                            Toast.makeText(this, "No roles available for users to join", 
+                                    Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                    } else {
+                        Toast.makeText(this, "No roles available in this institution", 
                                 Toast.LENGTH_SHORT).show();
+                        return;
                     }
+
+                    // Show institution details container
+                    institutionDetailsContainer.setVisibility(View.VISIBLE);
+
+                    Log.d(TAG, "Institution found: " + currentInstitutionName);
                 })
                 .addOnFailureListener(e -> {
                     progressBar.setVisibility(View.GONE);
@@ -224,169 +214,131 @@ public class JoinInstitutionActivity extends AppCompatActivity {
                 });
     }
 
+    // Runs on the pipeline pool
+    private DocumentSnapshot findInstitution(QuerySnapshot queryDocumentSnapshots, String searchName) {
+        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+            String institutionName = document.getString("institutionName");
+            if (institutionName != null && institutionName.equalsIgnoreCase(searchName)) {
+                return document;
+            }
+        }
+        return null;
+    }
+
     private void loadAllInstitutions() {
-        db.collection("institutions")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    institutionsListContainer.removeAllViews();
-
-                    if (queryDocumentSnapshots.isEmpty()) {
-                        TextView noInstitutionsText = new TextView(this);
-                        noInstitutionsText.setText("No institutions available yet.");
-                        noInstitutionsText.setTextSize(14);
-                        noInstitutionsText.setTextColor(getResources().getColor(android.R.color.darker_gray));
-                        noInstitutionsText.setPadding(16, 16, 16, 16);
-                        institutionsListContainer.addView(noInstitutionsText);
+        // List items are built on the background pipeline
+        scope.bind(ResultPipeline.map(FirestoreUsage.get(db.collection("institutions")), this::buildInstitutionPage))
+                .addOnSuccessListener(page -> {
+                    loadedInstitutions.clear();
+                    loadedInstitutions.putAll(page.documents);
+
+                    if (page.items.isEmpty()) {
+                        showEmptyList("No institutions available yet.",
+                                getResources().getColor(android.R.color.darker_gray));
                         return;
                     }
 
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        String institutionId = document.getId();
-                        String institutionName = document.getString("institutionName");
-                        String managerRoleName = document.getString("managerRoleName");
-                        List<String> roles = (List<String>) document.get("roles");
-
-                        // Create a card for each institution
-                        androidx.constraintlayout.widget.ConstraintLayout institutionCard = 
-                                new androidx.constraintlayout.widget.ConstraintLayout(this);
-                        institutionCard.setLayoutParams(new LinearLayout.LayoutParams(
-                                LinearLayout.LayoutParams.MATCH_PARENT,
-                                LinearLayout.LayoutParams.WRAP_CONTENT));
-                        institutionCard.setPadding(16, 16, 16, 16);
-                        
-                        // Set background
-                        institutionCard.setBackgroundResource(R.drawable.report_item_background);
-                        
-                        // Set margin
-                        LinearLayout.LayoutParams cardParams = (LinearLayout.LayoutParams) institutionCard.getLayoutParams();
-                        cardParams.setMargins(0, 0, 0, 16);
-                        institutionCard.setLayoutParams(cardParams);
-
-                        // Institution Name
-                        TextView nameText = new TextView(this);
-                        nameText.setId(View.generateViewId());
-                        nameText.setText(institutionName);
-                        nameText.setTextSize(18);
-                        nameText.setTextColor(android.graphics.Color.parseColor("#212121"));
-                        android.text.TextPaint paint = nameText.getPaint();
-                        paint.setFakeBoldText(true);
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams nameParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        nameParams.topToTop = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameText.setLayoutParams(nameParams);
-                        institutionCard.addView(nameText);
-
-                        // Manager Role
-                        TextView managerText = new TextView(this);
-                        managerText.setId(View.generateViewId());
-                        managerText.setText("Manager Role: " + (managerRoleName != null ? managerRoleName : "N/A"));
-                        managerText.setTextSize(14);
-                        managerText.setTextColor(android.graphics.Color.parseColor("#757575"));
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams managerParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        managerParams.topToBottom = nameText.getId();
-                        managerParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        managerParams.topMargin = 8;
-                        managerText.setLayoutParams(managerParams);
-                        institutionCard.addView(managerText);
-
-                        // Available Roles
-                        TextView rolesText = new TextView(this);
-                        rolesText.setId(View.generateViewId());
-                        String rolesString = roles != null && !roles.isEmpty() ? 
-                                "Roles: " + String.join(", ", roles) : "No roles available";
-                        rolesText.setText(rolesString);
-                        rolesText.setTextSize(14);
-                        rolesText.setTextColor(android.graphics.Color.parseColor("#757575"));
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams rolesParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        0,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        rolesParams.topToBottom = managerText.getId();
-                        rolesParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        rolesParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        rolesParams.topMargin = 4;
-                        rolesText.setLayoutParams(rolesParams);
-                        institutionCard.addView(rolesText);
-
-                        // Make the card clickable
-                        final String finalInstitutionId = institutionId;
-                        final String finalInstitutionName = institutionName;
-                        final List<String> finalRoles = roles;
-                        
-                        institutionCard.setOnClickListener(v -> {
-                            // Set the search field with institution name
-                            institutionNameEditText.setText(finalInstitutionName);
-                            
-                            // Display institution details
-                            currentInstitutionId = finalInstitutionId;
-                            currentInstitutionName = finalInstitutionName;
-                            
-                            institutionNameText.setText(finalInstitutionName);
-
-                            // Clear previous radio buttons
-                            rolesRadioGroup.removeAllViews();
-
-                            // Add radio buttons for each role (exclude manager role)
-                            if (finalRoles != null && !finalRoles.isEmpty()) {
-                                for (String role : finalRoles) {
-                                    // Skip manager role - only regular users can join
-                                    if (role.equalsIgnoreCase(managerRoleName)) {
-                                        continue;
-                                    }
-                                    
-                                    RadioButton radioButton = new RadioButton(this);
-                                    radioButton.setText(role);
-                                    radioButton.setTextSize(16);
-                                    radioButton.setTextColor(android.graphics.Color.parseColor("#212121"));
-                                    radioButton.setPadding(16, 16, 16, 16);
-                                    rolesRadioGroup.addView(radioButton);
-                                }
-                                
-                                if (rolesRadioGroup.getChildCount() == 0) {
-                                    Toast.makeText(this, "No roles available for users to join", 
-                                            Toast.LENGTH_SHORT).show();
-                                    return;
-                                }
-                                
-                                // Show institution details container
-                                institutionDetailsContainer.setVisibility(View.VISIBLE);
-                                
-                                // Scroll to top to show the details
-                                if (mainScrollView != null) {
-                                    mainScrollView.post(() -> mainScrollView.smoothScrollTo(0, 0));
-                                }
-                            } else {
-                                Toast.makeText(this, "No roles available in this institution", 
-                                        Toast.LENGTH_SHORT).show();
-                            }
-                        });
-
-                        institutionsListContainer.addView(institutionCard);
-                    }
+                    institutionsEmptyText.setVisibility(View.GONE);
+                    institutionsAdapter.submitList(page.items);
 
-                    Log.d(TAG, "Loaded " + queryDocumentSnapshots.size() + " institutions");
+                    Log.d(TAG, "Loaded " + page.items.size() + " institutions");
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error loading institutions", e);
-                    TextView errorText = new TextView(this);
-                    errorText.setText("Error loading institutions");
-                    errorText.setTextSize(14);
-                    errorText.setTextColor(getResources().getColor(android.R.color.holo_red_dark));
-                    errorText.setPadding(16, 16, 16, 16);
-                    institutionsListContainer.addView(errorText);
+                    showEmptyList("Error loading institutions",
+                            getResources().getColor(android.R.color.holo_red_dark));
                 });
     }
 
+    // Runs on the pipeline pool
+    private InstitutionPage buildInstitutionPage(QuerySnapshot queryDocumentSnapshots) {
+        InstitutionPage page = new InstitutionPage();
+        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+            String institutionId = document.getId();
+            String institutionName = document.getString("institutionName");
+            String managerRoleName = document.getString("managerRoleName");
+            List<String> roles = (List<String>) document.get("roles");
+
+            page.documents.put(institutionId, document);
+
+            String rolesString = roles != null && !roles.isEmpty() ? 
+                    "Roles: " + String.join(", ", roles) : "No roles available";
+            page.items.add(new InstitutionListItem(
+                    institutionId,
+                    institutionName,
+                    "Manager Role: " + (managerRoleName != null ? managerRoleName : "N/A"),
+                    android.graphics.Color.parseColor("#757575"),
+                    rolesString,
+                    null,
+                    android.graphics.Color.parseColor("#9E9E9E")));
+        }
+        return page;
+    }
+
+    // Documents and list items produced together by one pipeline pass
+    private static class InstitutionPage {
+        final Map<String, DocumentSnapshot> documents = new HashMap<>();
+        final List<InstitutionListItem> items = new ArrayList<>();
+    }
+
+    private void showEmptyList(String message, int color) {
+        institutionsAdapter.submitList(new ArrayList<>());
+        institutionsEmptyText.setText(message);
+        institutionsEmptyText.setTextColor(color);
+        institutionsEmptyText.setVisibility(View.VISIBLE);
+    }
+
+    private void selectInstitution(InstitutionListItem item) {
+        DocumentSnapshot document = loadedInstitutions.get(item.getInstitutionId());
+        if (document == null) {
+            return;
+        }
+        String institutionName = document.getString("institutionName");
+        String managerRoleName = document.getString("managerRoleName");
+        List<String> roles = (List<String>) document.get("roles");
+
+        // Set the search field with institution name
+        institutionNameEditText.setText(institutionName);
+        
+        // Display institution details
+        currentInstitutionId = document.getId();
+        currentInstitutionName = institutionName;
+        
+        institutionNameText.setText(institutionName);
+
+        // Clear previous radio buttons
+        rolesRadioGroup.removeAllViews();
+
+        // Add radio buttons for each role (exclude manager role)
+        if (roles != null && !roles.isEmpty()) {
+            for (String role : roles) {
+                // Skip manager role - only regular users can join
+                if (role.equalsIgnoreCase(managerRoleName)) {
+                    continue;
+                }
+                
+                RadioButton radioButton = new RadioButton(this);
+                radioButton.setText(role);
+                radioButton.setTextSize(16);
+                radioButton.setTextColor(android.graphics.Color.parseColor("#212121"));
+                radioButton.setPadding(16, 16, 16, 16);
+                rolesRadioGroup.addView(radioButton);
+            }
+            
+            if (rolesRadioGroup.getChildCount() == 0) {
+                Toast.makeText(this, "No roles available for users to join", 
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
+            
+            // Show institution details container
+            institutionDetailsContainer.setVisibility(View.VISIBLE);
+        } else {
+            Toast.makeText(this, "No roles available in this institution", 
+                    Toast.LENGTH_SHORT).show();
+        }
+    }
+
     private void joinInstitution() {
         String userId = mAuth.getCurrentUser().getUid();
         int selectedId = rolesRadioGroup.getCheckedRadioButtonId();
@@ -396,9 +348,11 @@ public class JoinInstitutionActivity extends AppCompatActivity {
         // Show progress
         progressBar.setVisibility(View.VISIBLE);
 
-        // First, get current user's institutions array
-        db.collection("users").document(userId)
-                .get()
+        // Never fails; false while the legacy fields are still read
+        Task<Boolean> migrated = LegacyFieldMigration.isMigrated(db);
+
+        // First, get current user's institutions array from the session store
+        scope.bind(migrated.continueWithTask(task -> CmsApplication.currentUser(this).load(userId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     List<Map<String, Object>> institutions = new ArrayList<>();
                     
@@ -432,12 +386,22 @@ public class JoinInstitutionActivity extends AppCompatActivity {
                     // Update user document with institutions array
                     Map<String, Object> updates = new HashMap<>();
                     updates.put("institutions", institutions);
-                    updates.put("userRole", selectedRole); // Keep for backwards compatibility
-                    updates.put("institutionId", currentInstitutionId); // Keep for backwards compatibility
+                    // Keep for backwards compatibility until LegacyFieldMigration has finished
+                    if (!migrated.getResult()) {
+                        updates.put("userRole", selectedRole);
+                        updates.put("institutionId", currentInstitutionId);
+                    }
+
+                    // The membership is indexed under the institution in the same batch
+                    WriteBatch batch = db.batch();
+                    batch.update(db.collection("users").document(userId), updates);
+                    batch.set(InstitutionMembers.reference(db, currentInstitutionId, userId),
+                            InstitutionMembers.entry(documentSnapshot, selectedRole, false,
+                                    System.currentTimeMillis()));
 
-                    db.collection("users").document(userId)
-                            .update(updates)
+                    batch.commit()
                             .addOnSuccessListener(aVoid -> {
+                                FirestoreUsage.recordWrites(2);
                                 progressBar.setVisibility(View.GONE);
                                 Toast.makeText(this, "Successfully joined " + currentInstitutionName + 
                                         " as " + selectedRole, Toast.LENGTH_LONG).show();
@@ -0,0 +1,277 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration of the pre-multi-institution fields:
+ * institutions.managerId is folded into managerIds, and the users'
+ * roleName/institutionId/userRole are folded into the institutions array.
+ * The legacy fields are deleted afterwards. A last pass over the users writes
+ * the {@link InstitutionMembers} documents of memberships made before the
+ * member index existed. Finally the migrations/legacyFields document is
+ * written, which tells every client that the legacy fields no longer need to
+ * be read ({@link #isMigrated}).
+ *
+ * Documents are walked in ID order one page at a time, each page is fixed in a
+ * WriteBatch (several when a page of members needs more writes than one
+ * allows), and the position is checkpointed in SharedPreferences after every
+ * committed page, so an interrupted run resumes where it stopped. Every fix is
+ * idempotent, so re-running a page is harmless.
+ */
+public class LegacyFieldMigration {
+
+    private static final String TAG = "LegacyFieldMigration";
+
+    private static final String PREFS_NAME = "legacy_field_migration";
+    private static final String KEY_PHASE = "phase";
+    private static final String KEY_CURSOR = "cursor";
+
+    private static final String PHASE_INSTITUTIONS = "institutions";
+    private static final String PHASE_USERS = "users";
+    private static final String PHASE_MEMBERS = "members";
+    private static final String PHASE_MARKER = "marker";
+    private static final String PHASE_DONE = "marker_done";
+
+    // Stored by runs that finished before the members phase / the marker was added
+    private static final String PHASE_DONE_BEFORE_MEMBERS = "done";
+    private static final String PHASE_DONE_BEFORE_MARKER = "members_done";
+
+    // Server-side completion marker, readable by every signed-in user
+    static final String MARKER_COLLECTION = "migrations";
+    static final String MARKER_ID = "legacyFields";
+
+    // Once seen, the marker cannot go away again
+    private static volatile boolean migrated = false;
+
+    private static final int PAGE_SIZE = 200;
+
+    // Well under the 500 writes a WriteBatch allows; a page of members may need several
+    private static final int MAX_BATCH_WRITES = 400;
+
+    private final FirebaseFirestore db;
+    private final SharedPreferences prefs;
+
+    public LegacyFieldMigration(Context context, FirebaseFirestore db) {
+        this.db = db;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public boolean isComplete() {
+        return PHASE_DONE.equals(currentPhase());
+    }
+
+    private String currentPhase() {
+        String phase = prefs.getString(KEY_PHASE, PHASE_INSTITUTIONS);
+        if (PHASE_DONE_BEFORE_MEMBERS.equals(phase)) {
+            return PHASE_MEMBERS;
+        }
+        return PHASE_DONE_BEFORE_MARKER.equals(phase) ? PHASE_MARKER : phase;
+    }
+
+    /**
+     * Completes with whether the migration has finished for the whole project,
+     * according to the marker on the server; false when it cannot be read.
+     * Until then, readers still have to fall back to the legacy fields.
+     */
+    public static Task<Boolean> isMigrated(FirebaseFirestore db) {
+        if (migrated) {
+            return Tasks.forResult(true);
+        }
+        return FirestoreUsage.get(db.collection(MARKER_COLLECTION).document(MARKER_ID)).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Migration marker unavailable", task.getException());
+                return false;
+            }
+            migrated = Boolean.TRUE.equals(task.getResult().getBoolean("complete"));
+            return migrated;
+        });
+    }
+
+    // Runs the remaining pages one after another; completes when everything is migrated
+    public Task<Void> run() {
+        String phase = currentPhase();
+        if (PHASE_DONE.equals(phase)) {
+            return Tasks.forResult(null);
+        }
+        if (PHASE_MARKER.equals(phase)) {
+            return writeMarker();
+        }
+
+        String cursor = prefs.getString(KEY_CURSOR, null);
+        // The members phase walks the users again
+        Query page = db.collection(PHASE_MEMBERS.equals(phase) ? PHASE_USERS : phase)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        if (cursor != null) {
+            page = page.startAfter(cursor);
+        }
+
+        return FirestoreUsage.get(page).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            QuerySnapshot snapshot = task.getResult();
+
+            List<WriteBatch> batches = new ArrayList<>();
+            int fixes = 0;
+            for (DocumentSnapshot document : snapshot.getDocuments()) {
+                if (PHASE_MEMBERS.equals(phase)) {
+                    for (Map<String, Object> institution : memberships(document)) {
+                        String institutionId = (String) institution.get("institutionId");
+                        // Merged, so members who joined since keep their joinedAt
+                        batchFor(batches, fixes++).set(
+                                InstitutionMembers.reference(db, institutionId, document.getId()),
+                                InstitutionMembers.entry(document, (String) institution.get("role"),
+                                        Boolean.TRUE.equals(institution.get("isManager")), null),
+                                SetOptions.merge());
+                    }
+                    continue;
+                }
+                Map<String, Object> fix = PHASE_INSTITUTIONS.equals(phase)
+                        ? institutionFix(document) : userFix(document);
+                if (fix != null) {
+                    batchFor(batches, fixes++).update(document.getReference(), fix);
+                }
+            }
+
+            // A short page is the last one of this collection
+            boolean lastPage = snapshot.size() < PAGE_SIZE;
+            String nextPhase = !lastPage ? phase
+                    : PHASE_INSTITUTIONS.equals(phase) ? PHASE_USERS
+                    : PHASE_USERS.equals(phase) ? PHASE_MEMBERS : PHASE_MARKER;
+            String nextCursor = lastPage ? null
+                    : snapshot.getDocuments().get(snapshot.size() - 1).getId();
+
+            int committed = fixes;
+            List<Task<Void>> commits = new ArrayList<>();
+            for (WriteBatch batch : batches) {
+                commits.add(batch.commit());
+            }
+            return Tasks.whenAll(commits).continueWithTask(ResultPipeline.EXECUTOR, done -> {
+                if (!done.isSuccessful()) {
+                    throw done.getException();
+                }
+                FirestoreUsage.recordWrites(committed);
+
+                // Checkpoint only once the page is committed
+                prefs.edit()
+                        .putString(KEY_PHASE, nextPhase)
+                        .putString(KEY_CURSOR, nextCursor)
+                        .apply();
+                Log.d(TAG, "Migrated " + committed + " " + phase + " documents, next: " + nextPhase);
+                return run();
+            });
+        });
+    }
+
+    // Written only after every page is committed, so readers never skip unmigrated data
+    private Task<Void> writeMarker() {
+        Map<String, Object> marker = new HashMap<>();
+        marker.put("complete", true);
+        marker.put("completedAt", System.currentTimeMillis());
+        return db.collection(MARKER_COLLECTION).document(MARKER_ID).set(marker)
+                .continueWith(ResultPipeline.EXECUTOR, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    FirestoreUsage.recordWrites(1);
+                    prefs.edit().putString(KEY_PHASE, PHASE_DONE).apply();
+                    migrated = true;
+                    Log.d(TAG, "Legacy field migration marked complete");
+                    return null;
+                });
+    }
+
+    // Starts a new batch every MAX_BATCH_WRITES writes
+    private WriteBatch batchFor(List<WriteBatch> batches, int write) {
+        if (write % MAX_BATCH_WRITES == 0) {
+            batches.add(db.batch());
+        }
+        return batches.get(batches.size() - 1);
+    }
+
+    private List<Map<String, Object>> memberships(DocumentSnapshot user) {
+        List<Map<String, Object>> memberships = new ArrayList<>();
+        List<Map<String, Object>> institutions = (List<Map<String, Object>>) user.get("institutions");
+        if (institutions != null) {
+            for (Map<String, Object> institution : institutions) {
+                if (institution.get("institutionId") instanceof String) {
+                    memberships.add(institution);
+                }
+            }
+        }
+        return memberships;
+    }
+
+    // Folds the legacy managerId into managerIds
+    private Map<String, Object> institutionFix(DocumentSnapshot institution) {
+        if (!institution.contains("managerId")) {
+            return null;
+        }
+        String managerId = institution.getString("managerId");
+
+        Map<String, Object> fix = new HashMap<>();
+        if (managerId != null) {
+            fix.put("managerIds", FieldValue.arrayUnion(managerId));
+        }
+        fix.put("managerId", FieldValue.delete());
+        return fix;
+    }
+
+    // Folds the legacy single-institution fields into the institutions array
+    private Map<String, Object> userFix(DocumentSnapshot user) {
+        if (!user.contains("roleName") && !user.contains("institutionId") && !user.contains("userRole")) {
+            return null;
+        }
+
+        Map<String, Object> fix = new HashMap<>();
+        String legacyInstitutionId = user.getString("institutionId");
+        if (legacyInstitutionId != null) {
+            List<Map<String, Object>> institutions = new ArrayList<>();
+            List<Map<String, Object>> existing = (List<Map<String, Object>>) user.get("institutions");
+            if (existing != null) {
+                institutions.addAll(existing);
+            }
+
+            boolean listed = false;
+            for (Map<String, Object> institution : institutions) {
+                if (legacyInstitutionId.equals(institution.get("institutionId"))) {
+                    listed = true;
+                    break;
+                }
+            }
+            if (!listed) {
+                boolean isManager = "manager".equals(user.getString("userType"));
+                Map<String, Object> membership = new HashMap<>();
+                membership.put("institutionId", legacyInstitutionId);
+                membership.put("role", isManager ? user.getString("roleName") : user.getString("userRole"));
+                membership.put("isManager", isManager);
+                institutions.add(membership);
+                fix.put("institutions", institutions);
+            }
+        }
+
+        fix.put("roleName", FieldValue.delete());
+        fix.put("institutionId", FieldValue.delete());
+        fix.put("userRole", FieldValue.delete());
+        return fix;
+    }
+}
@@ -11,9 +11,9 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.splashscreen.SplashScreen;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 public class LoginActivity extends AppCompatActivity {
 
@@ -28,20 +28,32 @@ public class LoginActivity extends AppCompatActivity {
 
     // Firebase
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        SplashScreen splashScreen = SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
 
-        // Initialize Firebase
-        mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        // Keep the splash screen up while Firebase is warmed up in the background
+        splashScreen.setKeepOnScreenCondition(() -> !AppStartup.isReady());
 
         // Initialize views first (needed for progress bar)
         initializeViews();
 
+        AppStartup.whenReady().addOnSuccessListener(ready -> {
+            if (!isDestroyed()) {
+                onFirebaseReady();
+            }
+        });
+    }
+
+    private void onFirebaseReady() {
+        // Initialize Firebase
+        mAuth = FirebaseAuth.getInstance();
+        AppStartup.reportFirstScreen(TAG);
+
         // Check if user is already logged in
         if (mAuth.getCurrentUser() != null) {
             Log.d(TAG, "User already logged in, redirecting to dashboard");
@@ -144,8 +156,8 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void fetchUserDataAndRoute(String userId) {
-        db.collection("users").document(userId)
-                .get()
+        // Loads the user document once for the session; dashboards reuse it
+        scope.bind(CmsApplication.currentUser(this).load(userId))
                 .addOnSuccessListener(documentSnapshot -> {
                     progressBar.setVisibility(android.view.View.GONE);
                     loginButton.setEnabled(true);
@@ -11,10 +11,16 @@ import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -34,19 +40,47 @@ public class ManageReportActivity extends AppCompatActivity {
     private TextView submittedByText;
     private TextView submittedOnText;
     private TextView descriptionText;
+    private TextView descriptionToggleText;
     private Spinner statusSpinner;
     private EditText responseEditText;
     private Button updateReportButton;
+    private Button findDuplicatesButton;
     private Button backButton;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String reportId;
     private String institutionName;
     private String currentStatus;
+    private String reportInstitutionId;
+    private String reportTitle;
+    private String reportDescription;
+    private String reportAssignee;
+
+    // Version of the report header the edits are based on (reports without one are version 0)
+    private long loadedVersion = 0;
+
+    // Whether this manager holds the report's lease and must release it on leaving
+    private boolean holdingClaim = false;
+
+    // MinHash signature stored on the header; null for reports submitted before it existed
+    private int[] reportSignature;
+
+    // Response as loaded, to tell whether the update adds a new one
+    private String loadedResponse = "";
+
+    // Description collapsed to a preview; the full text is measured in the background
+    private CollapsibleText collapsibleDescription;
+
+    // Description still stored on the header of a report submitted before bodies were split out
+    private String legacyDescription;
+
+    // Archived reports are read from the archive collection and shown read-only
+    private boolean archived = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,6 +94,7 @@ public class ManageReportActivity extends AppCompatActivity {
         // Get data from intent
         reportId = getIntent().getStringExtra("reportId");
         institutionName = getIntent().getStringExtra("institutionName");
+        archived = getIntent().getBooleanExtra("archived", false);
 
         if (reportId == null) {
             Toast.makeText(this, "Error: Report ID not provided", Toast.LENGTH_SHORT).show();
@@ -81,19 +116,38 @@ public class ManageReportActivity extends AppCompatActivity {
         // Load report data
         loadReportData();
 
+        // Claim the report so no other manager works it at the same time
+        if (archived) {
+            showReadOnly();
+        } else {
+            claimReport();
+        }
+
         // Set up listeners
         setupListeners();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (isFinishing() && holdingClaim && mAuth.getCurrentUser() != null) {
+            ReportLease.release(db, reportId, mAuth.getCurrentUser().getUid())
+                    .addOnFailureListener(e -> Log.e(TAG, "Error releasing report claim", e));
+        }
+    }
+
     private void initializeViews() {
         institutionNameText = findViewById(R.id.institutionNameText);
         reportTitleText = findViewById(R.id.reportTitleText);
         submittedByText = findViewById(R.id.submittedByText);
         submittedOnText = findViewById(R.id.submittedOnText);
         descriptionText = findViewById(R.id.descriptionText);
+        descriptionToggleText = findViewById(R.id.descriptionToggleText);
+        collapsibleDescription = new CollapsibleText(descriptionText, descriptionToggleText);
         statusSpinner = findViewById(R.id.statusSpinner);
         responseEditText = findViewById(R.id.responseEditText);
         updateReportButton = findViewById(R.id.updateReportButton);
+        findDuplicatesButton = findViewById(R.id.findDuplicatesButton);
         backButton = findViewById(R.id.backButton);
     }
 
@@ -122,6 +176,12 @@ public class ManageReportActivity extends AppCompatActivity {
             updateReport();
         });
 
+        // Find Duplicates button
+        findDuplicatesButton.setOnClickListener(v -> {
+            Log.d(TAG, "Find Duplicates button clicked");
+            findDuplicates();
+        });
+
         // Back button
         backButton.setOnClickListener(v -> {
             Log.d(TAG, "Back button clicked");
@@ -130,86 +190,196 @@ public class ManageReportActivity extends AppCompatActivity {
     }
 
     private void loadReportData() {
-        db.collection("reports").document(reportId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        // Get report data
-                        String title = documentSnapshot.getString("title");
-                        String description = documentSnapshot.getString("description");
-                        String status = documentSnapshot.getString("status");
-                        String managerResponse = documentSnapshot.getString("managerResponse");
-                        String userId = documentSnapshot.getString("userId");
-                        String userRole = documentSnapshot.getString("userRole");
-                        Long createdAt = documentSnapshot.getLong("createdAt");
-
-                        // Store current status
-                        currentStatus = status;
-
-                        // Display title
-                        if (title != null) {
-                            reportTitleText.setText(title);
-                        }
-
-                        // Display description
-                        if (description != null) {
-                            descriptionText.setText(description);
-                        }
-
-                        // Display submitted on date
-                        if (createdAt != null) {
-                            SimpleDateFormat sdf = new SimpleDateFormat("MMMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
-                            String dateStr = sdf.format(new Date(createdAt));
-                            submittedOnText.setText("Submitted on: " + dateStr);
-                        }
-
-                        // Set status spinner to current status
-                        if (status != null) {
-                            String capitalizedStatus = status.substring(0, 1).toUpperCase() + status.substring(1);
-                            ArrayAdapter<String> adapter = (ArrayAdapter<String>) statusSpinner.getAdapter();
-                            int position = adapter.getPosition(capitalizedStatus);
-                            if (position >= 0) {
-                                statusSpinner.setSelection(position);
-                            }
-                        }
+        // Render immediately from the copy the report list already loaded
+        String collection = archived ? ReportArchiver.COLLECTION : "reports";
+        String reportPath = collection + "/" + reportId;
+        Map<String, Object> cachedReport = EntityStore.get(reportPath);
+        if (cachedReport != null) {
+            displayReport(cachedReport);
+        }
 
-                        // Display manager response
-                        if (managerResponse != null && !managerResponse.isEmpty()) {
-                            responseEditText.setText(managerResponse);
-                        }
+        // Description and response live in the separate body document
+        loadReportBody();
 
-                        // Fetch user name
-                        if (userId != null) {
-                            loadUserInfo(userId, userRole);
-                        } else {
-                            submittedByText.setText("Submitted by: Unknown User" + 
-                                    (userRole != null ? " - Role: " + userRole : ""));
+        // Revalidate against Firestore in the background
+        scope.bind(FirestoreUsage.get(db.collection(collection).document(reportId)))
+                .addOnSuccessListener(documentSnapshot -> {
+                    if (documentSnapshot.exists()) {
+                        EntityStore.put(documentSnapshot);
+
+                        // Skip re-rendering when nothing changed since the list was loaded,
+                        // so we don't overwrite what the manager may already be typing
+                        Long updatedAt = documentSnapshot.getLong("updatedAt");
+                        if (cachedReport != null && updatedAt != null
+                                && updatedAt.equals(cachedReport.get("updatedAt"))) {
+                            Log.d(TAG, "Report unchanged since list load");
+                            return;
                         }
 
+                        displayReport(documentSnapshot.getData());
                         Log.d(TAG, "Report data loaded successfully");
                     } else {
+                        EntityStore.remove(reportPath);
                         Toast.makeText(this, "Report not found", Toast.LENGTH_SHORT).show();
                         finish();
                     }
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error loading report data", e);
-                    Toast.makeText(this, "Error loading report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    finish();
+                    // Keep showing the cached copy if we have one
+                    if (cachedReport == null) {
+                        Toast.makeText(this, "Error loading report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
                 });
     }
 
+    private void claimReport() {
+        if (mAuth.getCurrentUser() == null) {
+            return;
+        }
+        // A write: holdingClaim must be set even if the screen is in the background,
+        // so that leaving it releases the claim
+        ReportLease.claim(db, reportId, mAuth.getCurrentUser().getUid())
+                .addOnSuccessListener(claim -> {
+                    if (claim.isGranted()) {
+                        holdingClaim = true;
+                        Log.d(TAG, "Report claimed until " + claim.getExpiresAt());
+                        return;
+                    }
+                    if (!scope.isActive()) {
+                        return;
+                    }
+                    // Another manager is working on it; show it read-only until their claim runs out
+                    String until = new SimpleDateFormat("hh:mm a", Locale.getDefault())
+                            .format(new Date(claim.getExpiresAt()));
+                    updateReportButton.setEnabled(false);
+                    updateReportButton.setText("Claimed until " + until);
+                    findDuplicatesButton.setEnabled(false);
+                    Toast.makeText(this, "Another manager is working on this report", Toast.LENGTH_LONG).show();
+                })
+                .addOnFailureListener(e -> {
+                    // Offline: let the manager work; the update is queued like before
+                    Log.e(TAG, "Error claiming report", e);
+                });
+    }
+
+    // Archived reports are closed for good: nothing can be updated or merged
+    private void showReadOnly() {
+        statusSpinner.setEnabled(false);
+        responseEditText.setEnabled(false);
+        updateReportButton.setEnabled(false);
+        updateReportButton.setText("Archived");
+        findDuplicatesButton.setVisibility(View.GONE);
+    }
+
+    private void loadReportBody() {
+        Map<String, Object> cachedBody = EntityStore.get(ReportBodies.path(reportId));
+        if (cachedBody != null) {
+            displayReportBody(cachedBody);
+        }
+
+        // Legacy reports have no body document; their fields are shown from the header instead
+        scope.bind(ReportBodies.load(db, reportId, null))
+                .addOnSuccessListener(this::displayReportBody)
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading report body", e);
+                });
+    }
+
+    private void displayReportBody(Map<String, Object> body) {
+        String description = (String) body.get("description");
+        String managerResponse = (String) body.get("managerResponse");
+
+        // Display description
+        if (description != null) {
+            reportDescription = description;
+            collapsibleDescription.setText(description);
+        }
+
+        // Display manager response
+        loadedResponse = managerResponse != null ? managerResponse : "";
+        if (managerResponse != null && !managerResponse.isEmpty()) {
+            responseEditText.setText(managerResponse);
+        }
+    }
+
+    private void displayReport(Map<String, Object> report) {
+        // Get report data
+        String title = (String) report.get("title");
+        String description = (String) report.get("description");
+        String status = (String) report.get("status");
+        String managerResponse = (String) report.get("managerResponse");
+        String userId = (String) report.get("userId");
+        String userRole = (String) report.get("userRole");
+        Object createdAtValue = report.get("createdAt");
+        Long createdAt = createdAtValue instanceof Number ? ((Number) createdAtValue).longValue() : null;
+
+        // Store current status
+        currentStatus = status;
+        reportInstitutionId = (String) report.get("institutionId");
+        legacyDescription = description;
+        loadedVersion = versionOf(report);
+        reportTitle = title;
+        reportAssignee = (String) report.get("assignedTo");
+        reportSignature = NearDuplicates.fromList((List<?>) report.get("minhash"));
+
+        // Display title
+        if (title != null) {
+            reportTitleText.setText(title);
+        }
+
+        // Display description (only legacy headers still carry it)
+        if (description != null) {
+            reportDescription = description;
+            collapsibleDescription.setText(description);
+        }
+
+        // Display submitted on date
+        if (createdAt != null) {
+            SimpleDateFormat sdf = new SimpleDateFormat("MMMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
+            String dateStr = sdf.format(new Date(createdAt));
+            submittedOnText.setText("Submitted on: " + dateStr);
+        }
+
+        // Set status spinner to current status
+        if (status != null) {
+            String capitalizedStatus = status.substring(0, 1).toUpperCase() + status.substring(1);
+            ArrayAdapter<String> adapter = (ArrayAdapter<String>) statusSpinner.getAdapter();
+            int position = adapter.getPosition(capitalizedStatus);
+            if (position >= 0) {
+                statusSpinner.setSelection(position);
+            }
+        }
+
+        // Display manager response (only legacy headers still carry it)
+        if (managerResponse != null && !managerResponse.isEmpty()) {
+            loadedResponse = managerResponse;
+            responseEditText.setText(managerResponse);
+        }
+
+        // Fetch user name
+        if (userId != null) {
+            loadUserInfo(userId, userRole);
+        } else {
+            submittedByText.setText("Submitted by: Unknown User" + 
+                    (userRole != null ? " - Role: " + userRole : ""));
+        }
+    }
+
     private void loadUserInfo(String userId, String userRole) {
-        db.collection("users").document(userId)
-                .get()
+        // The report list usually loaded the submitter already
+        Map<String, Object> cachedUser = EntityStore.get(EntityStore.userPath(userId));
+        if (cachedUser != null) {
+            displayUserInfo((String) cachedUser.get("fullName"), userRole);
+            return;
+        }
+
+        scope.bind(FirestoreUsage.get(db.collection("users").document(userId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        String fullName = documentSnapshot.getString("fullName");
-                        String displayText = "Submitted by: " + (fullName != null ? fullName : "Unknown User");
-                        if (userRole != null && !userRole.isEmpty()) {
-                            displayText += " - Role: " + userRole;
-                        }
-                        submittedByText.setText(displayText);
+                        EntityStore.put(documentSnapshot);
+                        displayUserInfo(documentSnapshot.getString("fullName"), userRole);
                     } else {
                         submittedByText.setText("Submitted by: Unknown User" + 
                                 (userRole != null ? " - Role: " + userRole : ""));
@@ -222,6 +392,14 @@ public class ManageReportActivity extends AppCompatActivity {
                 });
     }
 
+    private void displayUserInfo(String fullName, String userRole) {
+        String displayText = "Submitted by: " + (fullName != null ? fullName : "Unknown User");
+        if (userRole != null && !userRole.isEmpty()) {
+            displayText += " - Role: " + userRole;
+        }
+        submittedByText.setText(displayText);
+    }
+
     private void updateReport() {
         // Get selected status
         String selectedStatus = statusSpinner.getSelectedItem().toString().toLowerCase();
@@ -232,24 +410,368 @@ public class ManageReportActivity extends AppCompatActivity {
         // Disable button to prevent double submission
         updateReportButton.setEnabled(false);
 
-        // Prepare update data
+        long timestamp = System.currentTimeMillis();
+        long expectedVersion = loadedVersion;
+
+        // Prepare header update data
         Map<String, Object> updates = new HashMap<>();
         updates.put("status", selectedStatus);
-        updates.put("managerResponse", managerResponse);
-        updates.put("updatedAt", System.currentTimeMillis());
+        updates.put("updatedAt", timestamp);
+        updates.put("version", expectedVersion + 1);
+        if (!managerResponse.isEmpty() && !managerResponse.equals(loadedResponse)) {
+            // Lets the submitter's background sync tell a new response from the header alone
+            updates.put("responseUpdatedAt", timestamp);
+        }
 
-        // Update report in Firestore
-        db.collection("reports").document(reportId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
+        // Prepare body update data
+        Map<String, Object> bodyUpdates = new HashMap<>();
+        bodyUpdates.put("managerResponse", managerResponse);
+        bodyUpdates.put("updatedAt", timestamp);
+
+        Map<String, Object> headerWrite = new HashMap<>(updates);
+        if (legacyDescription != null) {
+            // Move a legacy report's body fields off its header while we are writing anyway
+            bodyUpdates.put("description", legacyDescription);
+            headerWrite.put("description", FieldValue.delete());
+            headerWrite.put("managerResponse", FieldValue.delete());
+        }
+        // Finishing the work releases our claim
+        ReportLease.clearInto(headerWrite);
+        ReportMirror.stampUpdated(headerWrite);
+        // Only open reports are candidates for duplicate detection; an older report gets its signature now
+        boolean open = ReportAssignment.isOpen(selectedStatus);
+        if (reportSignature != null || reportDescription != null) {
+            DuplicateReports.putSignature(headerWrite, currentSignature(), open);
+        }
+        if (!open) {
+            DuplicateReports.clearBands(headerWrite);
+        }
+
+        // Commit header and body only if nobody changed the report since we loaded it;
+        // on a mismatch the transaction completes with the newer header instead of writing
+        DocumentReference reportRef = db.collection("reports").document(reportId);
+        int[] writes = new int[1];
+        db.runTransaction(transaction -> {
+            // The function may run again if the report changes mid-transaction
+            writes[0] = 0;
+            DocumentSnapshot current = FirestoreUsage.get(transaction, reportRef);
+            if (!current.exists()) {
+                throw new FirebaseFirestoreException("Report not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            if (versionOf(current.getData()) != expectedVersion) {
+                return current;
+            }
+
+            String previousStatus = current.getString("status");
+            String changedBy = mAuth.getCurrentUser() != null ? mAuth.getCurrentUser().getUid() : null;
+            Map<String, Object> header = new HashMap<>(headerWrite);
+
+            // SLA samples: the first manager update, and the first verified/rejected status
+            Long createdAt = current.getLong("createdAt");
+            Map<String, Object> metrics = new HashMap<>();
+            if (createdAt != null && !current.contains("firstRespondedAt")) {
+                header.put("firstRespondedAt", timestamp);
+                ResolutionMetrics.addSample(metrics, ResolutionMetrics.FIRST_RESPONSE, timestamp - createdAt);
+            }
+            if (createdAt != null && !current.contains("resolvedAt")
+                    && !ReportAssignment.isOpen(selectedStatus)) {
+                header.put("resolvedAt", timestamp);
+                ResolutionMetrics.addSample(metrics, ResolutionMetrics.RESOLUTION, timestamp - createdAt);
+            }
+
+            transaction.update(reportRef, header);
+            transaction.set(ReportBodies.reference(db, reportId), bodyUpdates, SetOptions.merge());
+            transaction.set(ReportHistory.newEntry(reportRef), ReportHistory.entry(previousStatus, selectedStatus,
+                    changedBy, timestamp, expectedVersion + 1, null));
+            writes[0] = 3;
+
+            if (reportInstitutionId != null && !metrics.isEmpty()) {
+                transaction.set(ResolutionMetrics.reference(db, reportInstitutionId), metrics, SetOptions.merge());
+                writes[0]++;
+            }
+
+            // Resolving or reopening changes the assigned manager's open-report count
+            Map<String, Object> loadChange = ReportAssignment.loadChange(
+                    current.getString("assignedTo"), previousStatus, selectedStatus);
+            if (reportInstitutionId != null && loadChange != null) {
+                transaction.update(db.collection("institutions").document(reportInstitutionId), loadChange);
+                writes[0]++;
+            }
+            return null;
+        })
+                // Not scoped to the activity: the caches and counters must follow the write
+                // even if the screen was left meanwhile; only the UI part needs the screen
+                .addOnSuccessListener(conflict -> {
+                    if (conflict != null) {
+                        Log.d(TAG, "Report changed since it was loaded, version " + versionOf(conflict.getData()));
+                        EntityStore.put(conflict);
+                        if (scope.isActive()) {
+                            showConflict(conflict, selectedStatus, managerResponse);
+                        }
+                        return;
+                    }
+                    FirestoreUsage.recordWrites(writes[0]);
+                    holdingClaim = false;
+                    loadedVersion = expectedVersion + 1;
+                    EntityStore.merge(EntityStore.reportPath(reportId), updates);
+                    EntityStore.remove(ReportBodies.path(reportId));
+                    if (reportInstitutionId != null) {
+                        // The dashboard's open-report counts are now stale
+                        BacklogCounts.invalidate(reportInstitutionId);
+                    }
                     Log.d(TAG, "Report updated successfully");
-                    Toast.makeText(this, "Report updated successfully", Toast.LENGTH_SHORT).show();
-                    finish();
+                    if (scope.isActive()) {
+                        Toast.makeText(this, "Report updated successfully", Toast.LENGTH_SHORT).show();
+                        finish();
+                    }
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error updating report", e);
-                    Toast.makeText(this, "Error updating report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    updateReportButton.setEnabled(true);
+                    if (scope.isActive()) {
+                        Toast.makeText(this, "Error updating report: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        updateReportButton.setEnabled(true);
+                    }
+                });
+    }
+
+    // Another manager updated the report after we loaded it; let the manager decide what to keep
+    private void showConflict(DocumentSnapshot current, String myStatus, String myResponse) {
+        scope.bind(ReportBodies.load(db, reportId, current.getData()))
+                .addOnCompleteListener(task -> {
+                    if (!scope.isActive()) {
+                        return;
+                    }
+                    Map<String, Object> theirBody = task.isSuccessful() ? task.getResult() : new HashMap<>();
+                    String theirStatus = current.getString("status");
+                    String theirResponse = (String) theirBody.get("managerResponse");
+                    boolean hasTheirResponse = theirResponse != null && !theirResponse.isEmpty();
+
+                    StringBuilder message = new StringBuilder("Another manager updated this report while you were editing it.\n\n");
+                    message.append("Their status: ").append(ReportRow.capitalize(theirStatus)).append("\n");
+                    message.append("Their response: ").append(hasTheirResponse ? theirResponse : "None").append("\n\n");
+                    message.append("Your status: ").append(ReportRow.capitalize(myStatus)).append("\n");
+                    message.append("Your response: ").append(myResponse.isEmpty() ? "None" : myResponse);
+
+                    AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                            .setTitle("Report was changed")
+                            .setMessage(message.toString())
+                            .setCancelable(false)
+                            .setPositiveButton("Keep Mine", (dialog, which) -> {
+                                // Rebase on their version and write ours over it
+                                loadedVersion = versionOf(current.getData());
+                                loadedResponse = hasTheirResponse ? theirResponse : "";
+                                updateReport();
+                            })
+                            .setNegativeButton("Use Theirs", (dialog, which) -> {
+                                displayReport(current.getData());
+                                displayReportBody(theirBody);
+                                if (!hasTheirResponse) {
+                                    responseEditText.setText("");
+                                }
+                                updateReportButton.setEnabled(true);
+                            });
+                    if (hasTheirResponse && !myResponse.isEmpty() && !myResponse.equals(theirResponse)) {
+                        builder.setNeutralButton("Combine", (dialog, which) -> {
+                            // Keep both responses for the manager to review before saving again
+                            loadedVersion = versionOf(current.getData());
+                            loadedResponse = theirResponse;
+                            responseEditText.setText(theirResponse + "\n\n" + myResponse);
+                            updateReportButton.setEnabled(true);
+                        });
+                    }
+                    builder.show();
+                });
+    }
+
+    private static long versionOf(Map<String, Object> report) {
+        Object version = report != null ? report.get("version") : null;
+        return version instanceof Number ? ((Number) version).longValue() : 0L;
+    }
+
+    private int[] currentSignature() {
+        if (reportSignature != null) {
+            return reportSignature;
+        }
+        return NearDuplicates.signature(reportTitle, reportDescription);
+    }
+
+    private void findDuplicates() {
+        if (reportInstitutionId == null || (reportSignature == null && reportDescription == null)) {
+            Toast.makeText(this, "Report is still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        findDuplicatesButton.setEnabled(false);
+        scope.bind(DuplicateReports.find(db, reportInstitutionId, currentSignature(), reportId))
+                .addOnSuccessListener(matches -> {
+                    findDuplicatesButton.setEnabled(true);
+                    if (matches.isEmpty()) {
+                        Toast.makeText(this, "No similar open reports found", Toast.LENGTH_SHORT).show();
+                    } else {
+                        showDuplicates(matches);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error finding duplicates", e);
+                    Toast.makeText(this, "Error finding duplicates: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    findDuplicatesButton.setEnabled(true);
+                });
+    }
+
+    private void showDuplicates(List<DuplicateReports.Match> matches) {
+        String[] labels = new String[matches.size()];
+        boolean[] checked = new boolean[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            labels[i] = matches.get(i).getLabel();
+            checked[i] = true;
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Merge duplicates into this report")
+                .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Merge", (dialog, which) -> {
+                    List<DocumentReference> duplicates = new ArrayList<>();
+                    for (int i = 0; i < matches.size(); i++) {
+                        if (checked[i]) {
+                            duplicates.add(matches.get(i).getReport().getReference());
+                        }
+                    }
+                    if (!duplicates.isEmpty()) {
+                        mergeDuplicates(duplicates);
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Closes the duplicates with a pointer to this report in one transaction. Each duplicate is
+    // read again first; one resolved, merged or deleted since it was suggested is left alone
+    private void mergeDuplicates(List<DocumentReference> duplicates) {
+        long timestamp = System.currentTimeMillis();
+        String response = "Merged into \"" + (reportTitle != null ? reportTitle : reportId)
+                + "\", which reports the same issue.";
+        String changedBy = mAuth.getCurrentUser() != null ? mAuth.getCurrentUser().getUid() : null;
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("managerResponse", response);
+        body.put("updatedAt", timestamp);
+
+        int[] writes = new int[1];
+        findDuplicatesButton.setEnabled(false);
+        db.runTransaction(transaction -> {
+            // The function may run again if a duplicate changes mid-transaction
+            writes[0] = 0;
+            // All reads come before any write in a transaction
+            List<DocumentSnapshot> current = new ArrayList<>();
+            for (DocumentReference duplicateRef : duplicates) {
+                current.add(FirestoreUsage.get(transaction, duplicateRef));
+            }
+
+            List<String> mergedIds = new ArrayList<>();
+            List<Long> firstResponses = new ArrayList<>();
+            List<Long> resolutions = new ArrayList<>();
+            Map<String, Long> closedByManager = new HashMap<>();
+            for (DocumentSnapshot duplicate : current) {
+                String previousStatus = duplicate.getString("status");
+                if (!duplicate.exists() || duplicate.get("duplicateOf") != null
+                        || !ReportAssignment.isOpen(previousStatus)) {
+                    continue;
+                }
+                long version = versionOf(duplicate.getData()) + 1;
+
+                Map<String, Object> header = new HashMap<>();
+                header.put("status", "rejected");
+                header.put("duplicateOf", reportId);
+                DuplicateReports.clearBands(header);
+                // A manager editing the duplicate right now gets a conflict instead of overwriting this
+                header.put("version", version);
+                header.put("updatedAt", timestamp);
+                header.put("responseUpdatedAt", timestamp);
+                ReportMirror.stampUpdated(header);
+
+                // The same SLA samples as a manager's update that rejects it
+                Long createdAt = duplicate.getLong("createdAt");
+                if (createdAt != null && !duplicate.contains("firstRespondedAt")) {
+                    header.put("firstRespondedAt", timestamp);
+                    firstResponses.add(timestamp - createdAt);
+                }
+                if (createdAt != null && !duplicate.contains("resolvedAt")) {
+                    header.put("resolvedAt", timestamp);
+                    resolutions.add(timestamp - createdAt);
+                }
+
+                transaction.update(duplicate.getReference(), header);
+                transaction.set(ReportBodies.reference(db, duplicate.getId()), body, SetOptions.merge());
+                transaction.set(ReportHistory.newEntry(duplicate.getReference()), ReportHistory.entry(
+                        previousStatus, "rejected", changedBy, timestamp, version, "Merged into " + reportId));
+                writes[0] += 3;
+
+                // A merged duplicate no longer counts towards its manager's load
+                String assignedTo = duplicate.getString("assignedTo");
+                if (ReportAssignment.loadChange(assignedTo, previousStatus, "rejected") != null) {
+                    closedByManager.merge(assignedTo, 1L, Long::sum);
+                }
+                mergedIds.add(duplicate.getId());
+            }
+            if (mergedIds.isEmpty()) {
+                return mergedIds;
+            }
+
+            if (reportInstitutionId != null) {
+                Map<String, Object> metrics = new HashMap<>();
+                ResolutionMetrics.addSamples(metrics, ResolutionMetrics.FIRST_RESPONSE, firstResponses);
+                ResolutionMetrics.addSamples(metrics, ResolutionMetrics.RESOLUTION, resolutions);
+                if (!metrics.isEmpty()) {
+                    transaction.set(ResolutionMetrics.reference(db, reportInstitutionId), metrics, SetOptions.merge());
+                    writes[0]++;
+                }
+
+                if (!closedByManager.isEmpty()) {
+                    Map<String, Object> loadChange = new HashMap<>();
+                    for (Map.Entry<String, Long> entry : closedByManager.entrySet()) {
+                        loadChange.put("managerLoad." + entry.getKey(), FieldValue.increment(-entry.getValue()));
+                    }
+                    transaction.update(db.collection("institutions").document(reportInstitutionId), loadChange);
+                    writes[0]++;
+                }
+            }
+
+            Map<String, Object> primary = new HashMap<>();
+            primary.put("duplicateCount", FieldValue.increment(mergedIds.size()));
+            primary.put("updatedAt", timestamp);
+            ReportMirror.stampUpdated(primary);
+            transaction.update(db.collection("reports").document(reportId), primary);
+            writes[0]++;
+            return mergedIds;
+        })
+                .addOnSuccessListener(mergedIds -> {
+                    FirestoreUsage.recordWrites(writes[0]);
+                    for (String duplicateId : mergedIds) {
+                        EntityStore.remove(EntityStore.reportPath(duplicateId));
+                        EntityStore.remove(ReportBodies.path(duplicateId));
+                    }
+                    if (!mergedIds.isEmpty()) {
+                        EntityStore.remove(EntityStore.reportPath(reportId));
+                        BacklogCounts.invalidate(reportInstitutionId);
+                    }
+                    int skipped = duplicates.size() - mergedIds.size();
+                    Log.d(TAG, "Merged " + mergedIds.size() + " duplicates into " + reportId + ", skipped " + skipped);
+                    String message = "Merged " + mergedIds.size() + " duplicate report(s)";
+                    if (skipped > 0) {
+                        message += "; " + skipped + " had already been closed";
+                    }
+                    if (scope.isActive()) {
+                        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+                        findDuplicatesButton.setEnabled(true);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error merging duplicates", e);
+                    if (scope.isActive()) {
+                        Toast.makeText(this, "Error merging duplicates: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        findDuplicatesButton.setEnabled(true);
+                    }
                 });
     }
 }
@@ -1,22 +1,35 @@
 package com.example.cms;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
-import android.view.Gravity;
+import android.view.View;
 import android.widget.Button;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.OnBackPressedCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ManagerDashboardActivity extends AppCompatActivity {
 
     private static final String TAG = "ManagerDashboard";
@@ -25,12 +38,28 @@ public class ManagerDashboardActivity extends AppCompatActivity {
     private TextView welcomeText;
     private Button createInstitutionButton;
     private Button logoutButton;
-    private LinearLayout institutionsContainer;
+    private RecyclerView institutionsRecyclerView;
+    private TextView institutionsEmptyText;
+    private InstitutionListAdapter institutionsAdapter;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
     
+    // Session-scoped user document
+    private CurrentUserStore currentUserStore;
+    private final CurrentUserStore.Listener userListener = this::displayUserData;
+
+    // Institution cards in query order, and the backlog counts loaded for them
+    private final Map<String, InstitutionListItem> institutionCards = new LinkedHashMap<>();
+    private final Map<String, BacklogCounts.Backlog> backlogs = new HashMap<>();
+
+    // Overdue-report notifications are only shown once the user allows them
+    private final ActivityResultLauncher<String> notificationPermission = registerForActivityResult(
+            new ActivityResultContracts.RequestPermission(),
+            granted -> Log.d(TAG, "Notification permission " + (granted ? "granted" : "denied")));
+
     // Flag to track if this is first load
     private boolean isFirstLoad = true;
 
@@ -55,6 +84,10 @@ public class ManagerDashboardActivity extends AppCompatActivity {
         // Set up listeners
         setupListeners();
 
+        // Check for overdue reports in the background
+        // (asking for the notification permission once, not again after rotation)
+        scheduleEscalations(savedInstanceState == null);
+
         // Disable back button
         getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
             @Override
@@ -65,6 +98,14 @@ public class ManagerDashboardActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (currentUserStore != null) {
+            currentUserStore.removeListener(userListener);
+        }
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
@@ -79,30 +120,36 @@ public class ManagerDashboardActivity extends AppCompatActivity {
         welcomeText = findViewById(R.id.welcomeText);
         createInstitutionButton = findViewById(R.id.createInstitutionButton);
         logoutButton = findViewById(R.id.logoutButton);
-        institutionsContainer = findViewById(R.id.institutionsContainer);
+        institutionsRecyclerView = findViewById(R.id.institutionsRecyclerView);
+        institutionsEmptyText = findViewById(R.id.institutionsEmptyText);
+
+        institutionsAdapter = new InstitutionListAdapter(this::openInstitution);
+        institutionsRecyclerView.setAdapter(institutionsAdapter);
     }
 
     private void loadUserData() {
         String userId = mAuth.getCurrentUser().getUid();
 
-        db.collection("users").document(userId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String fullName = documentSnapshot.getString("fullName");
-                        String roleName = documentSnapshot.getString("roleName");
-                        
-                        if (fullName != null) {
-                            welcomeText.setText("Welcome, " + fullName + "!");
-                        }
-                        
-                        Log.d(TAG, "User data loaded: " + fullName + " (" + roleName + ")");
-                    }
-                })
+        // The session store loads the user document once and keeps it fresh
+        currentUserStore = CmsApplication.currentUser(this);
+        scope.bind(currentUserStore.load(userId))
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error loading user data", e);
                     Toast.makeText(this, "Error loading user data", Toast.LENGTH_SHORT).show();
                 });
+        currentUserStore.addListener(userListener);
+    }
+
+    private void displayUserData(DocumentSnapshot documentSnapshot) {
+        if (documentSnapshot.exists()) {
+            String fullName = documentSnapshot.getString("fullName");
+
+            if (fullName != null) {
+                welcomeText.setText("Welcome, " + fullName + "!");
+            }
+
+            Log.d(TAG, "User data loaded: " + fullName);
+        }
     }
 
     private void setupListeners() {
@@ -128,41 +175,26 @@ public class ManagerDashboardActivity extends AppCompatActivity {
         });
     }
 
+    private void scheduleEscalations(boolean askForPermission) {
+        SlaEscalationWorker.schedule(this);
+        ReportArchiveWorker.schedule(this);
+
+        if (askForPermission && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            notificationPermission.launch(Manifest.permission.POST_NOTIFICATIONS);
+        }
+    }
+
     private void loadInstitutions() {
         String userId = mAuth.getCurrentUser().getUid();
 
-        // Clear existing institutions
-        institutionsContainer.removeAllViews();
-
         // Query for institutions where user is a manager
-        // This will get institutions from both old (managerId) and new (managerIds array) format
-        db.collection("institutions")
-                .whereArrayContains("managerIds", userId)
-                .get()
+        scope.bind(FirestoreUsage.get(db.collection("institutions")
+                .whereArrayContains("managerIds", userId)))
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     if (queryDocumentSnapshots.isEmpty()) {
-                        // Try old format for backwards compatibility
-                        db.collection("institutions")
-                                .whereEqualTo("managerId", userId)
-                                .get()
-                                .addOnSuccessListener(oldFormatSnapshots -> {
-                                    if (oldFormatSnapshots.isEmpty()) {
-                                        // No institutions found
-                                        TextView noInstitutionsText = new TextView(this);
-                                        noInstitutionsText.setText("No institutions yet. Create one to get started!");
-                                        noInstitutionsText.setTextSize(14);
-                                        noInstitutionsText.setTextColor(Color.parseColor("#757575"));
-                                        noInstitutionsText.setGravity(Gravity.CENTER);
-                                        noInstitutionsText.setPadding(16, 16, 16, 16);
-                                        institutionsContainer.addView(noInstitutionsText);
-                                    } else {
-                                        displayInstitutions(oldFormatSnapshots);
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Error loading institutions", e);
-                                    Toast.makeText(this, "Error loading institutions", Toast.LENGTH_SHORT).show();
-                                });
+                        loadLegacyInstitutions(userId, queryDocumentSnapshots);
                     } else {
                         displayInstitutions(queryDocumentSnapshots);
                     }
@@ -173,116 +205,93 @@ public class ManagerDashboardActivity extends AppCompatActivity {
                 });
     }
 
+    // Institutions that only have the old single managerId, until LegacyFieldMigration has finished
+    private void loadLegacyInstitutions(String userId,
+                                        com.google.firebase.firestore.QuerySnapshot noInstitutions) {
+        scope.bind(LegacyFieldMigration.isMigrated(db))
+                .addOnSuccessListener(migrated -> {
+                    if (migrated) {
+                        // Shows the empty state
+                        displayInstitutions(noInstitutions);
+                        return;
+                    }
+                    // Try old format for backwards compatibility
+                    scope.bind(FirestoreUsage.get(db.collection("institutions")
+                            .whereEqualTo("managerId", userId)))
+                            .addOnSuccessListener(oldFormatSnapshots -> {
+                                // Shows the empty state when no institutions were found
+                                displayInstitutions(oldFormatSnapshots);
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.e(TAG, "Error loading institutions", e);
+                                Toast.makeText(this, "Error loading institutions", Toast.LENGTH_SHORT).show();
+                            });
+                });
+    }
+
     private void displayInstitutions(com.google.firebase.firestore.QuerySnapshot queryDocumentSnapshots) {
-        if (queryDocumentSnapshots.isEmpty()) {
-            return;
-        }
-        
-        // Display institutions
+        institutionCards.clear();
         for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+            // Keep the loaded institution so InstitutionDetailActivity can render it immediately
+            EntityStore.put(document);
+
             String institutionId = document.getId();
             String institutionName = document.getString("institutionName");
             String managerRoleName = document.getString("managerRoleName");
-            java.util.List<String> roles = (java.util.List<String>) document.get("roles");
-
-            // Create a card for each institution
-            androidx.constraintlayout.widget.ConstraintLayout institutionCard = 
-                    new androidx.constraintlayout.widget.ConstraintLayout(this);
-            institutionCard.setLayoutParams(new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT));
-            institutionCard.setPadding(16, 16, 16, 16);
-            
-            // Set background
-            institutionCard.setBackgroundResource(R.drawable.report_item_background);
-            
-            // Set margin
-            LinearLayout.LayoutParams cardParams = (LinearLayout.LayoutParams) institutionCard.getLayoutParams();
-            cardParams.setMargins(0, 0, 0, 16);
-            institutionCard.setLayoutParams(cardParams);
-
-            // Institution Name
-            TextView nameText = new TextView(this);
-            nameText.setId(android.view.View.generateViewId());
-            nameText.setText(institutionName);
-            nameText.setTextSize(18);
-            nameText.setTextColor(Color.parseColor("#212121"));
-            android.text.TextPaint paint = nameText.getPaint();
-            paint.setFakeBoldText(true);
-            
-            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams nameParams = 
-                    new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-            nameParams.topToTop = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            nameParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            nameParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            nameText.setLayoutParams(nameParams);
-            institutionCard.addView(nameText);
-
-            // Manager Role
-            TextView managerText = new TextView(this);
-            managerText.setId(android.view.View.generateViewId());
-            managerText.setText("Your Role: " + (managerRoleName != null ? managerRoleName : "Manager"));
-            managerText.setTextSize(14);
-            managerText.setTextColor(Color.parseColor("#757575"));
-            
-            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams managerParams = 
-                    new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-            managerParams.topToBottom = nameText.getId();
-            managerParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            managerParams.topMargin = 8;
-            managerText.setLayoutParams(managerParams);
-            institutionCard.addView(managerText);
-
-            // Available Roles Count
-            TextView rolesText = new TextView(this);
-            rolesText.setId(android.view.View.generateViewId());
+            List<String> roles = (List<String>) document.get("roles");
             int rolesCount = roles != null ? roles.size() : 0;
-            rolesText.setText("Available Roles: " + rolesCount);
-            rolesText.setTextSize(14);
-            rolesText.setTextColor(Color.parseColor("#757575"));
-            
-            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams rolesParams = 
-                    new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-            rolesParams.topToBottom = managerText.getId();
-            rolesParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            rolesParams.topMargin = 4;
-            rolesText.setLayoutParams(rolesParams);
-            institutionCard.addView(rolesText);
-
-            // Institution ID (small text)
-            TextView idText = new TextView(this);
-            idText.setId(android.view.View.generateViewId());
-            idText.setText("ID: " + institutionId);
-            idText.setTextSize(12);
-            idText.setTextColor(Color.parseColor("#9E9E9E"));
-            
-            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams idParams = 
-                    new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                            0,
-                            androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-            idParams.topToBottom = rolesText.getId();
-            idParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            idParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-            idParams.topMargin = 8;
-            idText.setLayoutParams(idParams);
-            institutionCard.addView(idText);
-
-            // Make the card clickable
-            institutionCard.setOnClickListener(v -> {
-                Intent intent = new Intent(ManagerDashboardActivity.this, InstitutionDetailActivity.class);
-                intent.putExtra("institutionId", institutionId);
-                startActivity(intent);
-            });
-
-            institutionsContainer.addView(institutionCard);
+
+            institutionCards.put(institutionId, new InstitutionListItem(
+                    institutionId,
+                    institutionName,
+                    "Your Role: " + (managerRoleName != null ? managerRoleName : "Manager"),
+                    Color.parseColor("#757575"),
+                    "Available Roles: " + rolesCount,
+                    "ID: " + institutionId,
+                    Color.parseColor("#9E9E9E")));
         }
+        backlogs.keySet().retainAll(institutionCards.keySet());
 
+        showInstitutions();
         Log.d(TAG, "Loaded " + queryDocumentSnapshots.size() + " institutions");
+
+        // Count every institution's open reports in parallel
+        for (String institutionId : institutionCards.keySet()) {
+            loadBacklog(institutionId);
+        }
+    }
+
+    private void loadBacklog(String institutionId) {
+        scope.bind(BacklogCounts.load(db, institutionId))
+                .addOnSuccessListener(backlog -> {
+                    if (institutionCards.containsKey(institutionId)) {
+                        backlogs.put(institutionId, backlog);
+                        showInstitutions();
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error counting open reports", e);
+                });
+    }
+
+    private void showInstitutions() {
+        List<InstitutionListItem> items = new ArrayList<>();
+        for (InstitutionListItem card : institutionCards.values()) {
+            BacklogCounts.Backlog backlog = backlogs.get(card.getInstitutionId());
+            if (backlog != null) {
+                card = card.withSecondary(card.getSecondary()
+                        + " | Pending: " + backlog.getPending()
+                        + " | Investigating: " + backlog.getInvestigating());
+            }
+            items.add(card);
+        }
+        institutionsEmptyText.setVisibility(items.isEmpty() ? View.VISIBLE : View.GONE);
+        institutionsAdapter.submitList(items);
+    }
+
+    private void openInstitution(InstitutionListItem item) {
+        Intent intent = new Intent(ManagerDashboardActivity.this, InstitutionDetailActivity.class);
+        intent.putExtra("institutionId", item.getInstitutionId());
+        startActivity(intent);
     }
 }
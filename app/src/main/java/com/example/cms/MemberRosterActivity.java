@@ -0,0 +1,277 @@
+package com.example.cms;
+
+import android.graphics.Color;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class MemberRosterActivity extends AppCompatActivity {
+
+    private static final String TAG = "MemberRoster";
+
+    // Members shown per "Load More"
+    private static final int PAGE_SIZE = 25;
+
+    private static final String ALL_ROLES = "All Roles";
+
+    // UI Components
+    private TextView institutionNameText;
+    private Spinner roleFilterSpinner;
+    private TextView memberCountText;
+    private LinearLayout membersContainer;
+    private Button loadMoreButton;
+    private Button backButton;
+
+    // Firebase
+    private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
+
+    // Data
+    private String institutionId;
+    private String selectedRole = null;
+    // Last member of the shown pages; the next page starts after it
+    private DocumentSnapshot lastMember;
+    private boolean isLoading = false;
+    // Ignore pages of a role that is no longer selected
+    private int loadGeneration = 0;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_member_roster);
+
+        // Initialize Firebase
+        db = FirebaseFirestore.getInstance();
+
+        // Get data from intent
+        institutionId = getIntent().getStringExtra("institutionId");
+        String institutionName = getIntent().getStringExtra("institutionName");
+
+        if (institutionId == null) {
+            Toast.makeText(this, "Error: Institution ID not provided", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        // Initialize views
+        initializeViews();
+
+        if (institutionName != null) {
+            institutionNameText.setText(institutionName);
+        }
+
+        // Role options come from the institution; selecting one loads the first page
+        setupRoleFilter();
+
+        // Set up listeners
+        setupListeners();
+    }
+
+    private void initializeViews() {
+        institutionNameText = findViewById(R.id.institutionNameText);
+        roleFilterSpinner = findViewById(R.id.roleFilterSpinner);
+        memberCountText = findViewById(R.id.memberCountText);
+        membersContainer = findViewById(R.id.membersContainer);
+        loadMoreButton = findViewById(R.id.loadMoreButton);
+        backButton = findViewById(R.id.backButton);
+    }
+
+    private void setupListeners() {
+        loadMoreButton.setOnClickListener(v -> loadNextPage());
+        backButton.setOnClickListener(v -> finish());
+    }
+
+    private void setupRoleFilter() {
+        List<String> roleOptions = new ArrayList<>();
+        roleOptions.add(ALL_ROLES);
+        // The institution screen has already loaded the institution
+        Map<String, Object> institution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (institution != null && institution.get("roles") instanceof List) {
+            roleOptions.addAll((List<String>) institution.get("roles"));
+        }
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                roleOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        roleFilterSpinner.setAdapter(adapter);
+
+        roleFilterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selectedRole = position == 0 ? null : roleOptions.get(position);
+                reloadMembers();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    // Starts over for the selected role: count, then the first page
+    private void reloadMembers() {
+        loadGeneration++;
+        lastMember = null;
+        isLoading = false;
+        membersContainer.removeAllViews();
+        loadMoreButton.setVisibility(View.GONE);
+        loadMemberCount();
+        loadNextPage();
+    }
+
+    private void loadMemberCount() {
+        final int generation = loadGeneration;
+        memberCountText.setText("Counting members...");
+        scope.bind(FirestoreUsage.count(InstitutionMembers.roster(db, institutionId, selectedRole)))
+                .addOnSuccessListener(snapshot -> {
+                    long count = snapshot.getCount();
+                    if (generation != loadGeneration) {
+                        return;
+                    }
+                    String text = count == 1 ? "1 member" : count + " members";
+                    memberCountText.setText(selectedRole != null ? text + " with role " + selectedRole : text);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error counting members", e);
+                    if (generation == loadGeneration) {
+                        memberCountText.setText("Member count unavailable");
+                    }
+                });
+    }
+
+    private void loadNextPage() {
+        if (isLoading) {
+            return;
+        }
+        isLoading = true;
+        loadMoreButton.setEnabled(false);
+
+        final int generation = loadGeneration;
+        Query page = InstitutionMembers.roster(db, institutionId, selectedRole).limit(PAGE_SIZE);
+        if (lastMember != null) {
+            page = page.startAfter(lastMember);
+        }
+
+        // Bound rather than tied to onStop, so a page arriving in the background still clears isLoading
+        scope.bind(FirestoreUsage.get(page))
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    if (generation != loadGeneration) {
+                        return;
+                    }
+                    isLoading = false;
+                    loadMoreButton.setEnabled(true);
+                    showPage(queryDocumentSnapshots);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading members", e);
+                    if (generation != loadGeneration) {
+                        return;
+                    }
+                    isLoading = false;
+                    loadMoreButton.setEnabled(true);
+                    loadMoreButton.setVisibility(View.VISIBLE);
+                    Toast.makeText(this, "Error loading members: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void showPage(QuerySnapshot members) {
+        List<DocumentSnapshot> documents = members.getDocuments();
+        if (documents.isEmpty() && membersContainer.getChildCount() == 0) {
+            TextView noMembersText = new TextView(this);
+            noMembersText.setText(selectedRole != null
+                    ? "No members with this role."
+                    : "No members yet.");
+            noMembersText.setTextSize(14);
+            noMembersText.setTextColor(Color.parseColor("#757575"));
+            noMembersText.setGravity(android.view.Gravity.CENTER);
+            noMembersText.setPadding(16, 16, 16, 16);
+            membersContainer.addView(noMembersText);
+        }
+
+        for (DocumentSnapshot member : documents) {
+            addMemberCard(member);
+        }
+        if (!documents.isEmpty()) {
+            lastMember = documents.get(documents.size() - 1);
+        }
+        // A full page may have more behind it
+        loadMoreButton.setVisibility(documents.size() == PAGE_SIZE ? View.VISIBLE : View.GONE);
+    }
+
+    private void addMemberCard(DocumentSnapshot member) {
+        LinearLayout memberCard = new LinearLayout(this);
+        memberCard.setOrientation(LinearLayout.VERTICAL);
+        memberCard.setPadding(16, 16, 16, 16);
+        memberCard.setBackgroundResource(R.drawable.report_item_background);
+        LinearLayout.LayoutParams cardParams = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        cardParams.setMargins(0, 0, 0, 16);
+        memberCard.setLayoutParams(cardParams);
+
+        // Member Name
+        String fullName = member.getString("fullName");
+        TextView nameText = new TextView(this);
+        nameText.setText(fullName != null && !fullName.isEmpty() ? fullName : "Unnamed member");
+        nameText.setTextSize(16);
+        nameText.setTextColor(Color.parseColor("#212121"));
+        nameText.getPaint().setFakeBoldText(true);
+        memberCard.addView(nameText);
+
+        // Email
+        String email = member.getString("email");
+        if (email != null) {
+            TextView emailText = new TextView(this);
+            emailText.setText(email);
+            emailText.setTextSize(14);
+            emailText.setTextColor(Color.parseColor("#757575"));
+            memberCard.addView(emailText);
+        }
+
+        // Role and join date
+        String role = member.getString("role");
+        String details = "Role: " + (role != null ? role : "None");
+        if (Boolean.TRUE.equals(member.getBoolean("isManager"))) {
+            details += " (Manager)";
+        }
+        Long joinedAt = member.getLong("joinedAt");
+        if (joinedAt != null) {
+            details += " · Joined " + dateFormat.format(new Date(joinedAt));
+        }
+        TextView detailsText = new TextView(this);
+        detailsText.setText(details);
+        detailsText.setTextSize(12);
+        detailsText.setTextColor(Color.parseColor("#757575"));
+        detailsText.setPadding(0, 8, 0, 0);
+        memberCard.addView(detailsText);
+
+        membersContainer.addView(memberCard);
+    }
+}
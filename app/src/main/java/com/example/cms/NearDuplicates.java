@@ -0,0 +1,167 @@
+package com.example.cms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * MinHash signatures and locality-sensitive hashing for near-duplicate report text.
+ *
+ * The text is normalized and cut into overlapping character shingles; the
+ * signature keeps, for each of {@link #SIGNATURE_SIZE} hash functions, the
+ * smallest hash over all shingles, so the fraction of equal positions in two
+ * signatures estimates the Jaccard similarity of their shingle sets. The
+ * signature is split into {@link #BANDS} bands of {@link #ROWS} values, and each
+ * band becomes one key: two reports sharing any key are candidates, which keeps
+ * a lookup to one indexed array-contains-any query however many reports exist.
+ *
+ * With 10 bands of 3 rows, reports with similarity 0.5 become candidates about
+ * 74% of the time, 0.7 about 99%, and 0.2 under 8%.
+ */
+public final class NearDuplicates {
+
+    public static final int BANDS = 10;
+    public static final int ROWS = 3;
+    public static final int SIGNATURE_SIZE = BANDS * ROWS;
+
+    // Estimated similarity from which a candidate is reported as a likely duplicate
+    public static final double DUPLICATE_THRESHOLD = 0.5;
+
+    private static final int SHINGLE_LENGTH = 3;
+
+    // Fixed seeds so signatures stored on reports stay comparable across releases
+    private static final int[] SEEDS = new int[SIGNATURE_SIZE];
+
+    static {
+        int seed = 0x2545F491;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed = mix(seed + 0x9E3779B9);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private NearDuplicates() {
+    }
+
+    // Signature of a report's title and description together
+    public static int[] signature(String title, String description) {
+        return signature((title != null ? title : "") + " " + (description != null ? description : ""));
+    }
+
+    public static int[] signature(String text) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        for (int shingle : shingles(text)) {
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int hash = mix(shingle ^ SEEDS[i]);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // One key per band, prefixed with the band number so equal rows in different bands don't collide
+    public static List<String> bandKeys(int[] signature) {
+        List<String> keys = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            int hash = band;
+            for (int row = 0; row < ROWS; row++) {
+                hash = mix(hash * 31 + signature[band * ROWS + row]);
+            }
+            keys.add(band + ":" + Integer.toHexString(hash));
+        }
+        return keys;
+    }
+
+    // Estimated Jaccard similarity of the texts behind two signatures
+    public static double similarity(int[] a, int[] b) {
+        if (a == null || b == null || a.length != b.length) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    // Firestore stores numbers as longs
+    public static List<Long> toList(int[] signature) {
+        List<Long> values = new ArrayList<>(signature.length);
+        for (int value : signature) {
+            values.add((long) value);
+        }
+        return values;
+    }
+
+    public static int[] fromList(List<?> values) {
+        if (values == null || values.size() != SIGNATURE_SIZE) {
+            return null;
+        }
+        int[] signature = new int[SIGNATURE_SIZE];
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            Object value = values.get(i);
+            if (!(value instanceof Number)) {
+                return null;
+            }
+            signature[i] = ((Number) value).intValue();
+        }
+        return signature;
+    }
+
+    // Hashes of the distinct character shingles of the normalized text
+    static Set<Integer> shingles(String text) {
+        String normalized = normalize(text);
+        Set<Integer> shingles = new HashSet<>();
+        if (normalized.length() <= SHINGLE_LENGTH) {
+            if (!normalized.isEmpty()) {
+                shingles.add(normalized.hashCode());
+            }
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_LENGTH <= normalized.length(); i++) {
+            shingles.add(normalized.substring(i, i + SHINGLE_LENGTH).hashCode());
+        }
+        return shingles;
+    }
+
+    // Lower case, letters and digits only, single spaces between words
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Murmur3 finalizer: spreads every input bit over the whole hash
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
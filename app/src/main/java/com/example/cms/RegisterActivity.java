@@ -191,15 +191,13 @@ public class RegisterActivity extends AppCompatActivity {
         user.put("email", email);
         user.put("fullName", fullName);
         user.put("userType", userType);
-        user.put("roleName", null);  // Will be set to first role when creating institution
-        user.put("institutionId", null);
-        user.put("userRole", null);
         user.put("institutions", new java.util.ArrayList<>());  // Initialize empty institutions array
 
         // Save to Firestore
         db.collection("users").document(userId)
                 .set(user)
                 .addOnSuccessListener(aVoid -> {
+                    FirestoreUsage.recordWrites(1);
                     Log.d(TAG, "User data saved to Firestore successfully");
                     progressBar.setVisibility(View.GONE);
                     registerButton.setEnabled(true);
@@ -0,0 +1,104 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Daily archive pass over the institutions the signed-in user manages, run by
+ * {@link ReportArchiver}. Runs only while the device is charging and on an
+ * unmetered network; a pass that fails or times out is retried and continues
+ * from its checkpoint.
+ */
+public class ReportArchiveWorker extends Worker {
+
+    private static final String TAG = "ReportArchive";
+
+    private static final String WORK_NAME = "report_archive";
+
+    private static final long CHECK_INTERVAL_HOURS = 24;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    // Stays inside WorkManager's ten-minute limit for one run
+    private static final long PASS_TIMEOUT_MINUTES = 8;
+
+    public ReportArchiveWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // Keeps an already scheduled pass, so calling this on every dashboard visit is cheap
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ReportArchiveWorker.class, CHECK_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    // Called on sign-out: stops the pass and forgets its checkpoints
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+        ReportArchiver.clearCheckpoints(context);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            return Result.success();
+        }
+
+        try {
+            // Firestore settings must be applied before the first query
+            Tasks.await(AppStartup.whenReady(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+            QuerySnapshot institutions = Tasks.await(FirestoreUsage.get(db.collection("institutions")
+                    .whereArrayContains("managerIds", user.getUid())), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            ReportArchiver archiver = new ReportArchiver(getApplicationContext(), db);
+            long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(PASS_TIMEOUT_MINUTES);
+            for (DocumentSnapshot institution : institutions.getDocuments()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    // The rest is picked up by the retry
+                    return Result.retry();
+                }
+                int archived = Tasks.await(archiver.archive(institution), remaining, TimeUnit.MILLISECONDS);
+                Log.d(TAG, institution.getId() + ": " + archived + " reports archived");
+            }
+            return Result.success();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Archive pass failed", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves resolved reports (verified or rejected) that have not changed for the
+ * institution's archiveAfterDays out of reports/{id} into reportsArchive/{id},
+ * so active queries, counts and the managers' mirrors stop growing with closed
+ * history. Bodies and history stay where they are, under the same ID.
+ *
+ * A pass works through the candidates in chunks of CHUNK_SIZE, each moved in one
+ * transaction that re-checks every report, so a report reopened meanwhile stays.
+ * The pass's cutoff is checkpointed in SharedPreferences, so an interrupted pass
+ * resumes with the same cutoff. When a pass completes, the cutoff is stored on
+ * the institution as archivedBefore, which tells every manager's mirror which
+ * resolved reports to drop.
+ */
+public class ReportArchiver {
+
+    private static final String TAG = "ReportArchiver";
+
+    public static final String COLLECTION = "reportsArchive";
+
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 180;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final List<String> RESOLVED = Arrays.asList("verified", "rejected");
+
+    // Two writes per report (archive copy and delete), well under a transaction's 500
+    private static final int CHUNK_SIZE = 100;
+
+    private static final String PREFS_NAME = "report_archiver";
+    private static final String KEY_CUTOFF = "cutoff_";
+
+    private final FirebaseFirestore db;
+    private final SharedPreferences prefs;
+    private final ReportMirror reportMirror;
+
+    public ReportArchiver(Context context, FirebaseFirestore db) {
+        this.db = db;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.reportMirror = ReportMirror.getInstance(context);
+    }
+
+    // 0 means the institution never archives
+    public static int archiveAfterDays(Map<String, Object> institution) {
+        Object days = institution != null ? institution.get("archiveAfterDays") : null;
+        return days instanceof Number ? ((Number) days).intValue() : DEFAULT_ARCHIVE_AFTER_DAYS;
+    }
+
+    // Resolved reports last changed before this have been archived; 0 when none have
+    public static long archivedBefore(Map<String, Object> institution) {
+        Object archivedBefore = institution != null ? institution.get("archivedBefore") : null;
+        return archivedBefore instanceof Number ? ((Number) archivedBefore).longValue() : 0L;
+    }
+
+    public static void clearCheckpoints(Context context) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    // Runs a pass over one institution; completes with the number of reports archived
+    public Task<Integer> archive(DocumentSnapshot institution) {
+        int days = archiveAfterDays(institution.getData());
+        if (days <= 0) {
+            return Tasks.forResult(0);
+        }
+
+        String institutionId = institution.getId();
+        long cutoff = prefs.getLong(KEY_CUTOFF + institutionId, 0L);
+        if (cutoff == 0L) {
+            cutoff = System.currentTimeMillis() - days * DAY_MILLIS;
+            prefs.edit().putLong(KEY_CUTOFF + institutionId, cutoff).commit();
+        }
+        return archiveChunk(institutionId, cutoff, 0);
+    }
+
+    private Task<Integer> archiveChunk(String institutionId, long cutoff, int archived) {
+        return FirestoreUsage.get(db.collection("reports")
+                .whereEqualTo("institutionId", institutionId)
+                .whereIn("status", RESOLVED)
+                .whereLessThan("updatedAt", cutoff)
+                .orderBy("updatedAt")
+                .limit(CHUNK_SIZE))
+                .continueWithTask(ResultPipeline.EXECUTOR, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    QuerySnapshot snapshot = task.getResult();
+                    if (snapshot.isEmpty()) {
+                        return finishPass(institutionId, cutoff, archived);
+                    }
+
+                    List<DocumentReference> candidates = new ArrayList<>();
+                    for (DocumentSnapshot report : snapshot.getDocuments()) {
+                        candidates.add(report.getReference());
+                    }
+                    boolean lastChunk = snapshot.size() < CHUNK_SIZE;
+                    return move(candidates, cutoff).continueWithTask(ResultPipeline.EXECUTOR, moved -> {
+                        if (!moved.isSuccessful()) {
+                            throw moved.getException();
+                        }
+                        List<String> movedIds = moved.getResult();
+                        FirestoreUsage.recordWrites(movedIds.size() * 2);
+                        for (String reportId : movedIds) {
+                            EntityStore.remove(EntityStore.reportPath(reportId));
+                        }
+                        int total = archived + movedIds.size();
+                        Log.d(TAG, "Archived " + movedIds.size() + " reports of " + institutionId);
+
+                        return reportMirror.remove(movedIds).continueWithTask(ResultPipeline.EXECUTOR, removed ->
+                                // Reports skipped because they changed no longer match the query
+                                lastChunk || movedIds.isEmpty()
+                                        ? finishPass(institutionId, cutoff, total)
+                                        : archiveChunk(institutionId, cutoff, total));
+                    });
+                });
+    }
+
+    // Copies each report that is still resolved and unchanged to the archive and deletes it
+    private Task<List<String>> move(List<DocumentReference> candidates, long cutoff) {
+        long archivedAt = System.currentTimeMillis();
+        return db.runTransaction(transaction -> {
+            // All reads have to happen before the first write
+            List<DocumentSnapshot> current = new ArrayList<>();
+            for (DocumentReference reportRef : candidates) {
+                current.add(FirestoreUsage.get(transaction, reportRef));
+            }
+
+            List<String> movedIds = new ArrayList<>();
+            for (DocumentSnapshot report : current) {
+                Long updatedAt = report.getLong("updatedAt");
+                if (!report.exists() || !RESOLVED.contains(report.getString("status"))
+                        || updatedAt == null || updatedAt >= cutoff) {
+                    continue;
+                }
+                Map<String, Object> archivedReport = new HashMap<>(report.getData());
+                archivedReport.put("archivedAt", archivedAt);
+                transaction.set(db.collection(COLLECTION).document(report.getId()), archivedReport);
+                transaction.delete(report.getReference());
+                movedIds.add(report.getId());
+            }
+            return movedIds;
+        });
+    }
+
+    private Task<Integer> finishPass(String institutionId, long cutoff, int archived) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("archivedBefore", cutoff);
+        return db.collection("institutions").document(institutionId)
+                .update(updates)
+                .continueWith(ResultPipeline.EXECUTOR, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    FirestoreUsage.recordWrites(1);
+                    EntityStore.merge(EntityStore.institutionPath(institutionId), updates);
+                    prefs.edit().remove(KEY_CUTOFF + institutionId).commit();
+                    Log.d(TAG, "Archive pass of " + institutionId + " done: " + archived + " reports");
+                    return archived;
+                });
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads open reports over an institution's managers (institutions.managerIds).
+ *
+ * Each institution keeps a managerLoad map with the number of open reports
+ * assigned to each manager. Assigning reads the institution and the reports in
+ * one transaction, so two devices assigning at once can neither double-assign a
+ * report nor lose a counter update. The institution's assignmentPolicy picks
+ * the manager: the least loaded one (default) or the next in turn
+ * (nextManagerIndex).
+ *
+ * Resolving or reopening a report adjusts its manager's counter in the same
+ * write as the status change, see {@link #loadChange}.
+ */
+public final class ReportAssignment {
+
+    public static final String POLICY_LEAST_LOADED = "least_loaded";
+    public static final String POLICY_ROUND_ROBIN = "round_robin";
+
+    // Every report is read inside the transaction, so keep each one small
+    private static final int MAX_PER_TRANSACTION = 20;
+
+    private ReportAssignment() {
+    }
+
+    public static boolean isOpen(String status) {
+        return "pending".equals(status) || "investigating".equals(status);
+    }
+
+    /**
+     * Assigns those of the reports that are still open and unassigned, one
+     * transaction of up to {@link #MAX_PER_TRANSACTION} after another, so a
+     * large backlog such as an import is assigned in one sweep; completes with
+     * the number assigned.
+     */
+    public static Task<Integer> assign(FirebaseFirestore db, String institutionId, List<String> reportIds) {
+        return assignFrom(db, institutionId, reportIds, 0, 0);
+    }
+
+    private static Task<Integer> assignFrom(FirebaseFirestore db, String institutionId, List<String> reportIds,
+                                            int start, int assignedSoFar) {
+        if (start >= reportIds.size()) {
+            return Tasks.forResult(assignedSoFar);
+        }
+        List<String> chunk = new ArrayList<>(
+                reportIds.subList(start, Math.min(reportIds.size(), start + MAX_PER_TRANSACTION)));
+        return assignChunk(db, institutionId, chunk).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return assignFrom(db, institutionId, reportIds, start + MAX_PER_TRANSACTION,
+                    assignedSoFar + task.getResult());
+        });
+    }
+
+    private static Task<Integer> assignChunk(FirebaseFirestore db, String institutionId, List<String> chunk) {
+        DocumentReference institutionRef = db.collection("institutions").document(institutionId);
+
+        return db.runTransaction(transaction -> {
+            // All reads come before any write in a transaction
+            DocumentSnapshot institution = FirestoreUsage.get(transaction, institutionRef);
+            List<DocumentSnapshot> reports = new ArrayList<>();
+            for (String reportId : chunk) {
+                reports.add(FirestoreUsage.get(transaction, db.collection("reports").document(reportId)));
+            }
+
+            List<String> managerIds = (List<String>) institution.get("managerIds");
+            if (managerIds == null || managerIds.isEmpty()) {
+                return 0;
+            }
+            Map<String, Long> load = currentLoad(institution, managerIds);
+            boolean roundRobin = POLICY_ROUND_ROBIN.equals(institution.getString("assignmentPolicy"));
+            Long nextIndexValue = institution.getLong("nextManagerIndex");
+            long nextIndex = nextIndexValue != null ? nextIndexValue : 0L;
+            long timestamp = System.currentTimeMillis();
+
+            int assigned = 0;
+            for (DocumentSnapshot report : reports) {
+                if (!report.exists() || report.getString("assignedTo") != null
+                        || !isOpen(report.getString("status"))) {
+                    continue;
+                }
+                String managerId = roundRobin
+                        ? managerIds.get((int) (nextIndex++ % managerIds.size()))
+                        : leastLoaded(managerIds, load);
+                load.put(managerId, load.get(managerId) + 1);
+                // The new stamp lets the managers' local mirrors pick up the assignment
+                transaction.update(report.getReference(), "assignedTo", managerId, "updatedAt", timestamp,
+                        ReportMirror.SERVER_UPDATED_AT, FieldValue.serverTimestamp());
+                assigned++;
+            }
+
+            if (assigned > 0) {
+                Map<String, Object> counters = new HashMap<>();
+                for (Map.Entry<String, Long> entry : load.entrySet()) {
+                    counters.put("managerLoad." + entry.getKey(), entry.getValue());
+                }
+                counters.put("nextManagerIndex", nextIndex);
+                transaction.update(institutionRef, counters);
+            }
+            return assigned;
+        }).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            int assigned = task.getResult();
+            FirestoreUsage.recordWrites(assigned > 0 ? assigned + 1 : 0);
+            return assigned;
+        });
+    }
+
+    // The institution update for such a status change, or null when the count stays the same
+    public static Map<String, Object> loadChange(String managerId, String oldStatus, String newStatus) {
+        boolean wasOpen = isOpen(oldStatus);
+        boolean nowOpen = isOpen(newStatus);
+        if (managerId == null || wasOpen == nowOpen) {
+            return null;
+        }
+        Map<String, Object> change = new HashMap<>();
+        change.put("managerLoad." + managerId, FieldValue.increment(nowOpen ? 1 : -1));
+        return change;
+    }
+
+    private static Map<String, Long> currentLoad(DocumentSnapshot institution, List<String> managerIds) {
+        Map<String, Object> stored = (Map<String, Object>) institution.get("managerLoad");
+        Map<String, Long> load = new HashMap<>();
+        for (String managerId : managerIds) {
+            Object count = stored != null ? stored.get(managerId) : null;
+            load.put(managerId, count instanceof Number ? Math.max(((Number) count).longValue(), 0L) : 0L);
+        }
+        return load;
+    }
+
+    // Ties go to the manager listed first
+    private static String leastLoaded(List<String> managerIds, Map<String, Long> load) {
+        String best = managerIds.get(0);
+        for (String managerId : managerIds) {
+            if (load.get(managerId) < load.get(best)) {
+                best = managerId;
+            }
+        }
+        return best;
+    }
+}
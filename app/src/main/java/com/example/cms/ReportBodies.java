@@ -0,0 +1,63 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reports are split in two documents with the same ID: a slim header in
+ * reports/{id} (title, status, role, dates, IDs) that list queries download,
+ * and a body in reportBodies/{id} with the description, the manager's response
+ * and any other large fields, read only when a single report is opened.
+ *
+ * Reports submitted before the split still have their body fields on the
+ * header and no body document; {@link #load} falls back to those.
+ */
+public final class ReportBodies {
+
+    public static final String COLLECTION = "reportBodies";
+
+    private ReportBodies() {
+    }
+
+    public static DocumentReference reference(FirebaseFirestore db, String reportId) {
+        return db.collection(COLLECTION).document(reportId);
+    }
+
+    public static String path(String reportId) {
+        return COLLECTION + "/" + reportId;
+    }
+
+    /**
+     * Loads the body fields of a report, falling back to a copy loaded earlier when offline.
+     * legacyHeader is the report's header, whose description/managerResponse are
+     * used when the report predates the split; it may be null.
+     */
+    public static Task<Map<String, Object>> load(FirebaseFirestore db, String reportId,
+                                                 Map<String, Object> legacyHeader) {
+        return FirestoreUsage.get(reference(db, reportId)).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                Map<String, Object> cached = EntityStore.get(path(reportId));
+                if (cached != null) {
+                    return cached;
+                }
+                throw task.getException();
+            }
+
+            Map<String, Object> body = new HashMap<>();
+            if (legacyHeader != null) {
+                body.put("description", legacyHeader.get("description"));
+                body.put("managerResponse", legacyHeader.get("managerResponse"));
+            }
+            if (task.getResult().exists()) {
+                EntityStore.put(task.getResult());
+                // A legacy report merged as a duplicate has a body with only the response
+                body.putAll(task.getResult().getData());
+            }
+            return body;
+        });
+    }
+}
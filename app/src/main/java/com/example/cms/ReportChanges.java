@@ -0,0 +1,131 @@
+package com.example.cms;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a submitter last saw of each of their reports: its status and when the
+ * manager's response last changed. {@link #record} compares a freshly synced
+ * header against that and tells whether the status changed or a new response
+ * arrived, so a report synced twice is only announced once.
+ *
+ * Saved as a string set of "reportId=status=responseUpdatedAt=updatedAt"
+ * entries. {@link #prune} drops resolved reports that have not changed for a
+ * while, so the set does not keep every report the user ever submitted.
+ */
+public class ReportChanges {
+
+    public static class Change {
+        private final String reportId;
+        private final String status;
+        private final boolean statusChanged;
+        private final boolean newResponse;
+
+        Change(String reportId, String status, boolean statusChanged, boolean newResponse) {
+            this.reportId = reportId;
+            this.status = status;
+            this.statusChanged = statusChanged;
+            this.newResponse = newResponse;
+        }
+
+        public String getReportId() {
+            return reportId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isStatusChanged() {
+            return statusChanged;
+        }
+
+        public boolean isNewResponse() {
+            return newResponse;
+        }
+    }
+
+    private static class Seen {
+        final String status;
+        final long responseUpdatedAt;
+        final long updatedAt;
+
+        Seen(String status, long responseUpdatedAt, long updatedAt) {
+            this.status = status;
+            this.responseUpdatedAt = responseUpdatedAt;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final Map<String, Seen> seen = new HashMap<>();
+
+    public ReportChanges(Set<String> saved) {
+        if (saved == null) {
+            return;
+        }
+        for (String entry : saved) {
+            String[] parts = entry.split("=");
+            if (parts.length != 3 && parts.length != 4) {
+                continue;
+            }
+            try {
+                // Entries saved before updatedAt was kept look old, and are pruned unless synced again
+                long updatedAt = parts.length == 4 ? Long.parseLong(parts[3]) : 0L;
+                seen.put(parts[0], new Seen(parts[1], Long.parseLong(parts[2]), updatedAt));
+            } catch (NumberFormatException e) {
+                // Dropped; the report is treated as new
+            }
+        }
+    }
+
+    /**
+     * Remembers the report's current state and returns what changed since it was
+     * last recorded, or null when there is nothing to tell. A report seen for the
+     * first time only counts as changed once it has left "pending" or has a response.
+     */
+    public Change record(String reportId, String status, Long responseUpdatedAt, long updatedAt) {
+        long responseAt = responseUpdatedAt != null ? responseUpdatedAt : 0L;
+        Seen previous = seen.put(reportId, new Seen(status, responseAt, updatedAt));
+
+        boolean statusChanged = previous != null
+                ? status != null && !status.equals(previous.status)
+                : status != null && !"pending".equals(status);
+        boolean newResponse = responseAt > (previous != null ? previous.responseUpdatedAt : 0L);
+
+        if (!statusChanged && !newResponse) {
+            return null;
+        }
+        return new Change(reportId, status, statusChanged, newResponse);
+    }
+
+    /**
+     * Forgets resolved reports last updated before cutoff. Open reports are kept,
+     * since they are still expected to change. A forgotten report is only synced
+     * again once it changes, so keep cutoff below the sync watermark.
+     */
+    public void prune(long cutoff) {
+        Iterator<Seen> states = seen.values().iterator();
+        while (states.hasNext()) {
+            Seen state = states.next();
+            if (!ReportAssignment.isOpen(state.status) && state.updatedAt < cutoff) {
+                states.remove();
+            }
+        }
+    }
+
+    public int size() {
+        return seen.size();
+    }
+
+    public Set<String> toSet() {
+        Set<String> saved = new HashSet<>();
+        for (Map.Entry<String, Seen> entry : seen.entrySet()) {
+            Seen state = entry.getValue();
+            saved.add(entry.getKey() + "=" + state.status + "=" + state.responseUpdatedAt + "=" + state.updatedAt);
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cms;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.List;
+
+@Dao
+public interface ReportDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<ReportEntity> reports);
+
+    @Query("DELETE FROM reports WHERE reportId IN (:reportIds)")
+    void deleteAll(List<String> reportIds);
+
+    // Resolved reports that the archiver has moved out of the reports collection
+    @Query("DELETE FROM reports WHERE institutionId = :institutionId"
+            + " AND LOWER(status) IN ('verified', 'rejected') AND updatedAt < :archivedBefore")
+    int deleteArchived(String institutionId, long archivedBefore);
+
+    @Query("SELECT * FROM reports WHERE institutionId = :institutionId ORDER BY createdAt DESC")
+    List<ReportEntity> getForInstitution(String institutionId);
+
+    // Ad-hoc counts built by ReportFilter
+    @RawQuery
+    int count(SupportSQLiteQuery query);
+
+    @Query("SELECT status, COUNT(*) AS count FROM reports WHERE institutionId = :institutionId GROUP BY status")
+    List<StatusCount> countByStatus(String institutionId);
+
+    @Query("SELECT * FROM sync_state WHERE institutionId = :institutionId")
+    SyncState getSyncState(String institutionId);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void putSyncState(SyncState state);
+
+    @Query("DELETE FROM reports")
+    void clearReports();
+
+    @Query("DELETE FROM sync_state")
+    void clearSyncState();
+
+    class StatusCount {
+        public String status;
+        public int count;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cms;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * Room database behind {@link ReportMirror}. It only holds copies of server data,
+ * so a schema change simply drops it and the next sync refills it.
+ */
+// Version 4 drops the sync watermarks taken from writers' clocks; mirrors resync on server time
+@Database(entities = {ReportEntity.class, SyncState.class}, version = 4, exportSchema = false)
+public abstract class ReportDatabase extends RoomDatabase {
+
+    private static volatile ReportDatabase instance;
+
+    public abstract ReportDao reportDao();
+
+    public static ReportDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ReportDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    ReportDatabase.class, "reports_mirror.db")
+                            .fallbackToDestructiveMigration()
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cms;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+/**
+ * Local mirror row of a report header (see {@link ReportMirror}). Indexed on
+ * institution, status and createdAt so local filters and sorts never scan.
+ */
+@Entity(tableName = "reports",
+        indices = {
+                @Index("institutionId"),
+                @Index("status"),
+                @Index("createdAt"),
+                @Index({"institutionId", "status", "createdAt"})
+        })
+public class ReportEntity {
+
+    @PrimaryKey
+    @NonNull
+    public String reportId = "";
+
+    public String institutionId;
+    public String institutionName;
+    public String userId;
+    public String userRole;
+    public String title;
+    public String status;
+    public String assignedTo;
+    // Set on a duplicate merged into another report
+    public String duplicateOf;
+    public long createdAt;
+    public long updatedAt;
+
+    public static ReportEntity fromSnapshot(DocumentSnapshot document) {
+        ReportEntity entity = new ReportEntity();
+        entity.reportId = document.getId();
+        entity.institutionId = document.getString("institutionId");
+        entity.institutionName = document.getString("institutionName");
+        entity.userId = document.getString("userId");
+        entity.userRole = document.getString("userRole");
+        entity.title = document.getString("title");
+        entity.status = document.getString("status");
+        entity.assignedTo = document.getString("assignedTo");
+        entity.duplicateOf = document.getString("duplicateOf");
+        Long createdAt = document.getLong("createdAt");
+        entity.createdAt = createdAt != null ? createdAt : 0L;
+        Long updatedAt = document.getLong("updatedAt");
+        entity.updatedAt = updatedAt != null ? updatedAt : 0L;
+        return entity;
+    }
+}
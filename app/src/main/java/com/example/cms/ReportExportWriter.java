@@ -0,0 +1,145 @@
+package com.example.cms;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Writes exported reports as CSV or a JSON array straight to a Writer, one row
+ * at a time, so an export never holds more than the row being written.
+ *
+ * Rows are report headers with the body fields (description, managerResponse)
+ * merged in; timestamps are written as UTC ISO-8601.
+ */
+public class ReportExportWriter {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_JSON = "json";
+
+    static final String[] COLUMNS = {
+            "reportId", "title", "status", "userRole", "userId", "assignedTo",
+            "createdAt", "updatedAt", "resolvedAt", "description", "managerResponse"
+    };
+
+    private static final String[] TIMESTAMP_COLUMNS = {"createdAt", "updatedAt", "resolvedAt"};
+
+    private final Writer out;
+    private final boolean json;
+    private final SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+    private int rows = 0;
+
+    public ReportExportWriter(Writer out, String format) {
+        this.out = out;
+        this.json = FORMAT_JSON.equals(format);
+        isoFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    public void begin() throws IOException {
+        if (json) {
+            out.write("[");
+            return;
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(COLUMNS[i]);
+        }
+        out.write("\r\n");
+    }
+
+    public void writeRow(Map<String, Object> report) throws IOException {
+        if (json) {
+            out.write(rows == 0 ? "\n  {" : ",\n  {");
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = valueOf(report, COLUMNS[i]);
+                out.write(i == 0 ? "" : ", ");
+                out.write(jsonString(COLUMNS[i]));
+                out.write(": ");
+                out.write(value == null ? "null" : jsonString(value.toString()));
+            }
+            out.write("}");
+        } else {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(csvCell(valueOf(report, COLUMNS[i])));
+            }
+            out.write("\r\n");
+        }
+        rows++;
+    }
+
+    public void end() throws IOException {
+        if (json) {
+            out.write(rows == 0 ? "]\n" : "\n]\n");
+        }
+        out.flush();
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    private Object valueOf(Map<String, Object> report, String column) {
+        Object value = report.get(column);
+        for (String timestampColumn : TIMESTAMP_COLUMNS) {
+            if (timestampColumn.equals(column) && value instanceof Number) {
+                return isoFormat.format(new Date(((Number) value).longValue()));
+            }
+        }
+        return value;
+    }
+
+    // Quotes a cell when needed (RFC 4180), and defuses text a spreadsheet would run as a formula
+    static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    static String jsonString(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
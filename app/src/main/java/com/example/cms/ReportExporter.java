@@ -0,0 +1,199 @@
+package com.example.cms;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.DocumentsContract;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Exports an institution's reports to a file the user picked through the
+ * Storage Access Framework.
+ *
+ * Reports are read one page at a time in document ID order with a cursor, their
+ * bodies are fetched for that page only, and the rows are streamed through
+ * {@link ReportExportWriter} before the next page is requested, so memory stays
+ * the same for any number of reports. A cancelled or failed export deletes the
+ * partial file.
+ */
+public class ReportExporter {
+
+    private static final String TAG = "ReportExporter";
+
+    private static final int PAGE_SIZE = 200;
+
+    // Most document IDs a whereIn query accepts
+    private static final int BODY_CHUNK_SIZE = 30;
+
+    // Called on the main thread; total is -1 when the count is unavailable
+    public interface ProgressListener {
+        void onProgress(int exported, long total);
+    }
+
+    private final FirebaseFirestore db;
+    private final ContentResolver resolver;
+    private final String institutionId;
+    private final Uri uri;
+    private final String format;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile boolean cancelled = false;
+    private BufferedWriter out;
+    private ReportExportWriter writer;
+
+    public ReportExporter(FirebaseFirestore db, ContentResolver resolver, String institutionId,
+                          Uri uri, String format) {
+        this.db = db;
+        this.resolver = resolver;
+        this.institutionId = institutionId;
+        this.uri = uri;
+        this.format = format;
+    }
+
+    // Stops after the page being written; the run then fails with a CancellationException
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Completes with the number of reports written
+    public Task<Integer> run(ProgressListener listener) {
+        Task<Long> total = FirestoreUsage.count(db.collection("reports")
+                .whereEqualTo("institutionId", institutionId))
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        // Progress is shown without a total
+                        return -1L;
+                    }
+                    return task.getResult().getCount();
+                });
+
+        return total.continueWithTask(ResultPipeline.EXECUTOR, counted -> {
+            OutputStream stream = resolver.openOutputStream(uri, "wt");
+            if (stream == null) {
+                throw new IOException("Cannot open " + uri);
+            }
+            out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            writer = new ReportExportWriter(out, format);
+            writer.begin();
+            return exportPage(null, counted.getResult(), listener);
+        }).continueWith(ResultPipeline.EXECUTOR, task -> {
+            if (task.isSuccessful()) {
+                out.close();
+                Log.d(TAG, "Exported " + task.getResult() + " reports of " + institutionId);
+                return task.getResult();
+            }
+            discardPartialFile();
+            throw task.getException();
+        });
+    }
+
+    private Task<Integer> exportPage(DocumentSnapshot cursor, long total, ProgressListener listener) {
+        if (cancelled) {
+            throw new CancellationException("Export cancelled");
+        }
+
+        Query page = db.collection("reports")
+                .whereEqualTo("institutionId", institutionId)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        if (cursor != null) {
+            page = page.startAfter(cursor);
+        }
+
+        return FirestoreUsage.get(page).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            QuerySnapshot snapshot = task.getResult();
+            List<DocumentSnapshot> reports = snapshot.getDocuments();
+
+            return loadBodies(reports).continueWithTask(ResultPipeline.EXECUTOR, bodies -> {
+                if (!bodies.isSuccessful()) {
+                    throw bodies.getException();
+                }
+                for (DocumentSnapshot report : reports) {
+                    Map<String, Object> row = new HashMap<>(report.getData());
+                    row.put("reportId", report.getId());
+                    // Legacy reports keep their body fields on the header and have no body document
+                    Map<String, Object> body = bodies.getResult().get(report.getId());
+                    if (body != null) {
+                        row.putAll(body);
+                    }
+                    writer.writeRow(row);
+                }
+                out.flush();
+
+                int exported = writer.getRowCount();
+                mainHandler.post(() -> listener.onProgress(exported, total));
+
+                // A short page is the last one
+                if (reports.size() < PAGE_SIZE) {
+                    writer.end();
+                    return Tasks.forResult(exported);
+                }
+                return exportPage(reports.get(reports.size() - 1), total, listener);
+            });
+        });
+    }
+
+    // Body fields of one page of reports by report ID, in chunks of BODY_CHUNK_SIZE
+    private Task<Map<String, Map<String, Object>>> loadBodies(List<DocumentSnapshot> reports) {
+        List<Task<QuerySnapshot>> chunks = new ArrayList<>();
+        for (int start = 0; start < reports.size(); start += BODY_CHUNK_SIZE) {
+            List<String> ids = new ArrayList<>();
+            for (DocumentSnapshot report : reports.subList(start, Math.min(start + BODY_CHUNK_SIZE, reports.size()))) {
+                ids.add(report.getId());
+            }
+            chunks.add(FirestoreUsage.get(db.collection(ReportBodies.COLLECTION)
+                    .whereIn(FieldPath.documentId(), ids)));
+        }
+
+        return Tasks.whenAll(chunks).continueWith(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            Map<String, Map<String, Object>> bodies = new HashMap<>();
+            for (Task<QuerySnapshot> chunk : chunks) {
+                for (DocumentSnapshot body : chunk.getResult().getDocuments()) {
+                    bodies.put(body.getId(), body.getData());
+                }
+            }
+            return bodies;
+        });
+    }
+
+    private void discardPartialFile() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing export file", e);
+        }
+        try {
+            DocumentsContract.deleteDocument(resolver, uri);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not delete partial export", e);
+        }
+    }
+}
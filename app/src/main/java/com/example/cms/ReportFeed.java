@@ -0,0 +1,138 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One newest-first stream of a user's reports across all their institutions.
+ *
+ * Each institution is a separate createdAt-ordered query; nextPage() k-way merges
+ * their buffered heads and only fetches more from a source once its buffer runs
+ * dry, asking for no more than the page still needs. Not thread-safe: call
+ * nextPage() again only after the previous page has completed.
+ */
+public class ReportFeed {
+
+    private final FirebaseFirestore db;
+    private final String userId;
+    private final int pageSize;
+    private final List<Source> sources = new ArrayList<>();
+
+    // Sources with buffered reports, newest head first
+    private final PriorityQueue<Source> heads = new PriorityQueue<>(
+            (a, b) -> Long.compare(createdAt(b.buffer.peek()), createdAt(a.buffer.peek())));
+
+    public ReportFeed(FirebaseFirestore db, String userId, Collection<String> institutionIds, int pageSize) {
+        this.db = db;
+        this.userId = userId;
+        this.pageSize = pageSize;
+        for (String institutionId : institutionIds) {
+            sources.add(new Source(institutionId));
+        }
+    }
+
+    public boolean hasMore() {
+        if (!heads.isEmpty()) {
+            return true;
+        }
+        for (Source source : sources) {
+            if (!source.exhausted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Completes with up to pageSize reports, newest first; empty once every source is drained
+    public Task<List<DocumentSnapshot>> nextPage() {
+        return fillPage(new ArrayList<>());
+    }
+
+    private Task<List<DocumentSnapshot>> fillPage(List<DocumentSnapshot> page) {
+        // A source with nothing buffered might hold the next newest report, so it has
+        // to be fetched before merging can continue
+        List<Source> starving = new ArrayList<>();
+        for (Source source : sources) {
+            if (source.buffer.isEmpty() && !source.exhausted) {
+                starving.add(source);
+            }
+        }
+        if (!starving.isEmpty() && page.size() < pageSize) {
+            return fetch(starving, pageSize - page.size())
+                    .continueWithTask(ResultPipeline.EXECUTOR, done -> fillPage(page));
+        }
+
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            Source source = heads.poll();
+            page.add(source.buffer.poll());
+
+            if (!source.buffer.isEmpty()) {
+                heads.add(source);
+            } else if (!source.exhausted) {
+                return fillPage(page);
+            }
+        }
+        return Tasks.forResult(page);
+    }
+
+    private Task<Void> fetch(List<Source> starving, int limit) {
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (Source source : starving) {
+            Query query = db.collection("reports")
+                    .whereEqualTo("userId", userId)
+                    .whereEqualTo("institutionId", source.institutionId)
+                    .orderBy("createdAt", Query.Direction.DESCENDING)
+                    .limit(limit);
+            if (source.cursor != null) {
+                query = query.startAfter(source.cursor);
+            }
+            queries.add(FirestoreUsage.get(query));
+        }
+
+        return Tasks.whenAll(queries).continueWith(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            for (int i = 0; i < starving.size(); i++) {
+                Source source = starving.get(i);
+                QuerySnapshot snapshot = queries.get(i).getResult();
+
+                List<DocumentSnapshot> documents = snapshot.getDocuments();
+                source.buffer.addAll(documents);
+                if (!documents.isEmpty()) {
+                    source.cursor = documents.get(documents.size() - 1);
+                    heads.add(source);
+                }
+                // A short page means the query has nothing further
+                source.exhausted = documents.size() < limit;
+            }
+            return null;
+        });
+    }
+
+    private static long createdAt(DocumentSnapshot document) {
+        Long createdAt = document.getLong("createdAt");
+        return createdAt != null ? createdAt : 0L;
+    }
+
+    private static class Source {
+        final String institutionId;
+        final ArrayDeque<DocumentSnapshot> buffer = new ArrayDeque<>();
+        DocumentSnapshot cursor;
+        boolean exhausted;
+
+        Source(String institutionId) {
+            this.institutionId = institutionId;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.cms;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ad-hoc count over one institution's mirrored reports, turned into SQL
+ * against the indexed local table, e.g. pending reports older than a week:
+ *
+ *     new ReportFilter(institutionId).status("pending").createdBefore(weekAgo)
+ */
+public class ReportFilter {
+
+    private final String institutionId;
+    private String status;
+    private Long createdBefore;
+
+    public ReportFilter(String institutionId) {
+        this.institutionId = institutionId;
+    }
+
+    public ReportFilter status(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public ReportFilter createdBefore(long timestamp) {
+        this.createdBefore = timestamp;
+        return this;
+    }
+
+    SupportSQLiteQuery toCount() {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM reports WHERE institutionId = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(institutionId);
+
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.toLowerCase());
+        }
+        if (createdBefore != null) {
+            sql.append(" AND createdAt < ?");
+            args.add(createdBefore);
+        }
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.cms;
+
+import com.google.firebase.firestore.DocumentReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only status history of a report in reports/{id}/history. Every
+ * status update adds one entry in the same write as the update itself;
+ * entries are never changed afterwards.
+ */
+public final class ReportHistory {
+
+    public static final String SUBCOLLECTION = "history";
+
+    private ReportHistory() {
+    }
+
+    public static DocumentReference newEntry(DocumentReference reportRef) {
+        return reportRef.collection(SUBCOLLECTION).document();
+    }
+
+    // version is the header version the change produced, note an optional explanation
+    public static Map<String, Object> entry(String fromStatus, String toStatus, String changedBy,
+                                            long changedAt, Long version, String note) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("fromStatus", fromStatus);
+        entry.put("toStatus", toStatus);
+        entry.put("changedBy", changedBy);
+        entry.put("changedAt", changedAt);
+        if (version != null) {
+            entry.put("version", version);
+        }
+        if (note != null) {
+            entry.put("note", note);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.cms;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Checks one CSV record of a report import at a time and turns it into report
+ * fields. Columns are found by their header name (case-insensitive, any order):
+ * title and description are required; status, role, createdAt and response are
+ * optional. Roles are matched against the institution's roles regardless of
+ * case and stored with the institution's spelling.
+ */
+public class ReportImportValidator {
+
+    static final int MAX_TITLE_LENGTH = 200;
+    static final int MAX_DESCRIPTION_LENGTH = 10_000;
+
+    private static final List<String> STATUSES = Arrays.asList("pending", "investigating", "verified", "rejected");
+
+    // Accepted createdAt formats besides epoch milliseconds; without a zone the device's is used
+    private static final String[] DATE_PATTERNS = {"yyyy-MM-dd'T'HH:mm:ss'Z'", "yyyy-MM-dd HH:mm", "yyyy-MM-dd"};
+
+    public static class Row {
+        private final String title;
+        private final String description;
+        private final String status;
+        private final String role;
+        private final long createdAt;
+        private final String response;
+
+        Row(String title, String description, String status, String role, long createdAt, String response) {
+            this.title = title;
+            this.description = description;
+            this.status = status;
+            this.role = role;
+            this.createdAt = createdAt;
+            this.response = response;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        // Null when the record has no role
+        public String getRole() {
+            return role;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+    }
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final Map<String, String> rolesByKey = new HashMap<>();
+    private final long now;
+
+    // Throws IllegalArgumentException when a required column is missing from the header
+    public ReportImportValidator(List<String> header, List<String> roles, long now) {
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.US);
+            columns.put(name, i);
+        }
+        for (String required : new String[]{"title", "description"}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+        if (roles != null) {
+            for (String role : roles) {
+                rolesByKey.put(role.trim().toLowerCase(Locale.US), role);
+            }
+        }
+        this.now = now;
+    }
+
+    // Throws IllegalArgumentException describing the first problem with the record
+    public Row parse(List<String> record) {
+        String title = field(record, "title");
+        String description = field(record, "description");
+        if (title.isEmpty()) {
+            throw new IllegalArgumentException("Title is empty");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title is longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (description.isEmpty()) {
+            throw new IllegalArgumentException("Description is empty");
+        }
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        String status = field(record, "status").toLowerCase(Locale.US);
+        if (status.isEmpty()) {
+            status = "pending";
+        } else if (!STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Unknown status \"" + status + "\"");
+        }
+
+        String role = null;
+        String roleValue = field(record, "role");
+        if (!roleValue.isEmpty()) {
+            role = rolesByKey.get(roleValue.toLowerCase(Locale.US));
+            if (role == null) {
+                throw new IllegalArgumentException("Role \"" + roleValue + "\" is not one of the institution's roles");
+            }
+        }
+
+        // Without the column the import time is used; a blank date in the column is an error
+        long createdAt = now;
+        if (columns.containsKey("createdat")) {
+            createdAt = parseDate(field(record, "createdat"));
+        }
+
+        return new Row(title, description, status, role, createdAt, field(record, "response"));
+    }
+
+    private long parseDate(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Date is empty");
+        }
+        Long parsed = null;
+        if (value.matches("\\d{10,}")) {
+            parsed = Long.parseLong(value);
+        } else {
+            for (String pattern : DATE_PATTERNS) {
+                SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+                format.setLenient(false);
+                if (pattern.endsWith("'Z'")) {
+                    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                }
+                // The whole value has to match, not just a prefix of it
+                ParsePosition position = new ParsePosition(0);
+                Date date = format.parse(value, position);
+                if (date != null && position.getIndex() == value.length()) {
+                    parsed = date.getTime();
+                    break;
+                }
+            }
+        }
+        if (parsed == null) {
+            throw new IllegalArgumentException("Unrecognized date \"" + value + "\"");
+        }
+        if (parsed > now) {
+            throw new IllegalArgumentException("Date \"" + value + "\" is in the future");
+        }
+        return parsed;
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return "";
+        }
+        return record.get(index).trim();
+    }
+}
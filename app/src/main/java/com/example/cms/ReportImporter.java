@@ -0,0 +1,413 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Imports historical reports from a CSV file into an institution.
+ *
+ * The file is streamed with {@link CsvReader} and each record is checked by
+ * {@link ReportImportValidator} as it is read. Valid records are written in
+ * chunks of CHUNK_SIZE reports, one WriteBatch each (header, body and an
+ * initial history entry per report), paced to stay under MAX_WRITES_PER_SECOND
+ * and retried with backoff when Firestore pushes back.
+ *
+ * After every committed chunk the number of records consumed is checkpointed in
+ * SharedPreferences, so a paused, failed or killed import resumes where it
+ * stopped. Report IDs are derived from the import ID and record number, which
+ * makes re-writing a chunk after a crash harmless. Rejected records are
+ * collected in a CSV error report in the app's files directory; its length is
+ * part of the checkpoint, and lines written past it are dropped on resume.
+ */
+public class ReportImporter {
+
+    private static final String TAG = "ReportImporter";
+
+    private static final String PREFS_NAME = "report_import";
+    private static final String KEY_INSTITUTION = "institutionId";
+    private static final String KEY_URI = "uri";
+    private static final String KEY_IMPORT_ID = "importId";
+    private static final String KEY_RECORDS_DONE = "recordsDone";
+    private static final String KEY_IMPORTED = "imported";
+    private static final String KEY_FAILED = "failed";
+    private static final String KEY_ERRORS_LENGTH = "errorsLength";
+
+    // Three writes per report, so a chunk stays under the 500 writes a WriteBatch allows
+    private static final int WRITES_PER_REPORT = 3;
+    private static final int CHUNK_SIZE = 150;
+    // A chunk also ends after this many rejected records, so a file of bad rows is not held in memory
+    private static final int MAX_ERRORS_PER_CHUNK = 500;
+
+    // Firestore's ramp-up guidance starts new write traffic at 500 operations per second
+    private static final int MAX_WRITES_PER_SECOND = 500;
+
+    private static final int MAX_RETRIES = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    // Called on the main thread
+    public interface ProgressListener {
+        void onProgress(int imported, int failed);
+    }
+
+    public static class Summary {
+        private final int imported;
+        private final int failed;
+        private final File errorReport;
+
+        Summary(int imported, int failed, File errorReport) {
+            this.imported = imported;
+            this.failed = failed;
+            this.errorReport = errorReport;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        // The rejected records with their line and reason; only meaningful when getFailed() > 0
+        public File getErrorReport() {
+            return errorReport;
+        }
+    }
+
+    private final Context context;
+    private final FirebaseFirestore db;
+    private final SharedPreferences prefs;
+    private final String institutionId;
+    private final String institutionName;
+    private final String importedBy;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // One import runs at a time; it may outlive the screen that started it
+    private static volatile boolean running = false;
+
+    private volatile boolean cancelled = false;
+
+    // State of the run in progress; only touched by its continuations, one at a time
+    private Uri uri;
+    private String importId;
+    private CsvReader reader;
+    private ReportImportValidator validator;
+    private Writer errorsOut;
+    private int recordsDone;
+    private int imported;
+    private int failed;
+    private long nextCommitAt;
+
+    public ReportImporter(Context context, FirebaseFirestore db, String institutionId,
+                          String institutionName, String importedBy) {
+        this.context = context.getApplicationContext();
+        this.db = db;
+        this.prefs = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.institutionId = institutionId;
+        this.institutionName = institutionName;
+        this.importedBy = importedBy;
+    }
+
+    // The file of an unfinished import into this institution, or null
+    public static Uri getPendingImport(Context context, String institutionId) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String uri = prefs.getString(KEY_URI, null);
+        if (uri == null || !institutionId.equals(prefs.getString(KEY_INSTITUTION, null))) {
+            return null;
+        }
+        return Uri.parse(uri);
+    }
+
+    public static void discardCheckpoint(Context context) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the chunk being written; the run then fails with a CancellationException
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Starts importing a new file, dropping any unfinished import
+    public Task<Summary> start(Uri file, ProgressListener listener) {
+        String previousImportId = prefs.getString(KEY_IMPORT_ID, null);
+        if (previousImportId != null) {
+            new File(context.getFilesDir(), errorReportName(previousImportId)).delete();
+        }
+        prefs.edit()
+                .clear()
+                .putString(KEY_INSTITUTION, institutionId)
+                .putString(KEY_URI, file.toString())
+                .putString(KEY_IMPORT_ID, UUID.randomUUID().toString().substring(0, 8))
+                .commit();
+        return resume(listener);
+    }
+
+    // Continues the unfinished import of this institution from its last checkpoint
+    public Task<Summary> resume(ProgressListener listener) {
+        uri = getPendingImport(context, institutionId);
+        if (uri == null) {
+            return Tasks.forException(new IllegalStateException("No import to resume"));
+        }
+        importId = prefs.getString(KEY_IMPORT_ID, null);
+        recordsDone = prefs.getInt(KEY_RECORDS_DONE, 0);
+        imported = prefs.getInt(KEY_IMPORTED, 0);
+        failed = prefs.getInt(KEY_FAILED, 0);
+        running = true;
+
+        Task<Summary> run = FirestoreUsage.get(db.collection("institutions").document(institutionId))
+                .continueWithTask(ResultPipeline.EXECUTOR, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    open(task.getResult());
+                    return importChunk(listener);
+                });
+
+        return run.continueWith(ResultPipeline.EXECUTOR, task -> {
+            closeQuietly();
+            running = false;
+            if (!task.isSuccessful()) {
+                // A file without the required columns can never be imported; anything
+                // else keeps the checkpoint, so the import can be resumed
+                if (task.getException() instanceof IllegalArgumentException) {
+                    discardCheckpoint(context);
+                }
+                throw task.getException();
+            }
+            discardCheckpoint(context);
+            BacklogCounts.invalidate(institutionId);
+            Log.d(TAG, "Import " + importId + " finished: " + imported + " imported, " + failed + " rejected");
+            return task.getResult();
+        });
+    }
+
+    public File getErrorReport() {
+        return new File(context.getFilesDir(), errorReportName(importId));
+    }
+
+    private static String errorReportName(String importId) {
+        return "import-errors-" + importId + ".csv";
+    }
+
+    // Opens the file, reads its header and skips the records already imported
+    private void open(DocumentSnapshot institution) throws IOException {
+        List<String> roles = (List<String>) institution.get("roles");
+
+        InputStream stream = context.getContentResolver().openInputStream(uri);
+        if (stream == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        reader = new CsvReader(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        validator = new ReportImportValidator(header, roles, System.currentTimeMillis());
+
+        for (int skipped = 0; skipped < recordsDone; skipped++) {
+            if (reader.readRecord() == null) {
+                break;
+            }
+        }
+
+        File errorReport = getErrorReport();
+        FileOutputStream errorsFile = new FileOutputStream(errorReport, true);
+        // Lines of a chunk that was not checkpointed are written again with it
+        long checkpointedLength = prefs.getLong(KEY_ERRORS_LENGTH, 0L);
+        if (errorsFile.getChannel().size() > checkpointedLength) {
+            errorsFile.getChannel().truncate(checkpointedLength);
+        }
+        boolean newReport = errorsFile.getChannel().size() == 0;
+        errorsOut = new OutputStreamWriter(errorsFile, StandardCharsets.UTF_8);
+        if (newReport) {
+            errorsOut.write("line,error,title\r\n");
+        }
+    }
+
+    private Task<Summary> importChunk(ProgressListener listener) throws IOException {
+        if (cancelled) {
+            throw new CancellationException("Import paused");
+        }
+
+        long timestamp = System.currentTimeMillis();
+        // Valid rows by record number, kept so that every commit attempt gets a fresh batch
+        Map<Integer, ReportImportValidator.Row> rows = new LinkedHashMap<>();
+        List<String> errorLines = new ArrayList<>();
+        int records = 0;
+        int reports = 0;
+        boolean endOfFile = false;
+        while (reports < CHUNK_SIZE && errorLines.size() < MAX_ERRORS_PER_CHUNK) {
+            List<String> record = reader.readRecord();
+            if (record == null) {
+                endOfFile = true;
+                break;
+            }
+            records++;
+            int recordNumber = recordsDone + records;
+            try {
+                rows.put(recordNumber, validator.parse(record));
+                reports++;
+            } catch (IllegalArgumentException e) {
+                errorLines.add(reader.getRecordLine() + ","
+                        + ReportExportWriter.csvCell(e.getMessage()) + ","
+                        + ReportExportWriter.csvCell(record.isEmpty() ? "" : record.get(0)) + "\r\n");
+            }
+        }
+
+        int chunkRecords = records;
+        int chunkReports = reports;
+        boolean lastChunk = endOfFile;
+        Task<Void> commit = reports > 0 ? commitPaced(rows, timestamp, 0) : Tasks.forResult(null);
+        return commit.continueWithTask(ResultPipeline.EXECUTOR, done -> {
+            if (!done.isSuccessful()) {
+                throw done.getException();
+            }
+            FirestoreUsage.recordWrites(chunkReports * WRITES_PER_REPORT);
+            for (String line : errorLines) {
+                errorsOut.write(line);
+            }
+            errorsOut.flush();
+
+            recordsDone += chunkRecords;
+            imported += chunkReports;
+            failed += errorLines.size();
+            // Checkpoint only once the chunk is committed
+            prefs.edit()
+                    .putInt(KEY_RECORDS_DONE, recordsDone)
+                    .putInt(KEY_IMPORTED, imported)
+                    .putInt(KEY_FAILED, failed)
+                    .putLong(KEY_ERRORS_LENGTH, getErrorReport().length())
+                    .commit();
+
+            int importedSoFar = imported;
+            int failedSoFar = failed;
+            mainHandler.post(() -> listener.onProgress(importedSoFar, failedSoFar));
+
+            if (lastChunk) {
+                return Tasks.forResult(new Summary(imported, failed, getErrorReport()));
+            }
+            return importChunk(listener);
+        });
+    }
+
+    private void addReport(WriteBatch batch, ReportImportValidator.Row row, int recordNumber, long timestamp) {
+        // The same record always gets the same ID, so a chunk written twice is not duplicated
+        DocumentReference reportRef = db.collection("reports").document("import-" + importId + "-" + recordNumber);
+
+        Map<String, Object> header = new HashMap<>();
+        header.put("institutionId", institutionId);
+        header.put("institutionName", institutionName);
+        header.put("userRole", row.getRole());
+        header.put("title", row.getTitle());
+        header.put("status", row.getStatus());
+        header.put("createdAt", row.getCreatedAt());
+        // The import time, so managers' local mirrors pick the report up
+        header.put("updatedAt", timestamp);
+        ReportMirror.stampUpdated(header);
+        header.put("importId", importId);
+        header.put("importedBy", importedBy);
+        DuplicateReports.putSignature(header, NearDuplicates.signature(row.getTitle(), row.getDescription()),
+                ReportAssignment.isOpen(row.getStatus()));
+        batch.set(reportRef, header);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("description", row.getDescription());
+        body.put("managerResponse", row.getResponse());
+        body.put("updatedAt", timestamp);
+        batch.set(ReportBodies.reference(db, reportRef.getId()), body);
+
+        batch.set(reportRef.collection(ReportHistory.SUBCOLLECTION).document("import"),
+                ReportHistory.entry(null, row.getStatus(), importedBy, timestamp, null, "Imported"));
+    }
+
+    // Commits no faster than MAX_WRITES_PER_SECOND, retrying with backoff when Firestore is overloaded
+    private Task<Void> commitPaced(Map<Integer, ReportImportValidator.Row> rows, long timestamp, int attempt) {
+        long wait = Math.max(0, nextCommitAt - SystemClock.elapsedRealtime());
+        return delay(wait).continueWithTask(ResultPipeline.EXECUTOR, ready -> {
+            int writes = rows.size() * WRITES_PER_REPORT;
+            nextCommitAt = SystemClock.elapsedRealtime() + writes * 1000L / MAX_WRITES_PER_SECOND;
+            // A committed batch cannot be committed again, so each attempt builds its own
+            WriteBatch batch = db.batch();
+            for (Map.Entry<Integer, ReportImportValidator.Row> row : rows.entrySet()) {
+                addReport(batch, row.getValue(), row.getKey(), timestamp);
+            }
+            return batch.commit();
+        }).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (task.isSuccessful() || attempt >= MAX_RETRIES || !isRetryable(task.getException())) {
+                return task;
+            }
+            long backoff = INITIAL_BACKOFF_MILLIS << attempt;
+            Log.w(TAG, "Import batch failed, retrying in " + backoff + " ms", task.getException());
+            nextCommitAt = SystemClock.elapsedRealtime() + backoff;
+            return commitPaced(rows, timestamp, attempt + 1);
+        });
+    }
+
+    private static boolean isRetryable(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) {
+            return false;
+        }
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED
+                || code == FirebaseFirestoreException.Code.UNAVAILABLE
+                || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED
+                || code == FirebaseFirestoreException.Code.ABORTED;
+    }
+
+    private Task<Void> delay(long millis) {
+        if (millis <= 0) {
+            return Tasks.forResult(null);
+        }
+        TaskCompletionSource<Void> source = new TaskCompletionSource<>();
+        mainHandler.postDelayed(() -> source.trySetResult(null), millis);
+        return source.getTask();
+    }
+
+    private void closeQuietly() {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+            if (errorsOut != null) {
+                errorsOut.close();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing import files", e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.cms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact in-memory index over one institution's reports.
+ *
+ * Each report is a position in parallel primitive arrays (createdAt, status code,
+ * role id, assignee id, merged flag) plus a few pooled strings, instead of a full DocumentSnapshot. Sorting
+ * happens once; changing the sort order or the status/role filter is then a single
+ * pass over the arrays with no network call.
+ */
+public final class ReportIndex {
+
+    // Matches every status or role in select()
+    public static final int ANY = -1;
+
+    // Returned by roleId() and assigneeId() for a value no report has
+    public static final int NO_MATCH = -2;
+
+    public static final byte STATUS_UNKNOWN = 0;
+    public static final byte STATUS_PENDING = 1;
+    public static final byte STATUS_INVESTIGATING = 2;
+    public static final byte STATUS_VERIFIED = 3;
+    public static final byte STATUS_REJECTED = 4;
+
+    private static final String[] STATUS_NAMES = {
+            null, "pending", "investigating", "verified", "rejected"
+    };
+
+    private int size;
+    private String[] reportIds;
+    private String[] titles;
+    private String[] userIds;
+    private long[] createdAt;
+    private byte[] statuses;
+    private int[] roleIds;
+    private int[] assigneeIds;
+    private boolean[] merged;
+
+    // Role names by id; null is a valid role for reports submitted without one
+    private final List<String> roleNames = new ArrayList<>();
+    private final Map<String, Integer> roleLookup = new HashMap<>();
+
+    // Assigned manager IDs by id; null means unassigned
+    private final List<String> assigneeNames = new ArrayList<>();
+    private final Map<String, Integer> assigneeLookup = new HashMap<>();
+
+    // Position of each report ID
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    // Shares one instance of each repeated string (user IDs mostly)
+    private final Map<String, String> stringPool = new HashMap<>();
+
+    // Positions ordered newest first, rebuilt lazily after add()
+    private int[] newestFirst;
+
+    public ReportIndex(int expectedSize) {
+        int capacity = Math.max(expectedSize, 8);
+        reportIds = new String[capacity];
+        titles = new String[capacity];
+        userIds = new String[capacity];
+        createdAt = new long[capacity];
+        statuses = new byte[capacity];
+        roleIds = new int[capacity];
+        assigneeIds = new int[capacity];
+        merged = new boolean[capacity];
+    }
+
+    public void add(String reportId, String title, String userId, String userRole,
+                    String status, long reportCreatedAt) {
+        add(reportId, title, userId, userRole, status, reportCreatedAt, null);
+    }
+
+    public void add(String reportId, String title, String userId, String userRole,
+                    String status, long reportCreatedAt, String assignedTo) {
+        add(reportId, title, userId, userRole, status, reportCreatedAt, assignedTo, null);
+    }
+
+    // duplicateOf is the report a merged duplicate was merged into, null for other reports
+    public void add(String reportId, String title, String userId, String userRole,
+                    String status, long reportCreatedAt, String assignedTo, String duplicateOf) {
+        if (size == reportIds.length) {
+            grow();
+        }
+        reportIds[size] = reportId;
+        positions.put(reportId, size);
+        titles[size] = title;
+        userIds[size] = intern(userId);
+        createdAt[size] = reportCreatedAt;
+        statuses[size] = statusCode(status);
+        roleIds[size] = register(userRole, roleNames, roleLookup);
+        assigneeIds[size] = register(assignedTo, assigneeNames, assigneeLookup);
+        merged[size] = duplicateOf != null;
+        size++;
+        newestFirst = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the positions of reports matching the status code and role id
+     * (either may be {@link #ANY}) ordered by createdAt.
+     */
+    public int[] select(int statusCode, int roleId, boolean newestFirstOrder) {
+        return select(statusCode, roleId, ANY, newestFirstOrder);
+    }
+
+    // As above, also filtered by assignee id (see assigneeId())
+    public int[] select(int statusCode, int roleId, int assigneeId, boolean newestFirstOrder) {
+        int[] order = sortedOrder();
+        int[] matches = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int position = newestFirstOrder ? order[i] : order[size - 1 - i];
+            if (matches(position, statusCode, roleId, assigneeId)) {
+                matches[count++] = position;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public boolean matches(int position, int statusCode, int roleId, int assigneeId) {
+        return (statusCode == ANY || statuses[position] == statusCode)
+                && (roleId == ANY || roleIds[position] == roleId)
+                && (assigneeId == ANY || assigneeIds[position] == assigneeId);
+    }
+
+    // The report's position, or -1 when it is not in the index
+    public int positionOf(String reportId) {
+        Integer position = positions.get(reportId);
+        return position != null ? position : -1;
+    }
+
+    public int roleId(String role) {
+        Integer id = roleLookup.get(role);
+        return id != null ? id : NO_MATCH;
+    }
+
+    // Pass null for the id matching unassigned reports
+    public int assigneeId(String managerId) {
+        Integer id = assigneeLookup.get(managerId);
+        return id != null ? id : NO_MATCH;
+    }
+
+    public Set<String> distinctUserIds() {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (userIds[i] != null) {
+                result.add(userIds[i]);
+            }
+        }
+        return result;
+    }
+
+    // Roles present in the index, in first-seen order, without the null role
+    public List<String> getRoles() {
+        List<String> roles = new ArrayList<>();
+        for (String role : roleNames) {
+            if (role != null) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    public String getReportId(int position) {
+        return reportIds[position];
+    }
+
+    public String getTitle(int position) {
+        return titles[position];
+    }
+
+    public String getUserId(int position) {
+        return userIds[position];
+    }
+
+    public String getUserRole(int position) {
+        return roleNames.get(roleIds[position]);
+    }
+
+    public String getAssignedTo(int position) {
+        return assigneeNames.get(assigneeIds[position]);
+    }
+
+    public String getStatus(int position) {
+        return STATUS_NAMES[statuses[position]];
+    }
+
+    public long getCreatedAt(int position) {
+        return createdAt[position];
+    }
+
+    // Merged duplicates are stored as rejected, but were never judged on their own
+    public boolean isMerged(int position) {
+        return merged[position];
+    }
+
+    public static byte statusCode(String status) {
+        if (status == null) {
+            return STATUS_UNKNOWN;
+        }
+        switch (status.toLowerCase()) {
+            case "pending":
+                return STATUS_PENDING;
+            case "investigating":
+                return STATUS_INVESTIGATING;
+            case "verified":
+                return STATUS_VERIFIED;
+            case "rejected":
+                return STATUS_REJECTED;
+            default:
+                return STATUS_UNKNOWN;
+        }
+    }
+
+    private int register(String value, List<String> names, Map<String, Integer> lookup) {
+        Integer id = lookup.get(value);
+        if (id == null) {
+            id = names.size();
+            names.add(intern(value));
+            lookup.put(value, id);
+        }
+        return id;
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = stringPool.get(value);
+        if (pooled == null) {
+            stringPool.put(value, value);
+            pooled = value;
+        }
+        return pooled;
+    }
+
+    private void grow() {
+        int capacity = reportIds.length * 2;
+        reportIds = Arrays.copyOf(reportIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        roleIds = Arrays.copyOf(roleIds, capacity);
+        assigneeIds = Arrays.copyOf(assigneeIds, capacity);
+        merged = Arrays.copyOf(merged, capacity);
+    }
+
+    private int[] sortedOrder() {
+        if (newestFirst == null) {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+            newestFirst = order;
+        }
+        return newestFirst;
+    }
+
+    // Stable merge sort of positions by createdAt descending, without boxing
+    private void mergeSort(int[] order, int[] scratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, scratch, from, middle);
+        mergeSort(order, scratch, middle, to);
+
+        int left = from;
+        int right = middle;
+        int out = from;
+        while (left < middle && right < to) {
+            if (createdAt[order[right]] > createdAt[order[left]]) {
+                scratch[out++] = order[right++];
+            } else {
+                scratch[out++] = order[left++];
+            }
+        }
+        while (left < middle) {
+            scratch[out++] = order[left++];
+        }
+        while (right < to) {
+            scratch[out++] = order[right++];
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+    }
+}
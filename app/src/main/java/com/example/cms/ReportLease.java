@@ -0,0 +1,105 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time-limited claims on a report (claimedBy, claimExpiresAt on the header), so
+ * two managers don't work the same report. A claim that was not released, e.g.
+ * because the app was killed, simply runs out after {@link #LEASE_MILLIS}.
+ *
+ * Claiming does not touch updatedAt: claims are checked live when a report is
+ * opened, and the local report mirrors don't need to sync them.
+ */
+public final class ReportLease {
+
+    public static final long LEASE_MILLIS = 15 * 60 * 1000;
+
+    public static class Claim {
+        private final boolean granted;
+        private final String holderId;
+        private final long expiresAt;
+
+        Claim(boolean granted, String holderId, long expiresAt) {
+            this.granted = granted;
+            this.holderId = holderId;
+            this.expiresAt = expiresAt;
+        }
+
+        public boolean isGranted() {
+            return granted;
+        }
+
+        public String getHolderId() {
+            return holderId;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    private ReportLease() {
+    }
+
+    // Claims the report for userId unless another manager holds an unexpired claim; renews our own
+    public static Task<Claim> claim(FirebaseFirestore db, String reportId, String userId) {
+        DocumentReference reportRef = db.collection("reports").document(reportId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot report = FirestoreUsage.get(transaction, reportRef);
+            long now = System.currentTimeMillis();
+            String holderId = report.getString("claimedBy");
+            Long expiresAt = report.getLong("claimExpiresAt");
+            if (holderId != null && !holderId.equals(userId) && expiresAt != null && expiresAt > now) {
+                return new Claim(false, holderId, expiresAt);
+            }
+
+            long newExpiry = now + LEASE_MILLIS;
+            transaction.update(reportRef, "claimedBy", userId, "claimExpiresAt", newExpiry);
+            return new Claim(true, userId, newExpiry);
+        }).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            if (task.getResult().isGranted()) {
+                FirestoreUsage.recordWrites(1);
+            }
+            return task.getResult();
+        });
+    }
+
+    // Drops the claim if userId still holds it
+    public static Task<Void> release(FirebaseFirestore db, String reportId, String userId) {
+        DocumentReference reportRef = db.collection("reports").document(reportId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot report = FirestoreUsage.get(transaction, reportRef);
+            if (userId.equals(report.getString("claimedBy"))) {
+                Map<String, Object> release = new HashMap<>();
+                clearInto(release);
+                transaction.update(reportRef, release);
+                return true;
+            }
+            return false;
+        }).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            if (task.getResult()) {
+                FirestoreUsage.recordWrites(1);
+            }
+            return null;
+        });
+    }
+
+    // Adds the fields that release a claim to a header update the holder is writing anyway
+    public static void clearInto(Map<String, Object> headerWrite) {
+        headerWrite.put("claimedBy", FieldValue.delete());
+        headerWrite.put("claimExpiresAt", FieldValue.delete());
+    }
+}
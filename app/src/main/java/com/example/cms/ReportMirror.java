@@ -0,0 +1,258 @@
+package com.example.cms;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-device Room mirror of the report headers of the institutions a manager
+ * opens. Every header write is stamped with its server commit time
+ * ({@link #stampUpdated}), and sync() only downloads reports stamped at or past
+ * the institution's watermark, so after the first sync it costs a handful of
+ * reads.
+ * Everything else runs against the local table and works offline: screens
+ * load an institution's rows once and filter and sort them in a
+ * {@link ReportIndex}, and counts run as indexed SQL ({@link ReportFilter}).
+ *
+ * All database work runs on the {@link ResultPipeline} pool; sync() must be
+ * called from the main thread.
+ */
+public class ReportMirror {
+
+    private static final String TAG = "ReportMirror";
+
+    private static final int PAGE_SIZE = 500;
+
+    // Set by Firestore when a header write commits; writers' own updatedAt follows their clock
+    public static final String SERVER_UPDATED_AT = "updatedAtServer";
+
+    private static ReportMirror instance;
+
+    private final ReportDatabase database;
+    private final ReportDao dao;
+    private final FirebaseFirestore db;
+
+    // Syncs in progress by institution, so two screens share one download
+    private final Map<String, Task<Integer>> inFlight = new HashMap<>();
+
+    private ReportMirror(Context context) {
+        database = ReportDatabase.getInstance(context);
+        dao = database.reportDao();
+        db = FirebaseFirestore.getInstance();
+    }
+
+    public static synchronized ReportMirror getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReportMirror(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Stamps a report header write with the time Firestore commits it
+    public static void stampUpdated(Map<String, Object> header) {
+        header.put(SERVER_UPDATED_AT, FieldValue.serverTimestamp());
+    }
+
+    // Server commit time of a header's last write in millis; 0 for headers written before it was stamped
+    public static long serverUpdatedAt(DocumentSnapshot report) {
+        Timestamp updated = report.getTimestamp(SERVER_UPDATED_AT);
+        return updated != null ? updated.toDate().getTime() : 0L;
+    }
+
+    // Completes with the number of reports that changed since the last sync
+    public Task<Integer> sync(String institutionId) {
+        Task<Integer> running = inFlight.get(institutionId);
+        if (running != null) {
+            return running;
+        }
+
+        Task<Integer> task = Tasks.call(ResultPipeline.EXECUTOR, () -> dao.getSyncState(institutionId))
+                .continueWithTask(ResultPipeline.EXECUTOR, state -> {
+                    if (!state.isSuccessful()) {
+                        throw state.getException();
+                    }
+                    if (state.getResult() == null) {
+                        return copyAll(institutionId);
+                    }
+                    return syncPage(institutionId, state.getResult().watermark, null, 0);
+                });
+
+        inFlight.put(institutionId, task);
+        task.addOnCompleteListener(done -> inFlight.remove(institutionId));
+        return task;
+    }
+
+    private Query reports(String institutionId) {
+        return db.collection("reports").whereEqualTo("institutionId", institutionId);
+    }
+
+    /**
+     * The first sync copies every report by ID, since headers written before
+     * they were stamped never match a query on {@link #SERVER_UPDATED_AT}. The
+     * newest stamp is read first and becomes the watermark: a report written
+     * while the pages are copied is stamped at or after it, so the next sync
+     * picks it up.
+     */
+    private Task<Integer> copyAll(String institutionId) {
+        Query newest = reports(institutionId)
+                .orderBy(SERVER_UPDATED_AT, Query.Direction.DESCENDING)
+                .limit(1);
+        return FirestoreUsage.get(newest).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<DocumentSnapshot> documents = task.getResult().getDocuments();
+            long watermark = documents.isEmpty() ? 0L : serverUpdatedAt(documents.get(0));
+            return copyPage(institutionId, watermark, null, 0);
+        });
+    }
+
+    private Task<Integer> copyPage(String institutionId, long watermark, DocumentSnapshot cursor, int copied) {
+        Query page = reports(institutionId)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        if (cursor != null) {
+            page = page.startAfter(cursor);
+        }
+
+        return FirestoreUsage.get(page).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            QuerySnapshot snapshot = task.getResult();
+            boolean lastPage = snapshot.size() < PAGE_SIZE;
+            // The watermark is only saved once every page is copied, so an interrupted
+            // copy starts over, and never from the cache, which may miss reports
+            boolean complete = lastPage && !snapshot.getMetadata().isFromCache();
+            store(institutionId, snapshot, complete ? watermark : null);
+
+            int total = copied + snapshot.size();
+            if (lastPage) {
+                Log.d(TAG, "Copied " + institutionId + ": " + total + " reports");
+                return Tasks.forResult(total);
+            }
+            return copyPage(institutionId, watermark,
+                    snapshot.getDocuments().get(snapshot.size() - 1), total);
+        });
+    }
+
+    private Task<Integer> syncPage(String institutionId, long watermark, DocumentSnapshot cursor, int changed) {
+        // Server commit times, so writes queued offline or made on a device with a wrong
+        // clock are never ordered before the watermark; >= keeps reports committed in
+        // the same millisecond as the watermark
+        Query page = reports(institutionId)
+                .whereGreaterThanOrEqualTo(SERVER_UPDATED_AT, new Timestamp(new Date(watermark)))
+                .orderBy(SERVER_UPDATED_AT)
+                .limit(PAGE_SIZE);
+        if (cursor != null) {
+            page = page.startAfter(cursor);
+        }
+
+        return FirestoreUsage.get(page).continueWithTask(ResultPipeline.EXECUTOR, task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            QuerySnapshot snapshot = task.getResult();
+
+            long newWatermark = watermark;
+            int pageChanged = 0;
+            for (DocumentSnapshot document : snapshot.getDocuments()) {
+                long updatedAt = serverUpdatedAt(document);
+                newWatermark = Math.max(newWatermark, updatedAt);
+                if (updatedAt > watermark) {
+                    pageChanged++;
+                }
+            }
+            // Cached results may lack reports the server has; keep them, but do not move past them
+            store(institutionId, snapshot, snapshot.getMetadata().isFromCache() ? null : newWatermark);
+
+            int total = changed + pageChanged;
+            if (snapshot.size() < PAGE_SIZE) {
+                Log.d(TAG, "Synced " + institutionId + ": " + total + " changed");
+                return Tasks.forResult(total);
+            }
+            return syncPage(institutionId, watermark,
+                    snapshot.getDocuments().get(snapshot.size() - 1), total);
+        });
+    }
+
+    // Upserts a page of reports, and saves the watermark with them unless it is null
+    private void store(String institutionId, QuerySnapshot snapshot, Long watermark) {
+        List<ReportEntity> entities = new ArrayList<>();
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            // Keep the loaded report so ManageReportActivity can render it immediately
+            EntityStore.put(document);
+            entities.add(ReportEntity.fromSnapshot(document));
+        }
+
+        database.runInTransaction(() -> {
+            dao.upsertAll(entities);
+            if (watermark != null) {
+                SyncState state = new SyncState();
+                state.institutionId = institutionId;
+                state.watermark = watermark;
+                state.lastSyncedAt = System.currentTimeMillis();
+                dao.putSyncState(state);
+            }
+        });
+    }
+
+    // All mirrored reports of an institution, newest first
+    public Task<List<ReportEntity>> load(String institutionId) {
+        return Tasks.call(ResultPipeline.EXECUTOR, () -> dao.getForInstitution(institutionId));
+    }
+
+    // Synchronous variants for code already running on the pipeline pool
+    public int countNow(ReportFilter filter) {
+        return dao.count(filter.toCount());
+    }
+
+    public Map<String, Integer> countByStatusNow(String institutionId) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (ReportDao.StatusCount row : dao.countByStatus(institutionId)) {
+            if (row.status != null) {
+                counts.put(row.status.toLowerCase(), row.count);
+            }
+        }
+        return counts;
+    }
+
+    public Task<Void> remove(List<String> reportIds) {
+        return Tasks.call(ResultPipeline.EXECUTOR, () -> {
+            dao.deleteAll(reportIds);
+            return null;
+        });
+    }
+
+    // Drops the resolved reports the institution archived before the given time;
+    // archiving deletes headers, which a watermark sync never sees
+    public Task<Integer> pruneArchived(String institutionId, long archivedBefore) {
+        return Tasks.call(ResultPipeline.EXECUTOR, () -> dao.deleteArchived(institutionId, archivedBefore));
+    }
+
+    // Drops everything, e.g. on sign-out
+    public Task<Void> clear() {
+        return Tasks.call(ResultPipeline.EXECUTOR, () -> {
+            database.runInTransaction(() -> {
+                dao.clearReports();
+                dao.clearSyncState();
+            });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.cms;
+
+import android.graphics.Color;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Ready-to-bind display model for one report card, built on the
+ * {@link ResultPipeline} pool so binding on the main thread is just setText().
+ */
+public class ReportRow {
+
+    private final String reportId;
+    private final String title;
+    private final String userId;
+    private final String userRole;
+    private final String status;
+    private final String statusLabel;
+    private final int statusColor;
+    private final String dateLabel;
+    private final long createdAt;
+    private final String description;
+    private final String managerResponse;
+
+    // Filled in once the submitter has been resolved
+    private String submittedBy;
+
+    // Filled in for lists that mix institutions
+    private String institutionName;
+
+    public ReportRow(String reportId, String title, String userId, String userRole, String status,
+                     Long createdAt, String description, String managerResponse,
+                     SimpleDateFormat dateFormat) {
+        this.reportId = reportId;
+        this.title = title != null ? title : "Untitled Report";
+        this.userId = userId;
+        this.userRole = userRole;
+        this.status = status;
+        this.statusLabel = "Status: " + capitalize(status);
+        this.statusColor = statusColor(status);
+        this.dateLabel = createdAt != null ? dateFormat.format(new Date(createdAt)) : "Unknown Date";
+        this.createdAt = createdAt != null ? createdAt : 0L;
+        this.description = description;
+        this.managerResponse = managerResponse;
+    }
+
+    public String getReportId() {
+        return reportId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUserRole() {
+        return userRole;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStatusLabel() {
+        return statusLabel;
+    }
+
+    public int getStatusColor() {
+        return statusColor;
+    }
+
+    public String getDateLabel() {
+        return dateLabel;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getManagerResponse() {
+        return managerResponse;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public void setSubmittedBy(String submittedBy) {
+        this.submittedBy = submittedBy;
+    }
+
+    public String getInstitutionName() {
+        return institutionName;
+    }
+
+    public void setInstitutionName(String institutionName) {
+        this.institutionName = institutionName;
+    }
+
+    public static String capitalize(String status) {
+        if (status == null || status.isEmpty()) {
+            return "Unknown";
+        }
+        return status.substring(0, 1).toUpperCase() + status.substring(1);
+    }
+
+    public static int statusColor(String status) {
+        if (status == null) {
+            return Color.parseColor("#757575"); // Gray for unknown
+        }
+        switch (status.toLowerCase()) {
+            case "pending":
+                return Color.parseColor("#FF9800"); // Orange
+            case "investigating":
+                return Color.parseColor("#2196F3"); // Blue
+            case "verified":
+                return Color.parseColor("#4CAF50"); // Green
+            case "rejected":
+                return Color.parseColor("#F44336"); // Red
+            default:
+                return Color.parseColor("#757575"); // Gray
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.cms;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.app.TaskStackBuilder;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Periodic background sync of the signed-in user's own reports, so they hear
+ * about status changes and manager responses without reopening their lists.
+ *
+ * Only reports whose server commit time ({@link ReportMirror#SERVER_UPDATED_AT})
+ * is at or past the stored watermark are read, so a check with nothing new
+ * costs a single empty query, and a manager's update made offline or on a
+ * device with a wrong clock is still seen. {@link ReportChanges}
+ * remembers what was last seen of each report and decides what is worth a
+ * notification. The very first sync only records the current state.
+ */
+public class ReportUpdatesWorker extends Worker {
+
+    private static final String TAG = "ReportUpdates";
+
+    private static final String WORK_NAME = "report_updates";
+    private static final String PREFS_NAME = "report_updates";
+    private static final String KEY_WATERMARK = "serverWatermark";
+    // Watermark on the writers' clocks saved by earlier versions; replaced by a full resync
+    private static final String KEY_LEGACY_WATERMARK = "watermark";
+    private static final String KEY_SEEN = "seen";
+
+    private static final String CHANNEL_ID = "report_updates";
+    private static final String GROUP_KEY = "com.example.cms.REPORT_UPDATES";
+    private static final int NOTIFICATION_ID = 2;
+    private static final int SUMMARY_NOTIFICATION_ID = 3;
+
+    private static final long CHECK_INTERVAL_HOURS = 1;
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final int PAGE_SIZE = 100;
+    private static final long SEEN_RETENTION_DAYS = 30;
+
+    public ReportUpdatesWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // Keeps an already scheduled sync, so calling this on every dashboard visit is cheap
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ReportUpdatesWorker.class, CHECK_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    // Called on sign-out: stops the sync and forgets the watermark
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        // Nothing could be shown; the changes are picked up once notifications are allowed
+        if (user == null || !NotificationManagerCompat.from(getApplicationContext()).areNotificationsEnabled()) {
+            return Result.success();
+        }
+
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        // After the legacy watermark every stamped report is read again; the seen set
+        // keeps the ones already announced quiet
+        boolean firstSync = !prefs.contains(KEY_WATERMARK) && !prefs.contains(KEY_LEGACY_WATERMARK);
+        long watermark = prefs.getLong(KEY_WATERMARK, 0L);
+        ReportChanges seen = new ReportChanges(prefs.getStringSet(KEY_SEEN, null));
+
+        try {
+            // Firestore settings must be applied before the first query
+            Tasks.await(AppStartup.whenReady(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+
+            List<DocumentSnapshot> changed = new ArrayList<>();
+            List<ReportChanges.Change> changes = new ArrayList<>();
+            long newWatermark = watermark;
+            DocumentSnapshot cursor = null;
+            QuerySnapshot page;
+            do {
+                // >= so reports updated in the same millisecond as the watermark are not missed;
+                // ReportChanges ignores the ones already seen
+                Query query = db.collection("reports")
+                        .whereEqualTo("userId", user.getUid())
+                        .whereGreaterThanOrEqualTo(ReportMirror.SERVER_UPDATED_AT, new Timestamp(new Date(watermark)))
+                        .orderBy(ReportMirror.SERVER_UPDATED_AT)
+                        .limit(PAGE_SIZE);
+                if (cursor != null) {
+                    query = query.startAfter(cursor);
+                }
+                page = Tasks.await(FirestoreUsage.get(query), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                // Cached results may lack changes the server has; never move the watermark past them
+                if (page.getMetadata().isFromCache()) {
+                    return Result.retry();
+                }
+
+                for (DocumentSnapshot report : page.getDocuments()) {
+                    long updatedAt = ReportMirror.serverUpdatedAt(report);
+                    newWatermark = Math.max(newWatermark, updatedAt);
+                    ReportChanges.Change change = seen.record(report.getId(), report.getString("status"),
+                            report.getLong("responseUpdatedAt"), updatedAt);
+                    if (change != null && !firstSync) {
+                        changed.add(report);
+                        changes.add(change);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    cursor = page.getDocuments().get(page.size() - 1);
+                }
+            } while (page.size() == PAGE_SIZE);
+
+            if (!changes.isEmpty()) {
+                notifyChanges(changed, changes);
+            }
+            // Resolved reports untouched for a while are only synced again if they change
+            seen.prune(newWatermark - TimeUnit.DAYS.toMillis(SEEN_RETENTION_DAYS));
+            // Saved after notifying, so a crash in between announces again rather than never
+            prefs.edit()
+                    .remove(KEY_LEGACY_WATERMARK)
+                    .putLong(KEY_WATERMARK, newWatermark)
+                    .putStringSet(KEY_SEEN, seen.toSet())
+                    .apply();
+            Log.d(TAG, "Synced to " + newWatermark + ", " + changes.size() + " changed");
+            return Result.success();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Report sync failed", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private void notifyChanges(List<DocumentSnapshot> reports, List<ReportChanges.Change> changes) {
+        Context context = getApplicationContext();
+        createChannel(context);
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+
+        try {
+            for (int i = 0; i < changes.size(); i++) {
+                DocumentSnapshot report = reports.get(i);
+                ReportChanges.Change change = changes.get(i);
+                String title = report.getString("title");
+
+                String text;
+                if (change.isStatusChanged() && change.isNewResponse()) {
+                    text = "Now " + ReportRow.capitalize(change.getStatus()) + ", with a response from the manager";
+                } else if (change.isStatusChanged()) {
+                    text = "Status changed to " + ReportRow.capitalize(change.getStatus());
+                } else {
+                    text = "The manager responded";
+                }
+
+                NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                        .setSmallIcon(android.R.drawable.stat_notify_chat)
+                        .setContentTitle(title != null ? title : "Your report")
+                        .setContentText(text)
+                        .setGroup(GROUP_KEY)
+                        .setContentIntent(openReports(context, report.getString("institutionId"),
+                                report.getString("institutionName")))
+                        .setAutoCancel(true);
+                // One notification per report, replaced by its next change
+                manager.notify(change.getReportId(), NOTIFICATION_ID, builder.build());
+            }
+
+            if (changes.size() > 1) {
+                manager.notify(SUMMARY_NOTIFICATION_ID, new NotificationCompat.Builder(context, CHANNEL_ID)
+                        .setSmallIcon(android.R.drawable.stat_notify_chat)
+                        .setContentTitle(changes.size() + " reports were updated")
+                        .setGroup(GROUP_KEY)
+                        .setGroupSummary(true)
+                        .setAutoCancel(true)
+                        .build());
+            }
+        } catch (SecurityException e) {
+            // The notification permission was revoked while the sync was running
+            Log.w(TAG, "Not allowed to post notifications", e);
+        }
+    }
+
+    private static PendingIntent openReports(Context context, String institutionId, String institutionName) {
+        Intent intent = new Intent(context, ViewMyReportsActivity.class);
+        intent.putExtra("institutionId", institutionId);
+        intent.putExtra("institutionName", institutionName);
+
+        // Back from the report list returns to the dashboard
+        return TaskStackBuilder.create(context)
+                .addNextIntent(new Intent(context, UserDashboardActivity.class))
+                .addNextIntent(intent)
+                .getPendingIntent(institutionId != null ? institutionId.hashCode() : 0,
+                        PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private static void createChannel(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        context.getSystemService(NotificationManager.class).createNotificationChannel(
+                new NotificationChannel(CHANNEL_ID, "Report updates", NotificationManager.IMPORTANCE_DEFAULT));
+    }
+}
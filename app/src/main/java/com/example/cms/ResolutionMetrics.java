@@ -0,0 +1,86 @@
+package com.example.cms;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-institution SLA metrics in institutionMetrics/{institutionId}: one
+ * {@link DurationSketch} for the time from submission to a manager's first
+ * update (firstResponse) and one for the time to the first verified/rejected
+ * status (resolution). Samples are added with increments in the same write as
+ * the report update, so percentiles are read from a single document.
+ */
+public final class ResolutionMetrics {
+
+    public static final String COLLECTION = "institutionMetrics";
+
+    public static final String FIRST_RESPONSE = "firstResponse";
+    public static final String RESOLUTION = "resolution";
+
+    private ResolutionMetrics() {
+    }
+
+    public static DocumentReference reference(FirebaseFirestore db, String institutionId) {
+        return db.collection(COLLECTION).document(institutionId);
+    }
+
+    // Adds one sample to a metric of a set(..., SetOptions.merge()) update
+    public static void addSample(Map<String, Object> update, String metric, long millis) {
+        addSamples(update, metric, Collections.singletonList(millis));
+    }
+
+    // Adds several samples to a metric of one update, e.g. for reports closed together
+    public static void addSamples(Map<String, Object> update, String metric, List<Long> millis) {
+        if (millis.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> buckets = new HashMap<>();
+        for (long sample : millis) {
+            buckets.merge(DurationSketch.bucketOf(sample), 1, Integer::sum);
+        }
+        Map<String, Object> sketch = new HashMap<>();
+        for (Map.Entry<Integer, Integer> bucket : buckets.entrySet()) {
+            sketch.put(DurationSketch.BUCKET_PREFIX + bucket.getKey(), FieldValue.increment(bucket.getValue()));
+        }
+        sketch.put("count", FieldValue.increment(millis.size()));
+        update.put(metric, sketch);
+    }
+
+    // Completes with the sketches by metric name; empty sketches when nothing was recorded yet
+    public static Task<Map<String, DurationSketch>> load(FirebaseFirestore db, String institutionId) {
+        return FirestoreUsage.get(reference(db, institutionId)).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            Map<String, DurationSketch> sketches = new HashMap<>();
+            for (String metric : new String[] {FIRST_RESPONSE, RESOLUTION}) {
+                sketches.put(metric, DurationSketch.fromMap(
+                        (Map<String, Object>) task.getResult().get(metric)));
+            }
+            return sketches;
+        });
+    }
+
+    // e.g. "45m", "3h 20m", "2d 4h"
+    public static String formatDuration(long millis) {
+        if (millis < 0) {
+            return "-";
+        }
+        long minutes = millis / 60000;
+        if (minutes < 60) {
+            return Math.max(minutes, 1) + "m";
+        }
+        long hours = minutes / 60;
+        if (hours < 24) {
+            return hours + "h " + (minutes % 60) + "m";
+        }
+        return (hours / 24) + "d " + (hours % 24) + "h";
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cms;
+
+import android.os.Process;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the transforms on Firestore results (snapshot iteration, field extraction,
+ * sorting, filtering, date formatting) on a small fixed background pool, so
+ * only ready-to-bind display models reach the main thread.
+ *
+ * Usage: scope.bind(ResultPipeline.map(FirestoreUsage.get(query), snapshot -> buildRows(snapshot)))
+ *            .addOnSuccessListener(rows -> show(rows));
+ */
+public final class ResultPipeline {
+
+    private static final int THREADS = 2;
+
+    public interface Transform<T, R> {
+        R apply(T input) throws Exception;
+    }
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Two threads over an unbounded queue. Work is submitted from main-thread
+     * listeners, so it must never run on the caller: a full queue would put the
+     * transform (and any Room access in it) back on the main thread.
+     */
+    public static final Executor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "cms-results-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        ((ThreadPoolExecutor) EXECUTOR).allowCoreThreadTimeOut(true);
+    }
+
+    private ResultPipeline() {
+    }
+
+    // Transforms a successful result on the background pool; failures pass straight through,
+    // and a cancelled source (e.g. bound to a destroyed screen by TaskScope) skips the transform
+    public static <T, R> Task<R> map(Task<T> source, Transform<T, R> transform) {
+        return source.continueWithTask(EXECUTOR, task -> {
+            if (task.isCanceled()) {
+                return Tasks.forCanceled();
+            }
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return Tasks.forResult(transform.apply(task.getResult()));
+        });
+    }
+
+    // Like map, but the transform starts further asynchronous work
+    public static <T, R> Task<R> flatMap(Task<T> source, Transform<T, Task<R>> transform) {
+        return source.continueWithTask(EXECUTOR, task -> {
+            if (task.isCanceled()) {
+                return Tasks.forCanceled();
+            }
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return transform.apply(task.getResult());
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.cms;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.app.TaskStackBuilder;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Periodic background check for reports left pending too long in the
+ * institutions the signed-in user manages.
+ *
+ * Each institution costs one indexed query (institutionId, status == pending,
+ * createdAt before the first escalation level, oldest first), so the check only
+ * reads overdue reports, never the whole collection. The level each report was
+ * last escalated at is kept in SharedPreferences by {@link EscalationLevels}, and
+ * a notification is only raised for reports that reached a higher level.
+ */
+public class SlaEscalationWorker extends Worker {
+
+    private static final String TAG = "SlaEscalation";
+
+    private static final String WORK_NAME = "sla_escalation";
+    private static final String PREFS_NAME = "sla_escalation";
+
+    private static final String CHANNEL_ID = "sla_escalation";
+    private static final String URGENT_CHANNEL_ID = "sla_escalation_urgent";
+    private static final int NOTIFICATION_ID = 1;
+
+    private static final long CHECK_INTERVAL_HOURS = 6;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    // Oldest overdue reports looked at per institution and check
+    private static final int MAX_REPORTS = 200;
+
+    public SlaEscalationWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // Keeps an already scheduled check, so calling this on every dashboard visit is cheap
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                SlaEscalationWorker.class, CHECK_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    // Called on sign-out: stops the check and forgets what was escalated
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        // Nothing could be shown, so don't spend any reads
+        if (user == null || !NotificationManagerCompat.from(getApplicationContext()).areNotificationsEnabled()) {
+            return Result.success();
+        }
+
+        try {
+            // Firestore settings must be applied before the first query
+            Tasks.await(AppStartup.whenReady(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            FirebaseFirestore db = FirebaseFirestore.getInstance();
+            QuerySnapshot institutions = Tasks.await(FirestoreUsage.get(db.collection("institutions")
+                    .whereArrayContains("managerIds", user.getUid())), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            for (DocumentSnapshot institution : institutions.getDocuments()) {
+                checkInstitution(db, institution);
+            }
+            return Result.success();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Escalation check failed", e);
+            return Result.retry();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+    }
+
+    private void checkInstitution(FirebaseFirestore db, DocumentSnapshot institution)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        String institutionId = institution.getId();
+        long now = System.currentTimeMillis();
+
+        QuerySnapshot overdue = Tasks.await(FirestoreUsage.get(db.collection("reports")
+                .whereEqualTo("institutionId", institutionId)
+                .whereEqualTo("status", "pending")
+                .whereLessThan("createdAt", EscalationLevels.firstLevelCutoff(now))
+                .orderBy("createdAt")
+                .limit(MAX_REPORTS)), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Map<String, Long> createdAtById = new HashMap<>();
+        Map<String, String> titles = new HashMap<>();
+        for (DocumentSnapshot report : overdue.getDocuments()) {
+            Long createdAt = report.getLong("createdAt");
+            if (createdAt != null) {
+                createdAtById.put(report.getId(), createdAt);
+                titles.put(report.getId(), report.getString("title"));
+            }
+        }
+
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        EscalationLevels levels = new EscalationLevels(prefs.getStringSet(institutionId, null));
+        Map<String, Integer> raised = levels.update(createdAtById, now, overdue.size() < MAX_REPORTS);
+
+        if (!raised.isEmpty()) {
+            notifyEscalated(institution, raised, createdAtById, titles, now);
+        }
+        // Saved after notifying, so a crash in between escalates again rather than never
+        prefs.edit().putStringSet(institutionId, levels.toSet()).apply();
+        Log.d(TAG, institutionId + ": " + overdue.size() + " overdue, " + raised.size() + " escalated");
+    }
+
+    private void notifyEscalated(DocumentSnapshot institution, Map<String, Integer> raised,
+                                 Map<String, Long> createdAtById, Map<String, String> titles, long now) {
+        Context context = getApplicationContext();
+        createChannels(context);
+
+        // Highest levels first, then the longest waiting
+        List<String> reportIds = new ArrayList<>(raised.keySet());
+        reportIds.sort((a, b) -> {
+            int byLevel = Integer.compare(raised.get(b), raised.get(a));
+            return byLevel != 0 ? byLevel : Long.compare(createdAtById.get(a), createdAtById.get(b));
+        });
+        int topLevel = raised.get(reportIds.get(0));
+
+        String institutionName = institution.getString("institutionName");
+        if (institutionName == null) {
+            institutionName = "your institution";
+        }
+
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (String reportId : reportIds) {
+            String title = titles.get(reportId);
+            style.addLine("Level " + raised.get(reportId) + " · "
+                    + (title != null ? title : "Untitled report")
+                    + " (" + EscalationLevels.daysPending(createdAtById.get(reportId), now) + " days)");
+        }
+
+        String summary = reportIds.size() == 1
+                ? "1 report still pending"
+                : reportIds.size() + " reports still pending";
+        summary += ", up to " + EscalationLevels.daysPending(createdAtById.get(reportIds.get(0)), now) + " days";
+
+        boolean urgent = topLevel == EscalationLevels.MAX_LEVEL;
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context,
+                urgent ? URGENT_CHANNEL_ID : CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.stat_sys_warning)
+                .setContentTitle("Overdue reports in " + institutionName + " (level " + topLevel + ")")
+                .setContentText(summary)
+                .setStyle(style)
+                .setPriority(urgent ? NotificationCompat.PRIORITY_HIGH : NotificationCompat.PRIORITY_DEFAULT)
+                .setContentIntent(openReports(context, institution.getId(), institutionName))
+                .setAutoCancel(true);
+
+        try {
+            // One notification per institution, replaced by the next escalation
+            NotificationManagerCompat.from(context).notify(institution.getId(), NOTIFICATION_ID, builder.build());
+        } catch (SecurityException e) {
+            // The notification permission was revoked while the check was running
+            Log.w(TAG, "Not allowed to post notifications", e);
+        }
+    }
+
+    private static PendingIntent openReports(Context context, String institutionId, String institutionName) {
+        Intent intent = new Intent(context, ViewAllReportsActivity.class);
+        intent.putExtra("institutionId", institutionId);
+        intent.putExtra("institutionName", institutionName);
+
+        // Back from the report list returns to the dashboard
+        return TaskStackBuilder.create(context)
+                .addNextIntent(new Intent(context, ManagerDashboardActivity.class))
+                .addNextIntent(intent)
+                .getPendingIntent(institutionId.hashCode(),
+                        PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private static void createChannels(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+        manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID,
+                "Overdue reports", NotificationManager.IMPORTANCE_DEFAULT));
+        manager.createNotificationChannel(new NotificationChannel(URGENT_CHANNEL_ID,
+                "Reports pending for two weeks", NotificationManager.IMPORTANCE_HIGH));
+    }
+}
@@ -7,12 +7,16 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SubmitReportActivity extends AppCompatActivity {
@@ -29,6 +33,7 @@ public class SubmitReportActivity extends AppCompatActivity {
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String institutionId;
@@ -73,7 +78,7 @@ public class SubmitReportActivity extends AppCompatActivity {
         // Submit button
         submitButton.setOnClickListener(v -> {
             if (validateInputs()) {
-                submitReport();
+                checkForDuplicates();
             }
         });
 
@@ -105,7 +110,46 @@ public class SubmitReportActivity extends AppCompatActivity {
         return true;
     }
 
-    private void submitReport() {
+    private void checkForDuplicates() {
+        String title = reportTitleEditText.getText().toString().trim();
+        String description = reportDescriptionEditText.getText().toString().trim();
+        int[] signature = NearDuplicates.signature(title, description);
+
+        // Disable button while we look for similar reports
+        submitButton.setEnabled(false);
+
+        scope.bind(DuplicateReports.find(db, institutionId, signature, null))
+                .addOnSuccessListener(matches -> {
+                    if (matches.isEmpty()) {
+                        submitReport(signature);
+                    } else {
+                        showSimilarReports(matches, signature);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    // Suggestions are best effort and never block a submission
+                    Log.e(TAG, "Error looking up similar reports", e);
+                    submitReport(signature);
+                });
+    }
+
+    private void showSimilarReports(List<DuplicateReports.Match> matches, int[] signature) {
+        StringBuilder message = new StringBuilder("These open reports look like yours:\n\n");
+        for (DuplicateReports.Match match : matches) {
+            message.append("\u2022 ").append(match.getLabel()).append("\n");
+        }
+        message.append("\nThe managers may already be handling this issue.");
+
+        new AlertDialog.Builder(this)
+                .setTitle("Similar reports found")
+                .setMessage(message.toString())
+                .setPositiveButton("Submit Anyway", (dialog, which) -> submitReport(signature))
+                .setNegativeButton("Cancel", (dialog, which) -> submitButton.setEnabled(true))
+                .setOnCancelListener(dialog -> submitButton.setEnabled(true))
+                .show();
+    }
+
+    private void submitReport(int[] signature) {
         String userId = mAuth.getCurrentUser().getUid();
         String title = reportTitleEditText.getText().toString().trim();
         String description = reportDescriptionEditText.getText().toString().trim();
@@ -114,24 +158,39 @@ public class SubmitReportActivity extends AppCompatActivity {
         // Disable button to prevent double submission
         submitButton.setEnabled(false);
 
-        // Create report data using HashMap
+        // Slim header for list queries
         Map<String, Object> reportData = new HashMap<>();
         reportData.put("userId", userId);
         reportData.put("institutionId", institutionId);
         reportData.put("institutionName", institutionName);
         reportData.put("userRole", userRole);
         reportData.put("title", title);
-        reportData.put("description", description);
         reportData.put("status", "pending");
-        reportData.put("managerResponse", "");
         reportData.put("createdAt", timestamp);
         reportData.put("updatedAt", timestamp);
+        // Managers' mirrors sync on the server's time, so a submission queued offline is not missed
+        ReportMirror.stampUpdated(reportData);
+        // Lets later submissions and managers find near-duplicates of this report
+        DuplicateReports.putSignature(reportData, signature, true);
+
+        // Body with the large fields, stored under the same ID
+        Map<String, Object> bodyData = new HashMap<>();
+        bodyData.put("description", description);
+        bodyData.put("managerResponse", "");
+        bodyData.put("updatedAt", timestamp);
+
+        // Save header, body and the first history entry atomically
+        DocumentReference reportRef = db.collection("reports").document();
+        WriteBatch batch = db.batch();
+        batch.set(reportRef, reportData);
+        batch.set(ReportBodies.reference(db, reportRef.getId()), bodyData);
+        batch.set(ReportHistory.newEntry(reportRef),
+                ReportHistory.entry(null, "pending", userId, timestamp, null, null));
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    FirestoreUsage.recordWrites(3);
+                    Log.d(TAG, "Report submitted successfully: " + reportRef.getId());
 
-        // Save to Firestore
-        db.collection("reports")
-                .add(reportData)
-                .addOnSuccessListener(documentReference -> {
-                    Log.d(TAG, "Report submitted successfully: " + documentReference.getId());
                     Toast.makeText(this, "Report submitted successfully!", Toast.LENGTH_SHORT).show();
                     finish(); // Go back to previous screen
                 })
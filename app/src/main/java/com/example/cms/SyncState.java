@@ -0,0 +1,21 @@
+package com.example.cms;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Per-institution sync watermark of the local report mirror: the highest
+ * server commit time (updatedAtServer, in millis) already copied, so the next
+ * sync only asks for newer changes.
+ */
+@Entity(tableName = "sync_state")
+public class SyncState {
+
+    @PrimaryKey
+    @NonNull
+    public String institutionId = "";
+
+    public long watermark;
+    public long lastSyncedAt;
+}
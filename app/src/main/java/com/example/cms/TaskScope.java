@@ -0,0 +1,67 @@
+package com.example.cms;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.CancellationTokenSource;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Ties the results of Firestore and pipeline tasks to an activity's lifetime.
+ *
+ * Listeners are added to {@link #bind}'s task instead of the request's. When
+ * the activity is destroyed, every bound task is cancelled: its success and
+ * failure listeners never run against the finished activity, and they are
+ * released at once, so a request still in flight no longer keeps the activity
+ * reachable. Work that runs in steps can stop early by checking
+ * {@link #getToken()}.
+ *
+ * Unlike the Activity overloads of addOnSuccessListener, which detach in
+ * onStop, a bound result still arrives while another screen is on top. Bind
+ * reads only: a write's listeners keep caches and counters in step with the
+ * server and must run even when the screen is gone, so they are added to the
+ * write's own task and check {@link #isActive()} before touching the UI.
+ */
+public final class TaskScope implements DefaultLifecycleObserver {
+
+    private final CancellationTokenSource cancellation = new CancellationTokenSource();
+
+    // Activities create their scope as a field, before onCreate
+    public TaskScope(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(this);
+    }
+
+    // Completes like task while the owner is alive; cancelled once it is destroyed
+    public <T> Task<T> bind(Task<T> task) {
+        TaskCompletionSource<T> bound = new TaskCompletionSource<>(cancellation.getToken());
+        task.addOnCompleteListener(completed -> {
+            if (completed.isSuccessful()) {
+                bound.trySetResult(completed.getResult());
+            } else if (completed.isCanceled()) {
+                bound.trySetException(new CancellationException("Task cancelled"));
+            } else {
+                bound.trySetException(completed.getException());
+            }
+        });
+        return bound.getTask();
+    }
+
+    public CancellationToken getToken() {
+        return cancellation.getToken();
+    }
+
+    public boolean isActive() {
+        return !cancellation.getToken().isCancellationRequested();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        cancellation.cancel();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.cms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scores open reports for the managers' triage queue.
+ *
+ * A small logistic regression over hashed title words and the submitter's role
+ * estimates how likely a report is to be upheld (verified rather than
+ * rejected), trained on the institution's closed reports. The priority adds an
+ * urgent-keyword boost, lowers reports someone is already investigating, and
+ * grows linearly with age.
+ *
+ * Because every report ages at the same rate, the age term can be folded into a
+ * fixed key ({@link #priorityKey}): ordering by key is the same as ordering by
+ * priority at any moment, so the queue never has to be re-sorted as time passes.
+ */
+public class TriageModel {
+
+    public static class Example {
+        final String title;
+        final String role;
+        final boolean upheld;
+
+        public Example(String title, String role, boolean upheld) {
+            this.title = title;
+            this.role = role;
+            this.upheld = upheld;
+        }
+    }
+
+    // Fewer closed reports than this give a model that is mostly noise
+    public static final int MIN_EXAMPLES = 10;
+
+    // Priority gained per day a report stays open
+    public static final double AGE_WEIGHT_PER_DAY = 0.1;
+
+    static final int DIMENSIONS = 256;
+
+    private static final int EPOCHS = 20;
+    private static final double LEARNING_RATE = 0.1;
+    private static final double L2 = 0.001;
+    private static final double KEYWORD_BOOST = 1.0;
+    private static final double INVESTIGATING_PENALTY = 0.5;
+    private static final double DAY_MILLIS = 24 * 60 * 60 * 1000.0;
+
+    private static final String[] URGENT_KEYWORDS = {
+            "urgent", "emergency", "fire", "smoke", "injury", "injured", "danger", "dangerous",
+            "unsafe", "harassment", "assault", "threat", "flood", "leak", "electric", "gas"
+    };
+
+    // Index 0 is the bias
+    private final double[] weights = new double[DIMENSIONS];
+    private boolean trained = false;
+
+    /**
+     * Fits the weights to the examples with stochastic gradient descent. With
+     * fewer than {@link #MIN_EXAMPLES}, or only one outcome, the model stays
+     * untrained and every report gets the same neutral estimate.
+     */
+    public void train(List<Example> examples) {
+        int upheld = 0;
+        for (Example example : examples) {
+            if (example.upheld) {
+                upheld++;
+            }
+        }
+        if (examples.size() < MIN_EXAMPLES || upheld == 0 || upheld == examples.size()) {
+            return;
+        }
+
+        List<int[]> features = new ArrayList<>(examples.size());
+        List<Integer> order = new ArrayList<>(examples.size());
+        for (int i = 0; i < examples.size(); i++) {
+            features.add(features(examples.get(i).title, examples.get(i).role));
+            order.add(i);
+        }
+
+        // Fixed seed so the same history always gives the same ranking
+        Random random = new Random(42);
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            Collections.shuffle(order, random);
+            for (int i : order) {
+                int[] x = features.get(i);
+                double error = (examples.get(i).upheld ? 1 : 0) - sigmoid(dot(x));
+                for (int feature : x) {
+                    weights[feature] += LEARNING_RATE * (error - L2 * weights[feature]);
+                }
+            }
+        }
+        trained = true;
+    }
+
+    public boolean isTrained() {
+        return trained;
+    }
+
+    // Estimated chance the report will be upheld
+    public double probability(String title, String role) {
+        return trained ? sigmoid(dot(features(title, role))) : 0.5;
+    }
+
+    // Priority at the time the report was created, without the age term
+    public double basePriority(String title, String role, String status) {
+        double p = Math.min(Math.max(probability(title, role), 0.01), 0.99);
+        double priority = Math.log(p / (1 - p));
+        if (hasUrgentKeyword(title)) {
+            priority += KEYWORD_BOOST;
+        }
+        if ("investigating".equals(status)) {
+            priority -= INVESTIGATING_PENALTY;
+        }
+        return priority;
+    }
+
+    // Time-independent ordering key; see the class comment
+    public double priorityKey(String title, String role, String status, long createdAt) {
+        return basePriority(title, role, status) - AGE_WEIGHT_PER_DAY * (createdAt / DAY_MILLIS);
+    }
+
+    // The priority a key stands for at the given time
+    public static double priorityAt(double key, long now) {
+        return key + AGE_WEIGHT_PER_DAY * (now / DAY_MILLIS);
+    }
+
+    static boolean hasUrgentKeyword(String title) {
+        String normalized = " " + NearDuplicates.normalize(title) + " ";
+        for (String keyword : URGENT_KEYWORDS) {
+            if (normalized.contains(" " + keyword + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hashed feature indices: the bias, each distinct title word and the role
+    static int[] features(String title, String role) {
+        List<Integer> indices = new ArrayList<>();
+        indices.add(0);
+        String normalized = NearDuplicates.normalize(title);
+        if (!normalized.isEmpty()) {
+            for (String word : normalized.split(" ")) {
+                int index = bucket("w:" + word);
+                if (!indices.contains(index)) {
+                    indices.add(index);
+                }
+            }
+        }
+        int roleIndex = bucket("r:" + (role != null ? role.toLowerCase() : ""));
+        if (!indices.contains(roleIndex)) {
+            indices.add(roleIndex);
+        }
+
+        int[] result = new int[indices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indices.get(i);
+        }
+        return result;
+    }
+
+    private static int bucket(String feature) {
+        return 1 + (feature.hashCode() & 0x7fffffff) % (DIMENSIONS - 1);
+    }
+
+    private double dot(int[] features) {
+        double sum = 0;
+        for (int feature : features) {
+            sum += weights[feature];
+        }
+        return sum;
+    }
+
+    private static double sigmoid(double z) {
+        return 1 / (1 + Math.exp(-z));
+    }
+}
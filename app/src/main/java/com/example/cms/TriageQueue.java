@@ -0,0 +1,162 @@
+package com.example.cms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Indexed max-heap of report IDs by priority key. Adding, re-scoring or removing
+ * one report is O(log n), so a sync that changes a few reports only moves those,
+ * and {@link #top} reads the best k in O(k log k) without sorting the rest.
+ * Not thread-safe.
+ */
+public class TriageQueue {
+
+    private String[] ids = new String[16];
+    private double[] keys = new double[16];
+    private int size = 0;
+
+    // Heap slot of each report ID
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String id) {
+        return slots.containsKey(id);
+    }
+
+    // The report's key, or NaN when it is not queued
+    public double keyOf(String id) {
+        Integer slot = slots.get(id);
+        return slot != null ? keys[slot] : Double.NaN;
+    }
+
+    public String peek() {
+        return size > 0 ? ids[0] : null;
+    }
+
+    // Adds the report, or moves it if its key changed
+    public void update(String id, double key) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            place(size, id, key);
+            size++;
+            siftUp(size - 1);
+        } else if (keys[slot] != key) {
+            double oldKey = keys[slot];
+            keys[slot] = key;
+            if (key > oldKey) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        }
+    }
+
+    public boolean remove(String id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return false;
+        }
+        size--;
+        if (slot != size) {
+            double removedKey = keys[slot];
+            place(slot, ids[size], keys[size]);
+            if (keys[slot] > removedKey) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        }
+        ids[size] = null;
+        return true;
+    }
+
+    // Drops every report that is not in the given set, e.g. ones closed since the last sync
+    public void retainAll(Set<String> keep) {
+        for (String id : new HashSet<>(slots.keySet())) {
+            if (!keep.contains(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    /**
+     * Up to limit IDs accepted by the filter, highest key first. Walks the heap
+     * best-first from the root, so only the part above the result is visited.
+     */
+    public List<String> top(int limit, Predicate<String> filter) {
+        List<String> result = new ArrayList<>();
+        if (size == 0 || limit <= 0) {
+            return result;
+        }
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> Double.compare(keys[b], keys[a]));
+        frontier.add(0);
+        while (!frontier.isEmpty() && result.size() < limit) {
+            int slot = frontier.poll();
+            if (filter.test(ids[slot])) {
+                result.add(ids[slot]);
+            }
+            int left = 2 * slot + 1;
+            if (left < size) {
+                frontier.add(left);
+            }
+            if (left + 1 < size) {
+                frontier.add(left + 1);
+            }
+        }
+        return result;
+    }
+
+    private void siftUp(int slot) {
+        String id = ids[slot];
+        double key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (keys[parent] >= key) {
+                break;
+            }
+            place(slot, ids[parent], keys[parent]);
+            slot = parent;
+        }
+        place(slot, id, key);
+    }
+
+    private void siftDown(int slot) {
+        String id = ids[slot];
+        double key = keys[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (keys[child] <= key) {
+                break;
+            }
+            place(slot, ids[child], keys[child]);
+            slot = child;
+        }
+        place(slot, id, key);
+    }
+
+    private void place(int slot, String id, double key) {
+        ids[slot] = id;
+        keys[slot] = key;
+        slots.put(id, slot);
+    }
+}
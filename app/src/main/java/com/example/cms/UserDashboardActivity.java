@@ -1,21 +1,31 @@
 package com.example.cms;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.OnBackPressedCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,16 +35,30 @@ public class UserDashboardActivity extends AppCompatActivity {
 
     // UI Components
     private TextView welcomeText;
-    private LinearLayout institutionContainer;
+    private RecyclerView institutionsRecyclerView;
+    private TextView institutionsEmptyText;
+    private InstitutionListAdapter institutionsAdapter;
+    private Button allReportsButton;
     private Button joinInstitutionButton;
     private Button logoutButton;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
     
-    // Flag to track if this is first load
-    private boolean isFirstLoad = true;
+    // Session-scoped user document
+    private CurrentUserStore currentUserStore;
+    private final CurrentUserStore.Listener userListener = this::displayUserData;
+
+    // Joined institutions keyed by ID in join order, and the cards loaded so far
+    private final Map<String, Map<String, Object>> memberships = new LinkedHashMap<>();
+    private final Map<String, InstitutionListItem> loadedCards = new HashMap<>();
+
+    // Report-update notifications are only shown once the user allows them
+    private final ActivityResultLauncher<String> notificationPermission = registerForActivityResult(
+            new ActivityResultContracts.RequestPermission(),
+            granted -> Log.d(TAG, "Notification permission " + (granted ? "granted" : "denied")));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,6 +78,10 @@ public class UserDashboardActivity extends AppCompatActivity {
         // Set up listeners
         setupListeners();
 
+        // Sync status changes of the user's reports in the background
+        // (asking for the notification permission once, not again after rotation)
+        scheduleReportUpdates(savedInstanceState == null);
+
         // Disable back button
         getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
             @Override
@@ -65,18 +93,21 @@ public class UserDashboardActivity extends AppCompatActivity {
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        // Reload user data when returning to this activity (but skip on first load)
-        if (!isFirstLoad) {
-            loadUserData();
+    protected void onDestroy() {
+        super.onDestroy();
+        if (currentUserStore != null) {
+            currentUserStore.removeListener(userListener);
         }
-        isFirstLoad = false;
     }
 
     private void initializeViews() {
         welcomeText = findViewById(R.id.welcomeText);
-        institutionContainer = findViewById(R.id.institutionContainer);
+        institutionsRecyclerView = findViewById(R.id.institutionsRecyclerView);
+        institutionsEmptyText = findViewById(R.id.institutionsEmptyText);
+
+        institutionsAdapter = new InstitutionListAdapter(this::openInstitution);
+        institutionsRecyclerView.setAdapter(institutionsAdapter);
+        allReportsButton = findViewById(R.id.allReportsButton);
         joinInstitutionButton = findViewById(R.id.joinInstitutionButton);
         logoutButton = findViewById(R.id.logoutButton);
     }
@@ -84,162 +115,74 @@ public class UserDashboardActivity extends AppCompatActivity {
     private void loadUserData() {
         String userId = mAuth.getCurrentUser().getUid();
 
-        // Clear existing institution cards
-        institutionContainer.removeAllViews();
-
-        db.collection("users").document(userId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String fullName = documentSnapshot.getString("fullName");
-                        
-                        if (fullName != null) {
-                            welcomeText.setText("Welcome, " + fullName + "!");
-                        }
-
-                        // Get institutions array
-                        List<Map<String, Object>> institutions = null;
-                        if (documentSnapshot.contains("institutions")) {
-                            institutions = (List<Map<String, Object>>) documentSnapshot.get("institutions");
-                        }
-
-                        // Check if user has joined any institutions
-                        if (institutions != null && !institutions.isEmpty()) {
-                            // User has joined institutions - always show join button for multiple institutions
-                            joinInstitutionButton.setVisibility(View.VISIBLE);
-                            institutionContainer.setVisibility(View.VISIBLE);
-
-                            // Load and display all institutions as cards
-                            for (Map<String, Object> institution : institutions) {
-                                String institutionId = (String) institution.get("institutionId");
-                                String role = (String) institution.get("role");
-                                Boolean isManager = (Boolean) institution.get("isManager");
-                                
-                                if (institutionId != null) {
-                                    loadInstitutionCard(institutionId, role, isManager != null && isManager);
-                                }
-                            }
-                        } else {
-                            // User has not joined any institution
-                            joinInstitutionButton.setVisibility(View.VISIBLE);
-                            institutionContainer.setVisibility(View.VISIBLE);
-                            
-                            // Show message
-                            TextView noInstitutionText = new TextView(this);
-                            noInstitutionText.setText("You haven't joined any institution yet.\nClick 'Join Institution' to get started!");
-                            noInstitutionText.setTextSize(14);
-                            noInstitutionText.setTextColor(Color.parseColor("#757575"));
-                            noInstitutionText.setGravity(android.view.Gravity.CENTER);
-                            noInstitutionText.setPadding(16, 16, 16, 16);
-                            institutionContainer.addView(noInstitutionText);
-                        }
-                        
-                        Log.d(TAG, "User data loaded: " + fullName);
-                    }
-                })
+        // The session store loads the user document once and re-delivers it whenever it
+        // changes (e.g. after joining an institution), so there is no reload on resume
+        currentUserStore = CmsApplication.currentUser(this);
+        scope.bind(currentUserStore.load(userId))
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error loading user data", e);
                     Toast.makeText(this, "Error loading user data", Toast.LENGTH_SHORT).show();
                 });
+        currentUserStore.addListener(userListener);
+    }
+
+    private void displayUserData(DocumentSnapshot documentSnapshot) {
+        if (documentSnapshot.exists()) {
+            String fullName = documentSnapshot.getString("fullName");
+            
+            if (fullName != null) {
+                welcomeText.setText("Welcome, " + fullName + "!");
+            }
+
+            // Get institutions array
+            List<Map<String, Object>> institutions = null;
+            if (documentSnapshot.contains("institutions")) {
+                institutions = (List<Map<String, Object>>) documentSnapshot.get("institutions");
+            }
+
+            // Users can join multiple institutions, so the join button is always shown
+            joinInstitutionButton.setVisibility(View.VISIBLE);
+
+            // Rebuild the membership list in the order the user joined; cards that are
+            // already loaded are kept and the list adapter only rebinds what changed
+            memberships.clear();
+            if (institutions != null) {
+                for (Map<String, Object> institution : institutions) {
+                    String institutionId = (String) institution.get("institutionId");
+                    if (institutionId != null) {
+                        memberships.put(institutionId, institution);
+                    }
+                }
+            }
+            loadedCards.keySet().retainAll(memberships.keySet());
+
+            for (Map.Entry<String, Map<String, Object>> membership : memberships.entrySet()) {
+                String institutionId = membership.getKey();
+                String role = (String) membership.getValue().get("role");
+                Boolean isManager = (Boolean) membership.getValue().get("isManager");
+                loadInstitutionCard(institutionId, role, isManager != null && isManager);
+            }
+            showInstitutions();
+            
+            Log.d(TAG, "User data loaded: " + fullName);
+        }
     }
 
     private void loadInstitutionCard(String institutionId, String userRole, boolean isManager) {
-        db.collection("institutions").document(institutionId)
-                .get()
+        // Institutions rarely change, so reuse one we already loaded this session
+        Map<String, Object> cachedInstitution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (cachedInstitution != null) {
+            addInstitutionCard(institutionId, (String) cachedInstitution.get("institutionName"), userRole, isManager);
+            return;
+        }
+
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        String institutionName = documentSnapshot.getString("institutionName");
-                        String managerRoleName = documentSnapshot.getString("managerRoleName");
-
-                        // Create a card for the institution
-                        androidx.constraintlayout.widget.ConstraintLayout institutionCard = 
-                                new androidx.constraintlayout.widget.ConstraintLayout(this);
-                        institutionCard.setLayoutParams(new LinearLayout.LayoutParams(
-                                LinearLayout.LayoutParams.MATCH_PARENT,
-                                LinearLayout.LayoutParams.WRAP_CONTENT));
-                        institutionCard.setPadding(16, 16, 16, 16);
-                        
-                        // Set background
-                        institutionCard.setBackgroundResource(R.drawable.report_item_background);
-                        
-                        // Set margin
-                        LinearLayout.LayoutParams cardParams = (LinearLayout.LayoutParams) institutionCard.getLayoutParams();
-                        cardParams.setMargins(0, 0, 0, 16);
-                        institutionCard.setLayoutParams(cardParams);
-
-                        // Institution Name
-                        TextView nameText = new TextView(this);
-                        nameText.setId(View.generateViewId());
-                        nameText.setText(institutionName != null ? institutionName : "Institution");
-                        nameText.setTextSize(18);
-                        nameText.setTextColor(Color.parseColor("#212121"));
-                        android.text.TextPaint paint = nameText.getPaint();
-                        paint.setFakeBoldText(true);
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams nameParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        nameParams.topToTop = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameParams.endToEnd = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        nameText.setLayoutParams(nameParams);
-                        institutionCard.addView(nameText);
-
-                        // User Role with manager badge
-                        TextView roleText = new TextView(this);
-                        roleText.setId(View.generateViewId());
-                        String roleDisplay = "Your Role: " + (userRole != null ? userRole : "Member");
-                        if (isManager) {
-                            roleDisplay += " (Manager)";
-                        }
-                        roleText.setText(roleDisplay);
-                        roleText.setTextSize(14);
-                        roleText.setTextColor(isManager ? Color.parseColor("#2196F3") : Color.parseColor("#757575"));
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams roleParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        roleParams.topToBottom = nameText.getId();
-                        roleParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        roleParams.topMargin = 8;
-                        roleText.setLayoutParams(roleParams);
-                        institutionCard.addView(roleText);
-
-                        // Click instruction
-                        TextView clickText = new TextView(this);
-                        clickText.setId(View.generateViewId());
-                        clickText.setText(isManager ? "Tap to manage" : "Tap to view options");
-                        clickText.setTextSize(12);
-                        clickText.setTextColor(Color.parseColor("#2196F3"));
-                        
-                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams clickParams = 
-                                new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT,
-                                        androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.WRAP_CONTENT);
-                        clickParams.topToBottom = roleText.getId();
-                        clickParams.startToStart = androidx.constraintlayout.widget.ConstraintLayout.LayoutParams.PARENT_ID;
-                        clickParams.topMargin = 8;
-                        clickText.setLayoutParams(clickParams);
-                        institutionCard.addView(clickText);
-
-                        // Make the card clickable - go to manager view if manager, user view otherwise
-                        institutionCard.setOnClickListener(v -> {
-                            if (isManager) {
-                                Intent intent = new Intent(UserDashboardActivity.this, InstitutionDetailActivity.class);
-                                intent.putExtra("institutionId", institutionId);
-                                startActivity(intent);
-                            } else {
-                                Intent intent = new Intent(UserDashboardActivity.this, UserInstitutionDetailActivity.class);
-                                intent.putExtra("institutionId", institutionId);
-                                intent.putExtra("institutionName", institutionName);
-                                intent.putExtra("userRole", userRole);
-                                startActivity(intent);
-                            }
-                        });
-
-                        institutionContainer.addView(institutionCard);
+                        EntityStore.put(documentSnapshot);
+                        addInstitutionCard(institutionId, documentSnapshot.getString("institutionName"),
+                                userRole, isManager);
+                        showInstitutions();
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -247,7 +190,74 @@ public class UserDashboardActivity extends AppCompatActivity {
                 });
     }
 
+    private void addInstitutionCard(String institutionId, String institutionName, String userRole,
+                                    boolean isManager) {
+        // Ignore late results for an institution the user has since left
+        if (!memberships.containsKey(institutionId)) {
+            return;
+        }
+
+        String roleDisplay = "Your Role: " + (userRole != null ? userRole : "Member");
+        if (isManager) {
+            roleDisplay += " (Manager)";
+        }
+        loadedCards.put(institutionId, new InstitutionListItem(
+                institutionId,
+                institutionName,
+                roleDisplay,
+                isManager ? Color.parseColor("#2196F3") : Color.parseColor("#757575"),
+                null,
+                isManager ? "Tap to manage" : "Tap to view options",
+                Color.parseColor("#2196F3")));
+    }
+
+    private void showInstitutions() {
+        List<InstitutionListItem> items = new ArrayList<>();
+        for (String institutionId : memberships.keySet()) {
+            InstitutionListItem item = loadedCards.get(institutionId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        institutionsEmptyText.setVisibility(memberships.isEmpty() ? View.VISIBLE : View.GONE);
+        institutionsAdapter.submitList(items);
+    }
+
+    private void openInstitution(InstitutionListItem item) {
+        // Go to manager view if manager, user view otherwise
+        Map<String, Object> membership = memberships.get(item.getInstitutionId());
+        Boolean isManager = membership != null ? (Boolean) membership.get("isManager") : null;
+        if (isManager != null && isManager) {
+            Intent intent = new Intent(UserDashboardActivity.this, InstitutionDetailActivity.class);
+            intent.putExtra("institutionId", item.getInstitutionId());
+            startActivity(intent);
+        } else {
+            Intent intent = new Intent(UserDashboardActivity.this, UserInstitutionDetailActivity.class);
+            intent.putExtra("institutionId", item.getInstitutionId());
+            intent.putExtra("institutionName", item.getName());
+            intent.putExtra("userRole", membership != null ? (String) membership.get("role") : null);
+            startActivity(intent);
+        }
+    }
+
+    private void scheduleReportUpdates(boolean askForPermission) {
+        ReportUpdatesWorker.schedule(this);
+
+        if (askForPermission && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            notificationPermission.launch(Manifest.permission.POST_NOTIFICATIONS);
+        }
+    }
+
     private void setupListeners() {
+        // All My Reports button click
+        allReportsButton.setOnClickListener(v -> {
+            Log.d(TAG, "All My Reports button clicked");
+            Intent intent = new Intent(UserDashboardActivity.this, AllMyReportsActivity.class);
+            startActivity(intent);
+        });
+
         // Join Institution button click
         joinInstitutionButton.setOnClickListener(v -> {
             Log.d(TAG, "Join Institution button clicked");
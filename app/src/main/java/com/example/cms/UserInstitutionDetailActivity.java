@@ -12,6 +12,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.Map;
+
 public class UserInstitutionDetailActivity extends AppCompatActivity {
 
     private static final String TAG = "UserInstitutionDetail";
@@ -26,6 +28,7 @@ public class UserInstitutionDetailActivity extends AppCompatActivity {
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String institutionId;
@@ -78,10 +81,16 @@ public class UserInstitutionDetailActivity extends AppCompatActivity {
     }
 
     private void loadInstitutionName(String institutionId) {
-        db.collection("institutions").document(institutionId)
-                .get()
+        Map<String, Object> cachedInstitution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (cachedInstitution != null && cachedInstitution.get("institutionName") != null) {
+            institutionNameText.setText((String) cachedInstitution.get("institutionName"));
+            return;
+        }
+
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
+                        EntityStore.put(documentSnapshot);
                         String institutionName = documentSnapshot.getString("institutionName");
                         if (institutionName != null) {
                             institutionNameText.setText(institutionName);
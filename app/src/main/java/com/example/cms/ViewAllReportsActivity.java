@@ -8,6 +8,7 @@ import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.LinearLayout;
 import android.widget.Spinner;
 import android.widget.TextView;
@@ -15,35 +16,88 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class ViewAllReportsActivity extends AppCompatActivity {
 
     private static final String TAG = "ViewAllReports";
 
+    // Firestore accepts at most this many values in a whereIn() filter
+    private static final int MAX_IN_QUERY_VALUES = 30;
+
+    private static final String ALL_ROLES = "All Roles";
+
+    private static final int SORT_NEWEST = 0;
+    private static final int SORT_OLDEST = 1;
+    private static final int SORT_PRIORITY = 2;
+
+    // Triage mode shows this many of the highest-priority open reports
+    private static final int TRIAGE_LIMIT = 50;
+
+    private static final int QUEUE_ALL = 0;
+    private static final int QUEUE_MINE = 1;
+    private static final int QUEUE_UNASSIGNED = 2;
+
+    // Most recently archived reports shown when archived reports are included
+    private static final int ARCHIVE_LIMIT = 100;
+
     // UI Components
     private TextView institutionNameText;
     private Spinner statusFilterSpinner;
+    private Spinner roleFilterSpinner;
+    private Spinner sortSpinner;
+    private Spinner queueSpinner;
+    private CheckBox includeArchivedCheckBox;
     private LinearLayout reportsContainer;
     private Button backButton;
 
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
+    private ReportMirror reportMirror;
 
     // Data
     private String institutionId;
     private String institutionName;
     private String selectedStatusFilter = "All";
+    private String selectedRoleFilter = ALL_ROLES;
+    private int selectedSort = SORT_NEWEST;
+    private int selectedQueue = QUEUE_ALL;
+    private boolean includeArchived = false;
+
+    // Unassigned open reports are distributed once per visit to this screen
+    private boolean assignmentAttempted = false;
     private boolean isInitialLoad = true;
+    private int loadGeneration = 0;
+
+    // Mirrored reports and their submitters' emails; filter and sort changes are applied locally
+    private ReportIndex reportIndex;
+    private Map<String, String> submitterEmails = new HashMap<>();
+    // Open reports by priority, updated in place as reports change; the model is
+    // retrained on the pipeline whenever the number of closed reports changes
+    private final TriageQueue triageQueue = new TriageQueue();
+    // Archived reports, queried the first time they are included; null until then
+    private List<ReportRow> archivedRows;
+    private volatile TriageModel triageModel = new TriageModel();
+    private volatile int triageTrainedOn = -1;
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,6 +107,7 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
+        reportMirror = ReportMirror.getInstance(this);
 
         // Get data from intent
         institutionId = getIntent().getStringExtra("institutionId");
@@ -68,8 +123,11 @@ public class ViewAllReportsActivity extends AppCompatActivity {
             loadInstitutionName();
         }
 
-        // Setup status filter spinner
+        // Setup filter and sort spinners
         setupStatusFilter();
+        setupRoleFilter();
+        setupSort();
+        setupQueue();
 
         // Load reports
         loadReports();
@@ -90,13 +148,23 @@ public class ViewAllReportsActivity extends AppCompatActivity {
     private void initializeViews() {
         institutionNameText = findViewById(R.id.institutionNameText);
         statusFilterSpinner = findViewById(R.id.statusFilterSpinner);
+        roleFilterSpinner = findViewById(R.id.roleFilterSpinner);
+        sortSpinner = findViewById(R.id.sortSpinner);
+        queueSpinner = findViewById(R.id.queueSpinner);
+        includeArchivedCheckBox = findViewById(R.id.includeArchivedCheckBox);
         reportsContainer = findViewById(R.id.reportsContainer);
         backButton = findViewById(R.id.backButton);
     }
 
     private void loadInstitutionName() {
-        db.collection("institutions").document(institutionId)
-                .get()
+        Map<String, Object> cachedInstitution = EntityStore.get(EntityStore.institutionPath(institutionId));
+        if (cachedInstitution != null && cachedInstitution.get("institutionName") != null) {
+            institutionName = (String) cachedInstitution.get("institutionName");
+            institutionNameText.setText(institutionName);
+            return;
+        }
+
+        scope.bind(FirestoreUsage.get(db.collection("institutions").document(institutionId)))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         String name = documentSnapshot.getString("institutionName");
@@ -135,10 +203,8 @@ public class ViewAllReportsActivity extends AppCompatActivity {
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
                 selectedStatusFilter = statusOptions.get(position);
                 Log.d(TAG, "Filter changed to: " + selectedStatusFilter);
-                // Skip loading on initial setup (will be loaded in onCreate)
-                if (!isInitialLoad) {
-                    loadReports();
-                }
+                // Filtering runs over the loaded index, so there is no re-query
+                showReports();
                 isInitialLoad = false;
             }
 
@@ -149,71 +215,203 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         });
     }
 
+    private void setupRoleFilter() {
+        // Options are filled in from the mirrored reports in updateRoleOptions()
+        List<String> roleOptions = new ArrayList<>();
+        roleOptions.add(ALL_ROLES);
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                roleOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        roleFilterSpinner.setAdapter(adapter);
+
+        roleFilterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selectedRoleFilter = (String) parent.getItemAtPosition(position);
+                showReports();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    private void setupSort() {
+        List<String> sortOptions = new ArrayList<>();
+        sortOptions.add("Newest first");
+        sortOptions.add("Oldest first");
+        sortOptions.add("Priority (triage)");
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                sortOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        sortSpinner.setAdapter(adapter);
+
+        sortSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selectedSort = position;
+                showReports();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    private void setupQueue() {
+        List<String> queueOptions = new ArrayList<>();
+        queueOptions.add("All reports");
+        queueOptions.add("Assigned to me");
+        queueOptions.add("Unassigned");
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                queueOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        queueSpinner.setAdapter(adapter);
+
+        queueSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selectedQueue = position;
+                showReports();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                // Do nothing
+            }
+        });
+    }
+
+    private void updateRoleOptions() {
+        List<String> roleOptions = new ArrayList<>();
+        roleOptions.add(ALL_ROLES);
+        roleOptions.addAll(reportIndex.getRoles());
+
+        // Keep the current selection if that role still has reports
+        int selected = Math.max(roleOptions.indexOf(selectedRoleFilter), 0);
+        selectedRoleFilter = roleOptions.get(selected);
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                roleOptions
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        roleFilterSpinner.setAdapter(adapter);
+        roleFilterSpinner.setSelection(selected);
+    }
+
     private void setupListeners() {
         backButton.setOnClickListener(v -> finish());
+
+        includeArchivedCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            includeArchived = isChecked;
+            if (isChecked && archivedRows == null) {
+                loadArchived();
+            } else {
+                showReports();
+            }
+        });
     }
 
     private void loadReports() {
-        // Clear existing views
-        reportsContainer.removeAllViews();
+        // Ignore results from a load that a newer one has superseded
+        final int generation = ++loadGeneration;
+
+        // Drop the reports archived since the last visit (the sync only sees changes,
+        // not deletions), show the local mirror straight away, then fetch only the
+        // reports changed since the last sync and redraw if there were any
+        long archivedBefore = ReportArchiver.archivedBefore(
+                EntityStore.get(EntityStore.institutionPath(institutionId)));
+        scope.bind(reportMirror.pruneArchived(institutionId, archivedBefore)).addOnCompleteListener(pruned -> {
+            if (!scope.isActive()) {
+                return;
+            }
+            showFromMirror(generation, false);
+            scope.bind(reportMirror.sync(institutionId))
+                    .addOnSuccessListener(changed -> {
+                        if (changed > 0 || reportIndex == null) {
+                            showFromMirror(generation, true);
+                        }
+                    })
+                    .addOnFailureListener(e -> {
+                        Log.e(TAG, "Error syncing reports", e);
+                        Toast.makeText(this, "Showing saved reports: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        showFromMirror(generation, true);
+                    });
+        });
+    }
 
-        // Query reports for this institution
-        db.collection("reports")
+    // Archived reports are never mirrored; they are queried only when asked for
+    private void loadArchived() {
+        scope.bind(FirestoreUsage.get(db.collection(ReportArchiver.COLLECTION)
                 .whereEqualTo("institutionId", institutionId)
-                .get()
+                .orderBy("archivedAt", Query.Direction.DESCENDING)
+                .limit(ARCHIVE_LIMIT)))
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (queryDocumentSnapshots.isEmpty()) {
-                        // No reports found
-                        TextView noReportsText = new TextView(this);
-                        noReportsText.setText("No reports submitted yet.");
-                        noReportsText.setTextSize(14);
-                        noReportsText.setTextColor(Color.parseColor("#757575"));
-                        noReportsText.setGravity(android.view.Gravity.CENTER);
-                        noReportsText.setPadding(16, 16, 16, 16);
-                        reportsContainer.addView(noReportsText);
-                    } else {
-                        // Sort reports by createdAt in descending order (newest first)
-                        List<QueryDocumentSnapshot> sortedDocs = new ArrayList<>();
-                        for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                            // Apply status filter
-                            String status = doc.getString("status");
-                            if (selectedStatusFilter.equals("All") || 
-                                (status != null && status.equalsIgnoreCase(selectedStatusFilter))) {
-                                sortedDocs.add(doc);
-                            }
-                        }
-
-                        if (sortedDocs.isEmpty()) {
-                            // No reports match the filter
-                            TextView noReportsText = new TextView(this);
-                            noReportsText.setText("No reports with status: " + selectedStatusFilter);
-                            noReportsText.setTextSize(14);
-                            noReportsText.setTextColor(Color.parseColor("#757575"));
-                            noReportsText.setGravity(android.view.Gravity.CENTER);
-                            noReportsText.setPadding(16, 16, 16, 16);
-                            reportsContainer.addView(noReportsText);
-                            return;
-                        }
+                    List<ReportRow> rows = new ArrayList<>();
+                    for (DocumentSnapshot report : queryDocumentSnapshots.getDocuments()) {
+                        String userId = report.getString("userId");
+                        String userRole = report.getString("userRole");
+                        ReportRow row = new ReportRow(
+                                report.getId(),
+                                report.getString("title"),
+                                userId,
+                                userRole,
+                                report.getString("status"),
+                                report.getLong("createdAt"),
+                                null,
+                                null,
+                                dateFormat);
+                        row.setSubmittedBy(formatSubmittedBy(
+                                userId != null ? submitterEmails.get(userId) : null, userRole));
+                        rows.add(row);
+                    }
+                    archivedRows = rows;
+                    showReports();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading archived reports", e);
+                    Toast.makeText(this, "Error loading archived reports", Toast.LENGTH_SHORT).show();
+                    includeArchivedCheckBox.setChecked(false);
+                });
+    }
 
-                        sortedDocs.sort((doc1, doc2) -> {
-                            Long time1 = doc1.getLong("createdAt");
-                            Long time2 = doc2.getLong("createdAt");
-                            if (time1 == null) time1 = 0L;
-                            if (time2 == null) time2 = 0L;
-                            return time2.compareTo(time1); // Descending order
-                        });
-
-                        // Display reports
-                        for (QueryDocumentSnapshot document : sortedDocs) {
-                            String reportId = document.getId();
-                            String title = document.getString("title");
-                            String userId = document.getString("userId");
-                            String userRole = document.getString("userRole");
-                            String status = document.getString("status");
-                            Long createdAt = document.getLong("createdAt");
-
-                            addReportCard(reportId, title, userId, userRole, status, createdAt);
-                        }
+    // synced is false for the first paint from the mirror, which is skipped while it
+    // is still empty so the "no reports" message does not flash before the first sync
+    private void showFromMirror(int generation, boolean synced) {
+        // Indexing and submitter lookups run on the background pipeline
+        Task<ReportIndex> indexTask = ResultPipeline.map(scope.bind(reportMirror.load(institutionId)), this::buildIndex);
+        Task<Map<String, Double>> triageTask = ResultPipeline.map(indexTask, this::scoreOpenReports);
+
+        scope.bind(ResultPipeline.flatMap(triageTask, priorities -> resolveSubmitters(indexTask.getResult())))
+                .addOnSuccessListener(emails -> {
+                    ReportIndex index = indexTask.getResult();
+                    if (generation != loadGeneration || (!synced && index.size() == 0)) {
+                        return;
+                    }
+                    reportIndex = index;
+                    submitterEmails = emails;
+                    updateTriageQueue(triageTask.getResult());
+                    updateRoleOptions();
+                    showReports();
+                    if (synced) {
+                        assignUnassigned(index);
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -222,8 +420,234 @@ public class ViewAllReportsActivity extends AppCompatActivity {
                 });
     }
 
-    private void addReportCard(String reportId, String title, String userId, 
-                               String userRole, String status, Long createdAt) {
+    // Hands every unassigned open report to a manager, a transaction at a time; submitters never
+    // write the institution's counters, so assignment always happens on a manager's device
+    private void assignUnassigned(ReportIndex index) {
+        if (assignmentAttempted) {
+            return;
+        }
+        List<String> unassigned = new ArrayList<>();
+        for (int statusCode : new int[] {ReportIndex.STATUS_PENDING, ReportIndex.STATUS_INVESTIGATING}) {
+            for (int position : index.select(statusCode, ReportIndex.ANY, index.assigneeId(null), false)) {
+                unassigned.add(index.getReportId(position));
+            }
+        }
+        if (unassigned.isEmpty()) {
+            return;
+        }
+
+        assignmentAttempted = true;
+        // A write, so not bound to the activity; only the reload needs the screen
+        ReportAssignment.assign(db, institutionId, unassigned)
+                .addOnSuccessListener(assigned -> {
+                    Log.d(TAG, "Assigned " + assigned + " reports");
+                    if (assigned > 0 && scope.isActive()) {
+                        loadReports();
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error assigning reports", e));
+    }
+
+    // Runs on the pipeline pool
+    private ReportIndex buildIndex(List<ReportEntity> reports) {
+        ReportIndex index = new ReportIndex(reports.size());
+        for (ReportEntity report : reports) {
+            index.add(
+                    report.reportId,
+                    report.title,
+                    report.userId,
+                    report.userRole,
+                    report.status,
+                    report.createdAt,
+                    report.assignedTo,
+                    report.duplicateOf);
+        }
+        return index;
+    }
+
+    // Runs on the pipeline pool: priority keys of the open reports
+    private Map<String, Double> scoreOpenReports(ReportIndex index) {
+        List<TriageModel.Example> examples = new ArrayList<>();
+        List<Integer> open = new ArrayList<>();
+        for (int position = 0; position < index.size(); position++) {
+            String status = index.getStatus(position);
+            if (ReportAssignment.isOpen(status)) {
+                open.add(position);
+            } else if (status != null && !index.isMerged(position)) {
+                // A merged duplicate is rejected only because another report covers the issue
+                examples.add(new TriageModel.Example(index.getTitle(position), index.getUserRole(position),
+                        "verified".equals(status)));
+            }
+        }
+
+        // Learn from the institution's outcomes again only when there are new ones
+        if (examples.size() != triageTrainedOn) {
+            TriageModel model = new TriageModel();
+            model.train(examples);
+            triageModel = model;
+            triageTrainedOn = examples.size();
+        }
+
+        TriageModel model = triageModel;
+        Map<String, Double> priorities = new HashMap<>();
+        for (int position : open) {
+            priorities.put(index.getReportId(position), model.priorityKey(index.getTitle(position),
+                    index.getUserRole(position), index.getStatus(position), index.getCreatedAt(position)));
+        }
+        return priorities;
+    }
+
+    // Only reports that were added, closed or re-scored move in the queue
+    private void updateTriageQueue(Map<String, Double> priorities) {
+        triageQueue.retainAll(priorities.keySet());
+        for (Map.Entry<String, Double> entry : priorities.entrySet()) {
+            triageQueue.update(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Runs on the pipeline pool: looks up all distinct submitters with batched queries
+    // instead of one get() per card, reusing users we already loaded
+    private Task<Map<String, String>> resolveSubmitters(ReportIndex index) {
+        Map<String, String> emails = new HashMap<>();
+        List<String> missingUserIds = new ArrayList<>();
+        for (String userId : index.distinctUserIds()) {
+            Map<String, Object> user = EntityStore.get(EntityStore.userPath(userId));
+            if (user != null) {
+                emails.put(userId, (String) user.get("email"));
+            } else {
+                missingUserIds.add(userId);
+            }
+        }
+
+        List<Task<QuerySnapshot>> lookups = new ArrayList<>();
+        for (int i = 0; i < missingUserIds.size(); i += MAX_IN_QUERY_VALUES) {
+            List<String> chunk = missingUserIds.subList(i, Math.min(i + MAX_IN_QUERY_VALUES, missingUserIds.size()));
+            lookups.add(FirestoreUsage.get(db.collection("users")
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))));
+        }
+
+        return Tasks.whenAllComplete(lookups).continueWith(ResultPipeline.EXECUTOR, done -> {
+            for (Task<QuerySnapshot> lookup : lookups) {
+                if (lookup.isSuccessful()) {
+                    for (QueryDocumentSnapshot userDoc : lookup.getResult()) {
+                        EntityStore.put(userDoc);
+                        emails.put(userDoc.getId(), userDoc.getString("email"));
+                    }
+                } else {
+                    Log.e(TAG, "Error fetching user email", lookup.getException());
+                }
+            }
+            return emails;
+        });
+    }
+
+    private void showReports() {
+        if (reportIndex == null) {
+            return;
+        }
+
+        // Select matching positions from the index in the chosen order
+        int statusCode = selectedStatusFilter.equals("All")
+                ? ReportIndex.ANY : ReportIndex.statusCode(selectedStatusFilter);
+        int roleId = selectedRoleFilter.equals(ALL_ROLES)
+                ? ReportIndex.ANY : reportIndex.roleId(selectedRoleFilter);
+        String currentUserId = mAuth.getCurrentUser() != null ? mAuth.getCurrentUser().getUid() : null;
+        int assigneeId = selectedQueue == QUEUE_MINE ? reportIndex.assigneeId(currentUserId)
+                : selectedQueue == QUEUE_UNASSIGNED ? reportIndex.assigneeId(null)
+                : ReportIndex.ANY;
+        int[] positions;
+        if (selectedSort == SORT_PRIORITY) {
+            // Highest priority open reports first, read off the queue without sorting the rest
+            List<String> topIds = triageQueue.top(TRIAGE_LIMIT, id -> {
+                int position = reportIndex.positionOf(id);
+                return position >= 0 && reportIndex.matches(position, statusCode, roleId, assigneeId);
+            });
+            positions = new int[topIds.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = reportIndex.positionOf(topIds.get(i));
+            }
+        } else {
+            positions = reportIndex.select(statusCode, roleId, assigneeId, selectedSort == SORT_NEWEST);
+        }
+        long now = System.currentTimeMillis();
+        List<ReportRow> archived = selectArchived();
+
+        // Clear existing views
+        reportsContainer.removeAllViews();
+
+        if (positions.length == 0 && archived.isEmpty()) {
+            // No reports found, or none match the filter; archived ones may still be on their way
+            TextView noReportsText = new TextView(this);
+            if (includeArchived && archivedRows == null) {
+                noReportsText.setText("Loading archived reports...");
+            } else if (reportIndex.size() == 0 && (!includeArchived || archivedRows.isEmpty())) {
+                noReportsText.setText("No reports submitted yet.");
+            } else {
+                noReportsText.setText("No reports match the selected filters.");
+            }
+            noReportsText.setTextSize(14);
+            noReportsText.setTextColor(Color.parseColor("#757575"));
+            noReportsText.setGravity(android.view.Gravity.CENTER);
+            noReportsText.setPadding(16, 16, 16, 16);
+            reportsContainer.addView(noReportsText);
+            return;
+        }
+
+        // Display reports
+        for (int position : positions) {
+            String userId = reportIndex.getUserId(position);
+            String userRole = reportIndex.getUserRole(position);
+            long createdAt = reportIndex.getCreatedAt(position);
+            ReportRow row = new ReportRow(
+                    reportIndex.getReportId(position),
+                    reportIndex.getTitle(position),
+                    userId,
+                    userRole,
+                    reportIndex.getStatus(position),
+                    createdAt > 0 ? createdAt : null,
+                    null,
+                    null,
+                    dateFormat);
+            row.setSubmittedBy(formatSubmittedBy(userId != null ? submitterEmails.get(userId) : null, userRole)
+                    + formatAssignee(reportIndex.getStatus(position), reportIndex.getAssignedTo(position), currentUserId)
+                    + formatPriority(reportIndex.getReportId(position), now));
+            addReportCard(row, false);
+        }
+
+        if (!archived.isEmpty()) {
+            TextView archivedHeader = new TextView(this);
+            archivedHeader.setText("Archived reports");
+            archivedHeader.setTextSize(16);
+            archivedHeader.setTextColor(Color.parseColor("#757575"));
+            archivedHeader.setPadding(0, 16, 0, 16);
+            reportsContainer.addView(archivedHeader);
+            for (ReportRow row : archived) {
+                addReportCard(row, true);
+            }
+        }
+    }
+
+    // Archived reports are resolved and unassigned from every queue, so they are only
+    // listed with all reports and outside triage
+    private List<ReportRow> selectArchived() {
+        List<ReportRow> selected = new ArrayList<>();
+        if (!includeArchived || archivedRows == null
+                || selectedQueue != QUEUE_ALL || selectedSort == SORT_PRIORITY) {
+            return selected;
+        }
+        for (ReportRow row : archivedRows) {
+            if ((selectedStatusFilter.equals("All") || selectedStatusFilter.equalsIgnoreCase(row.getStatus()))
+                    && (selectedRoleFilter.equals(ALL_ROLES) || selectedRoleFilter.equals(row.getUserRole()))) {
+                selected.add(row);
+            }
+        }
+        selected.sort((a, b) -> selectedSort == SORT_NEWEST
+                ? Long.compare(b.getCreatedAt(), a.getCreatedAt())
+                : Long.compare(a.getCreatedAt(), b.getCreatedAt()));
+        return selected;
+    }
+
+    private void addReportCard(ReportRow row, boolean archived) {
         // Create card layout
         androidx.constraintlayout.widget.ConstraintLayout reportCard =
                 new androidx.constraintlayout.widget.ConstraintLayout(this);
@@ -241,7 +665,7 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         // Report Title
         TextView titleText = new TextView(this);
         titleText.setId(View.generateViewId());
-        titleText.setText(title != null ? title : "Untitled Report");
+        titleText.setText(row.getTitle());
         titleText.setTextSize(16);
         titleText.setTextColor(Color.parseColor("#212121"));
         android.text.TextPaint paint = titleText.getPaint();
@@ -257,10 +681,10 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         titleText.setLayoutParams(titleParams);
         reportCard.addView(titleText);
 
-        // Submitted By Text (will be updated after fetching user email)
+        // Submitted By Text (resolved on the pipeline before binding)
         TextView submittedByText = new TextView(this);
         submittedByText.setId(View.generateViewId());
-        submittedByText.setText("Loading user info...");
+        submittedByText.setText(row.getSubmittedBy());
         submittedByText.setTextSize(14);
         submittedByText.setTextColor(Color.parseColor("#757575"));
 
@@ -275,41 +699,12 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         submittedByText.setLayoutParams(submittedByParams);
         reportCard.addView(submittedByText);
 
-        // Fetch user email
-        if (userId != null) {
-            db.collection("users").document(userId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            String email = documentSnapshot.getString("email");
-                            String displayText = "By: " + (email != null ? email : "Unknown User");
-                            if (userRole != null && !userRole.isEmpty()) {
-                                displayText += " - Role: " + userRole;
-                            }
-                            submittedByText.setText(displayText);
-                        } else {
-                            submittedByText.setText("By: Unknown User" + 
-                                    (userRole != null ? " - Role: " + userRole : ""));
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error fetching user email", e);
-                        submittedByText.setText("By: Unknown User" + 
-                                (userRole != null ? " - Role: " + userRole : ""));
-                    });
-        } else {
-            submittedByText.setText("By: Unknown User" + 
-                    (userRole != null ? " - Role: " + userRole : ""));
-        }
-
         // Report Status
         TextView statusText = new TextView(this);
         statusText.setId(View.generateViewId());
-        String statusDisplay = status != null ? 
-                status.substring(0, 1).toUpperCase() + status.substring(1) : "Unknown";
-        statusText.setText("Status: " + statusDisplay);
+        statusText.setText(row.getStatusLabel());
         statusText.setTextSize(14);
-        statusText.setTextColor(getStatusColor(status));
+        statusText.setTextColor(row.getStatusColor());
 
         androidx.constraintlayout.widget.ConstraintLayout.LayoutParams statusParams =
                 new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
@@ -324,12 +719,7 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         // Report Date
         TextView dateText = new TextView(this);
         dateText.setId(View.generateViewId());
-        String dateStr = "Unknown Date";
-        if (createdAt != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            dateStr = sdf.format(new Date(createdAt));
-        }
-        dateText.setText(dateStr);
+        dateText.setText(row.getDateLabel());
         dateText.setTextSize(12);
         dateText.setTextColor(Color.parseColor("#757575"));
 
@@ -346,8 +736,9 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         // Set click listener to open report detail
         reportCard.setOnClickListener(v -> {
             Intent intent = new Intent(ViewAllReportsActivity.this, ManageReportActivity.class);
-            intent.putExtra("reportId", reportId);
+            intent.putExtra("reportId", row.getReportId());
             intent.putExtra("institutionName", institutionName);
+            intent.putExtra("archived", archived);
             startActivity(intent);
         });
 
@@ -355,21 +746,29 @@ public class ViewAllReportsActivity extends AppCompatActivity {
         reportsContainer.addView(reportCard);
     }
 
-    private int getStatusColor(String status) {
-        if (status == null) {
-            return Color.parseColor("#757575"); // Gray for unknown
+    private String formatPriority(String reportId, long now) {
+        double key = triageQueue.keyOf(reportId);
+        if (selectedSort != SORT_PRIORITY || Double.isNaN(key)) {
+            return "";
+        }
+        return String.format(Locale.getDefault(), "\nPriority: %.1f", TriageModel.priorityAt(key, now));
+    }
+
+    private String formatAssignee(String status, String assignedTo, String currentUserId) {
+        if (!ReportAssignment.isOpen(status)) {
+            return "";
+        }
+        if (assignedTo == null) {
+            return "\nUnassigned";
         }
-        switch (status.toLowerCase()) {
-            case "pending":
-                return Color.parseColor("#FF9800"); // Orange
-            case "investigating":
-                return Color.parseColor("#2196F3"); // Blue
-            case "verified":
-                return Color.parseColor("#4CAF50"); // Green
-            case "rejected":
-                return Color.parseColor("#F44336"); // Red
-            default:
-                return Color.parseColor("#757575"); // Gray
+        return assignedTo.equals(currentUserId) ? "\nAssigned to you" : "\nAssigned to another manager";
+    }
+
+    private String formatSubmittedBy(String email, String userRole) {
+        String displayText = "By: " + (email != null ? email : "Unknown User");
+        if (userRole != null && !userRole.isEmpty()) {
+            displayText += " - Role: " + userRole;
         }
+        return displayText;
     }
 }
@@ -15,10 +15,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class ViewMyReportsActivity extends AppCompatActivity {
 
@@ -32,6 +37,7 @@ public class ViewMyReportsActivity extends AppCompatActivity {
     // Firebase
     private FirebaseAuth mAuth;
     private FirebaseFirestore db;
+    private final TaskScope scope = new TaskScope(this);
 
     // Data
     private String institutionId;
@@ -84,12 +90,14 @@ public class ViewMyReportsActivity extends AppCompatActivity {
         // Query reports for this user and institution
         // Note: orderBy with multiple whereEqualTo requires a composite index in Firestore
         // For now, we'll sort in code to avoid index requirement
-        db.collection("reports")
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("institutionId", institutionId)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (queryDocumentSnapshots.isEmpty()) {
+        // Sorting and date formatting run on the background pipeline
+        scope.bind(ResultPipeline.map(
+                FirestoreUsage.get(db.collection("reports")
+                        .whereEqualTo("userId", userId)
+                        .whereEqualTo("institutionId", institutionId)),
+                this::buildRows))
+                .addOnSuccessListener(rows -> {
+                    if (rows.isEmpty()) {
                         // No reports found
                         TextView noReportsText = new TextView(this);
                         noReportsText.setText("You haven't submitted any reports yet.");
@@ -99,29 +107,9 @@ public class ViewMyReportsActivity extends AppCompatActivity {
                         noReportsText.setPadding(16, 16, 16, 16);
                         reportsContainer.addView(noReportsText);
                     } else {
-                        // Sort reports by createdAt in descending order (newest first)
-                        java.util.List<QueryDocumentSnapshot> sortedDocs = new java.util.ArrayList<>();
-                        for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                            sortedDocs.add(doc);
-                        }
-                        sortedDocs.sort((doc1, doc2) -> {
-                            Long time1 = doc1.getLong("createdAt");
-                            Long time2 = doc2.getLong("createdAt");
-                            if (time1 == null) time1 = 0L;
-                            if (time2 == null) time2 = 0L;
-                            return time2.compareTo(time1); // Descending order
-                        });
-                        
                         // Display reports
-                        for (QueryDocumentSnapshot document : sortedDocs) {
-                            String reportId = document.getId();
-                            String title = document.getString("title");
-                            String description = document.getString("description");
-                            String status = document.getString("status");
-                            String managerResponse = document.getString("managerResponse");
-                            Long createdAt = document.getLong("createdAt");
-
-                            addReportCard(reportId, title, description, status, managerResponse, createdAt);
+                        for (ReportRow row : rows) {
+                            addReportCard(row);
                         }
                     }
                 })
@@ -131,8 +119,30 @@ public class ViewMyReportsActivity extends AppCompatActivity {
                 });
     }
 
-    private void addReportCard(String reportId, String title, String description, 
-                               String status, String managerResponse, Long createdAt) {
+    // Runs on the pipeline pool
+    private List<ReportRow> buildRows(QuerySnapshot queryDocumentSnapshots) {
+        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+
+        List<ReportRow> rows = new ArrayList<>();
+        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+            rows.add(new ReportRow(
+                    document.getId(),
+                    document.getString("title"),
+                    document.getString("userId"),
+                    document.getString("userRole"),
+                    document.getString("status"),
+                    document.getLong("createdAt"),
+                    document.getString("description"),
+                    document.getString("managerResponse"),
+                    sdf));
+        }
+
+        // Sort reports by createdAt in descending order (newest first)
+        rows.sort((row1, row2) -> Long.compare(row2.getCreatedAt(), row1.getCreatedAt()));
+        return rows;
+    }
+
+    private void addReportCard(ReportRow row) {
         // Create card layout
         androidx.constraintlayout.widget.ConstraintLayout reportCard = 
                 new androidx.constraintlayout.widget.ConstraintLayout(this);
@@ -150,7 +160,7 @@ public class ViewMyReportsActivity extends AppCompatActivity {
         // Report Title
         TextView titleText = new TextView(this);
         titleText.setId(View.generateViewId());
-        titleText.setText(title != null ? title : "Untitled Report");
+        titleText.setText(row.getTitle());
         titleText.setTextSize(16);
         titleText.setTextColor(Color.parseColor("#212121"));
         android.text.TextPaint paint = titleText.getPaint();
@@ -169,9 +179,9 @@ public class ViewMyReportsActivity extends AppCompatActivity {
         // Report Status
         TextView statusText = new TextView(this);
         statusText.setId(View.generateViewId());
-        statusText.setText("Status: " + (status != null ? status.substring(0, 1).toUpperCase() + status.substring(1) : "Unknown"));
+        statusText.setText(row.getStatusLabel());
         statusText.setTextSize(14);
-        statusText.setTextColor(getStatusColor(status));
+        statusText.setTextColor(row.getStatusColor());
         
         androidx.constraintlayout.widget.ConstraintLayout.LayoutParams statusParams = 
                 new androidx.constraintlayout.widget.ConstraintLayout.LayoutParams(
@@ -186,12 +196,7 @@ public class ViewMyReportsActivity extends AppCompatActivity {
         // Report Date
         TextView dateText = new TextView(this);
         dateText.setId(View.generateViewId());
-        String dateStr = "Unknown Date";
-        if (createdAt != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-            dateStr = sdf.format(new Date(createdAt));
-        }
-        dateText.setText("Date: " + dateStr);
+        dateText.setText("Date: " + row.getDateLabel());
         dateText.setTextSize(12);
         dateText.setTextColor(Color.parseColor("#757575"));
         
@@ -206,58 +211,60 @@ public class ViewMyReportsActivity extends AppCompatActivity {
         reportCard.addView(dateText);
 
         // Make card clickable to show details
-        reportCard.setOnClickListener(v -> showReportDetails(title, description, status, managerResponse, createdAt));
+        reportCard.setOnClickListener(v -> openReportDetails(row));
 
         reportsContainer.addView(reportCard);
     }
 
-    private int getStatusColor(String status) {
-        if (status == null) return Color.parseColor("#757575");
-        
-        switch (status.toLowerCase()) {
-            case "pending":
-                return Color.parseColor("#FF9800"); // Orange
-            case "investigating":
-                return Color.parseColor("#2196F3"); // Blue
-            case "verified":
-                return Color.parseColor("#4CAF50"); // Green
-            case "rejected":
-                return Color.parseColor("#F44336"); // Red
-            default:
-                return Color.parseColor("#757575"); // Gray
-        }
+    private void openReportDetails(ReportRow row) {
+        // The list only loaded the header; fetch the body now. Reports from before the
+        // header/body split still carry these fields on the header.
+        Map<String, Object> legacyHeader = new HashMap<>();
+        legacyHeader.put("description", row.getDescription());
+        legacyHeader.put("managerResponse", row.getManagerResponse());
+
+        scope.bind(ReportBodies.load(db, row.getReportId(), legacyHeader))
+                .addOnSuccessListener(body -> showReportDetails(row.getTitle(),
+                        (String) body.get("description"), row.getStatus(),
+                        (String) body.get("managerResponse"), row.getCreatedAt()))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading report details", e);
+                    Toast.makeText(this, "Error loading report details: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
     }
 
     private void showReportDetails(String title, String description, String status, 
-                                   String managerResponse, Long createdAt) {
-        // Create dialog to show full report details
-        AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle(title != null ? title : "Report Details");
+                                   String managerResponse, long createdAt) {
+        // Each part goes into its own view, so the long description can be collapsed
+        // and measured off the main thread instead of laid out as one message
+        View content = getLayoutInflater().inflate(R.layout.dialog_report_details, null);
+        TextView dateText = content.findViewById(R.id.dateText);
+        TextView statusText = content.findViewById(R.id.statusText);
+        TextView responseText = content.findViewById(R.id.responseText);
 
-        // Build message
-        StringBuilder message = new StringBuilder();
-        
         // Date
-        if (createdAt != null) {
+        if (createdAt > 0) {
             SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.getDefault());
-            message.append("Date: ").append(sdf.format(new Date(createdAt))).append("\n\n");
+            dateText.setText("Date: " + sdf.format(new Date(createdAt)));
+            dateText.setVisibility(View.VISIBLE);
         }
-        
+
         // Description
-        message.append("Description:\n").append(description != null ? description : "No description").append("\n\n");
-        
+        new CollapsibleText(content.findViewById(R.id.descriptionText),
+                content.findViewById(R.id.descriptionToggleText))
+                .setText(description != null ? description : "No description");
+
         // Status
-        message.append("Status: ").append(status != null ? status.substring(0, 1).toUpperCase() + status.substring(1) : "Unknown").append("\n\n");
-        
-        // Manager Response
-        if (managerResponse != null && !managerResponse.isEmpty()) {
-            message.append("Manager Response:\n").append(managerResponse);
-        } else {
-            message.append("Manager Response: No response yet");
-        }
+        statusText.setText("Status: " + ReportRow.capitalize(status));
 
-        builder.setMessage(message.toString());
-        builder.setPositiveButton("Close", (dialog, which) -> dialog.dismiss());
-        builder.show();
+        // Manager Response
+        responseText.setText(managerResponse != null && !managerResponse.isEmpty()
+                ? managerResponse : "No response yet");
+
+        new AlertDialog.Builder(this)
+                .setTitle(title != null ? title : "Report Details")
+                .setView(content)
+                .setPositiveButton("Close", (dialog, which) -> dialog.dismiss())
+                .show();
     }
 }
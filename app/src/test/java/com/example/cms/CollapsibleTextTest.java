@@ -0,0 +1,40 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CollapsibleText#preview}.
+ */
+public class CollapsibleTextTest {
+
+    @Test
+    public void preview_keepsTextThatFits() {
+        assertEquals("Short complaint", CollapsibleText.preview("Short complaint", 40, 3));
+        assertEquals("", CollapsibleText.preview("", 40, 3));
+    }
+
+    @Test
+    public void preview_cutsLongTextAtWordBoundary() {
+        String preview = CollapsibleText.preview("The heating has been broken for weeks", 20, 3);
+        assertEquals("The heating has been…", preview);
+    }
+
+    @Test
+    public void preview_cutsLongWordWhenThereIsNoEarlyBreak() {
+        String preview = CollapsibleText.preview("a bbbbbbbbbbbbbbbbbbbbbbbbbbbbbb", 10, 3);
+        assertEquals("a bbbbbbbb…", preview);
+    }
+
+    @Test
+    public void preview_limitsNumberOfLines() {
+        String preview = CollapsibleText.preview("one\ntwo\nthree\nfour", 100, 3);
+        assertEquals("one\ntwo\nthree…", preview);
+    }
+
+    @Test
+    public void preview_keepsTextWithExactlyTheAllowedLines() {
+        assertEquals("one\ntwo\nthree", CollapsibleText.preview("one\ntwo\nthree", 100, 3));
+    }
+}
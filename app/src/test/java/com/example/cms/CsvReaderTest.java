@@ -0,0 +1,49 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CsvReader}.
+ */
+public class CsvReaderTest {
+
+    @Test
+    public void readRecord_splitsPlainAndQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "title,description\r\n\"Leak, again\",\"Said \"\"urgent\"\"\"\r\nlast,row"));
+
+        assertEquals(Arrays.asList("title", "description"), reader.readRecord());
+        assertEquals(Arrays.asList("Leak, again", "Said \"urgent\""), reader.readRecord());
+        assertEquals(Arrays.asList("last", "row"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void readRecord_keepsLineBreaksInQuotesAndTracksLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,\"one\ntwo\"\n\nb,c\n"));
+
+        assertEquals(Arrays.asList("a", "one\ntwo"), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        // The blank line is skipped
+        assertEquals(Arrays.asList("b", "c"), reader.readRecord());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void readRecord_keepsEmptyFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(",x,\n"));
+        assertEquals(Arrays.asList("", "x", ""), reader.readRecord());
+    }
+
+    @Test(expected = IOException.class)
+    public void readRecord_rejectsUnterminatedQuote() throws IOException {
+        new CsvReader(new StringReader("\"never closed\n")).readRecord();
+    }
+}
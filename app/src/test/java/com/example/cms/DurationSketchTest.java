@@ -0,0 +1,71 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link DurationSketch} accuracy and merging.
+ */
+public class DurationSketchTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    public void quantile_isWithinRelativeAccuracy() {
+        DurationSketch sketch = new DurationSketch();
+        for (int minutes = 1; minutes <= 1000; minutes++) {
+            sketch.add(minutes * MINUTE);
+        }
+
+        assertEquals(1000, sketch.getCount());
+        assertWithinAccuracy(500 * MINUTE, sketch.quantile(0.5));
+        assertWithinAccuracy(900 * MINUTE, sketch.quantile(0.9));
+        assertWithinAccuracy(1000 * MINUTE, sketch.quantile(1.0));
+    }
+
+    @Test
+    public void merge_equalsSketchOfAllSamples() {
+        Random random = new Random(7);
+        DurationSketch all = new DurationSketch();
+        DurationSketch first = new DurationSketch();
+        DurationSketch second = new DurationSketch();
+        for (int i = 0; i < 500; i++) {
+            long millis = (long) (random.nextDouble() * 72 * 60 * MINUTE);
+            all.add(millis);
+            (i % 2 == 0 ? first : second).add(millis);
+        }
+        first.merge(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.quantile(0.5), first.quantile(0.5));
+        assertEquals(all.quantile(0.9), first.quantile(0.9));
+    }
+
+    @Test
+    public void fromMap_readsStoredBucketCounts() {
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("b" + DurationSketch.bucketOf(10 * MINUTE), 3L);
+        stored.put("b" + DurationSketch.bucketOf(100 * MINUTE), 1L);
+        stored.put("count", 4L);
+
+        DurationSketch sketch = DurationSketch.fromMap(stored);
+        assertEquals(4, sketch.getCount());
+        assertWithinAccuracy(10 * MINUTE, sketch.quantile(0.5));
+        assertWithinAccuracy(100 * MINUTE, sketch.quantile(1.0));
+    }
+
+    @Test
+    public void emptySketch_hasNoQuantile() {
+        assertEquals(-1, new DurationSketch().quantile(0.5));
+        assertEquals(0, DurationSketch.fromMap(null).getCount());
+    }
+
+    private static void assertWithinAccuracy(long expected, long actual) {
+        assertEquals(expected, actual, expected * DurationSketch.RELATIVE_ACCURACY);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link EscalationLevels}.
+ */
+public class EscalationLevelsTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long NOW = 100 * DAY;
+
+    @Test
+    public void levelFor_followsThresholds() {
+        assertEquals(0, EscalationLevels.levelFor(NOW - 2 * DAY, NOW));
+        assertEquals(1, EscalationLevels.levelFor(NOW - 3 * DAY, NOW));
+        assertEquals(2, EscalationLevels.levelFor(NOW - 8 * DAY, NOW));
+        assertEquals(3, EscalationLevels.levelFor(NOW - 30 * DAY, NOW));
+    }
+
+    @Test
+    public void update_raisesEachLevelOnce() {
+        EscalationLevels levels = new EscalationLevels(null);
+        Map<String, Long> overdue = new HashMap<>();
+        overdue.put("a", NOW - 4 * DAY);
+
+        assertEquals(Integer.valueOf(1), levels.update(overdue, NOW, true).get("a"));
+        assertTrue(levels.update(overdue, NOW + DAY, true).isEmpty());
+        assertEquals(Integer.valueOf(2), levels.update(overdue, NOW + 3 * DAY, true).get("a"));
+    }
+
+    @Test
+    public void update_forgetsReportsNoLongerOverdueOnlyWhenComplete() {
+        EscalationLevels levels = new EscalationLevels(null);
+        Map<String, Long> overdue = new HashMap<>();
+        overdue.put("a", NOW - 4 * DAY);
+        levels.update(overdue, NOW, true);
+
+        levels.update(new HashMap<>(), NOW, false);
+        assertEquals(1, levels.getLevel("a"));
+
+        levels.update(new HashMap<>(), NOW, true);
+        assertEquals(0, levels.getLevel("a"));
+    }
+
+    @Test
+    public void savedSet_roundTrips() {
+        EscalationLevels levels = new EscalationLevels(null);
+        Map<String, Long> overdue = new HashMap<>();
+        overdue.put("a", NOW - 20 * DAY);
+        overdue.put("b", NOW - 5 * DAY);
+        levels.update(overdue, NOW, true);
+
+        EscalationLevels restored = new EscalationLevels(levels.toSet());
+        assertEquals(3, restored.getLevel("a"));
+        assertEquals(1, restored.getLevel("b"));
+        assertTrue(restored.update(overdue, NOW, true).isEmpty());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Keeps every Firestore read going through {@link FirestoreUsage}, so that
+ * ReadBudgetTest sees reads added later without each call site remembering
+ * to record them.
+ */
+public class FirestoreUsageTest {
+
+    private static final File SOURCES = new File("src/main/java/com/example/cms");
+
+    // get() on a document or query, get(Source.X) / get(AggregateSource.X), and transaction reads
+    private static final Pattern DIRECT_READ = Pattern.compile(
+            "\\.get\\(\\)|\\.get\\((Aggregate)?Source\\.|\\btransaction\\.get\\(");
+
+    @Test
+    public void reads_goThroughFirestoreUsage() throws IOException {
+        File[] files = SOURCES.listFiles((dir, name) -> name.endsWith(".java"));
+        assertNotNull("Run from the app module: " + SOURCES.getAbsolutePath(), files);
+
+        List<String> offenders = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().equals("FirestoreUsage.java")) {
+                continue;
+            }
+            // Join chained calls split across lines: ".document(id)\n    .get()"
+            String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+                    .replaceAll("\\s*\\n\\s*\\.", ".");
+            Matcher matcher = DIRECT_READ.matcher(source);
+            while (matcher.find()) {
+                offenders.add(file.getName() + ": " + matcher.group());
+            }
+        }
+        assertTrue("Read through FirestoreUsage.get()/count() instead: " + offenders, offenders.isEmpty());
+    }
+}
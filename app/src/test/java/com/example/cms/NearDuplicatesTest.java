@@ -0,0 +1,69 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link NearDuplicates} signatures and band keys.
+ */
+public class NearDuplicatesTest {
+
+    private static final String BENCH_TITLE = "Broken bench in the park near gate 2";
+    private static final String BENCH_DESCRIPTION =
+            "The wooden bench near gate 2 is broken and has nails sticking out";
+
+    @Test
+    public void signature_isStableAndIgnoresCaseAndPunctuation() {
+        int[] first = NearDuplicates.signature(BENCH_TITLE, BENCH_DESCRIPTION);
+        int[] second = NearDuplicates.signature(BENCH_TITLE.toUpperCase(), BENCH_DESCRIPTION + "!!");
+
+        assertEquals(NearDuplicates.SIGNATURE_SIZE, first.length);
+        assertEquals(1.0, NearDuplicates.similarity(first, second), 0.0);
+        assertEquals(NearDuplicates.bandKeys(first), NearDuplicates.bandKeys(second));
+    }
+
+    @Test
+    public void rewordedReport_isLikelyDuplicateAndSharesABand() {
+        int[] original = NearDuplicates.signature(BENCH_TITLE, BENCH_DESCRIPTION);
+        int[] reworded = NearDuplicates.signature("Broken bench near gate 2",
+                "The bench near gate 2 is broken, nails are sticking out");
+
+        assertTrue(NearDuplicates.similarity(original, reworded) >= NearDuplicates.DUPLICATE_THRESHOLD);
+        assertTrue(sharedBands(NearDuplicates.bandKeys(original), NearDuplicates.bandKeys(reworded)) > 0);
+    }
+
+    @Test
+    public void unrelatedReport_isNotADuplicate() {
+        int[] bench = NearDuplicates.signature(BENCH_TITLE, BENCH_DESCRIPTION);
+        int[] roof = NearDuplicates.signature("Leaking roof in library",
+                "Water drips from the library roof when it rains");
+
+        assertTrue(NearDuplicates.similarity(bench, roof) < NearDuplicates.DUPLICATE_THRESHOLD);
+        assertEquals(0, sharedBands(NearDuplicates.bandKeys(bench), NearDuplicates.bandKeys(roof)));
+    }
+
+    @Test
+    public void signature_survivesFirestoreRoundTrip() {
+        int[] signature = NearDuplicates.signature(BENCH_TITLE, BENCH_DESCRIPTION);
+        assertArrayEquals(signature, NearDuplicates.fromList(NearDuplicates.toList(signature)));
+        assertNull(NearDuplicates.fromList(null));
+    }
+
+    @Test
+    public void normalize_collapsesSeparators() {
+        assertEquals("gate 2 is broken", NearDuplicates.normalize("  Gate #2 -- is BROKEN. "));
+    }
+
+    private static int sharedBands(List<String> a, List<String> b) {
+        int shared = 0;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).equals(b.get(i))) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReportChanges}.
+ */
+public class ReportChangesTest {
+
+    @Test
+    public void record_newPendingReportIsNotAChange() {
+        ReportChanges changes = new ReportChanges(null);
+        assertNull(changes.record("a", "pending", null, 0L));
+    }
+
+    @Test
+    public void record_reportsStatusChangeOnce() {
+        ReportChanges changes = new ReportChanges(null);
+        changes.record("a", "pending", null, 0L);
+
+        ReportChanges.Change change = changes.record("a", "verified", null, 0L);
+        assertNotNull(change);
+        assertTrue(change.isStatusChanged());
+        assertFalse(change.isNewResponse());
+        assertEquals("verified", change.getStatus());
+
+        // The same header synced again
+        assertNull(changes.record("a", "verified", null, 0L));
+    }
+
+    @Test
+    public void record_reportsNewResponseWithoutStatusChange() {
+        ReportChanges changes = new ReportChanges(null);
+        changes.record("a", "investigating", 100L, 0L);
+
+        assertNull(changes.record("a", "investigating", 100L, 0L));
+        ReportChanges.Change change = changes.record("a", "investigating", 200L, 0L);
+        assertNotNull(change);
+        assertFalse(change.isStatusChanged());
+        assertTrue(change.isNewResponse());
+    }
+
+    @Test
+    public void savedSet_roundTrips() {
+        ReportChanges changes = new ReportChanges(null);
+        changes.record("a", "rejected", 300L, 0L);
+        changes.record("b", "pending", null, 0L);
+
+        ReportChanges restored = new ReportChanges(changes.toSet());
+        assertNull(restored.record("a", "rejected", 300L, 0L));
+        assertNull(restored.record("b", "pending", null, 0L));
+        assertNotNull(restored.record("b", "investigating", null, 0L));
+    }
+
+    @Test
+    public void prune_dropsOnlyResolvedReportsOlderThanCutoff() {
+        ReportChanges changes = new ReportChanges(null);
+        changes.record("old-resolved", "verified", null, 100L);
+        changes.record("new-resolved", "rejected", null, 500L);
+        changes.record("old-open", "investigating", null, 100L);
+
+        changes.prune(300L);
+
+        assertEquals(2, changes.size());
+        // Still known, so syncing them again announces nothing
+        assertNull(changes.record("new-resolved", "rejected", null, 500L));
+        assertNull(changes.record("old-open", "investigating", null, 100L));
+    }
+
+    @Test
+    public void prune_dropsEntriesSavedWithoutUpdatedAt() {
+        Set<String> legacy = new HashSet<>();
+        legacy.add("a=verified=0");
+        legacy.add("b=pending=0");
+        ReportChanges changes = new ReportChanges(legacy);
+
+        changes.prune(1L);
+
+        assertEquals(1, changes.size());
+        assertNull(changes.record("b", "pending", null, 0L));
+    }
+}
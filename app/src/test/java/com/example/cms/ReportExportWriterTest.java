@@ -0,0 +1,73 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReportExportWriter}.
+ */
+public class ReportExportWriterTest {
+
+    private static Map<String, Object> report(String id, String title, String description) {
+        Map<String, Object> report = new HashMap<>();
+        report.put("reportId", id);
+        report.put("title", title);
+        report.put("status", "pending");
+        report.put("createdAt", 0L);
+        report.put("description", description);
+        return report;
+    }
+
+    @Test
+    public void csv_quotesAndEscapesCells() throws IOException {
+        StringWriter out = new StringWriter();
+        ReportExportWriter writer = new ReportExportWriter(out, ReportExportWriter.FORMAT_CSV);
+        writer.begin();
+        writer.writeRow(report("r1", "Broken, \"again\"", "line one\nline two"));
+        writer.end();
+
+        String[] lines = out.toString().split("\r\n");
+        assertEquals(String.join(",", ReportExportWriter.COLUMNS), lines[0]);
+        assertTrue(lines[1].startsWith("r1,\"Broken, \"\"again\"\"\",pending,,,,1970-01-01T00:00:00Z,"));
+        assertTrue(out.toString().contains("\"line one\nline two\""));
+        assertEquals(1, writer.getRowCount());
+    }
+
+    @Test
+    public void csvCell_defusesFormulas() {
+        assertEquals("'=SUM(A1)", ReportExportWriter.csvCell("=SUM(A1)"));
+        assertEquals("plain", ReportExportWriter.csvCell("plain"));
+        assertEquals("", ReportExportWriter.csvCell(null));
+    }
+
+    @Test
+    public void json_writesArrayOfObjects() throws IOException {
+        StringWriter out = new StringWriter();
+        ReportExportWriter writer = new ReportExportWriter(out, ReportExportWriter.FORMAT_JSON);
+        writer.begin();
+        writer.writeRow(report("r1", "Quote \" and \\", null));
+        writer.writeRow(report("r2", "Tab\there", "x"));
+        writer.end();
+
+        String json = out.toString();
+        assertTrue(json.startsWith("[\n  {\"reportId\": \"r1\", \"title\": \"Quote \\\" and \\\\\""));
+        assertTrue(json.contains("\"description\": null"));
+        assertTrue(json.contains("},\n  {\"reportId\": \"r2\", \"title\": \"Tab\\there\""));
+        assertTrue(json.endsWith("}\n]\n"));
+    }
+
+    @Test
+    public void json_emptyExportIsEmptyArray() throws IOException {
+        StringWriter out = new StringWriter();
+        ReportExportWriter writer = new ReportExportWriter(out, ReportExportWriter.FORMAT_JSON);
+        writer.begin();
+        writer.end();
+        assertEquals("[]\n", out.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReportImportValidator}.
+ */
+public class ReportImportValidatorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final List<String> ROLES = Arrays.asList("Student", "Staff");
+
+    private static ReportImportValidator validator(String... header) {
+        return new ReportImportValidator(Arrays.asList(header), ROLES, NOW);
+    }
+
+    private static String errorOf(ReportImportValidator validator, String... record) {
+        try {
+            validator.parse(Arrays.asList(record));
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void parse_mapsColumnsByNameAndRolesIgnoringCase() {
+        ReportImportValidator validator = validator("\uFEFFDescription", "Role", "TITLE", "status", "createdAt");
+        ReportImportValidator.Row row = validator.parse(
+                Arrays.asList("Water on the floor", "  student ", "Leak", "Verified", "2023-01-02T03:04:05Z"));
+
+        assertEquals("Leak", row.getTitle());
+        assertEquals("Water on the floor", row.getDescription());
+        assertEquals("verified", row.getStatus());
+        assertEquals("Student", row.getRole());
+        assertEquals(1_672_628_645_000L, row.getCreatedAt());
+        assertEquals("", row.getResponse());
+    }
+
+    @Test
+    public void parse_defaultsOptionalFields() {
+        ReportImportValidator.Row row = validator("title", "description").parse(Arrays.asList("Leak", "Drip"));
+
+        assertEquals("pending", row.getStatus());
+        assertNull(row.getRole());
+        assertEquals(NOW, row.getCreatedAt());
+    }
+
+    @Test
+    public void parse_rejectsInvalidRecords() {
+        ReportImportValidator validator = validator("title", "description", "status", "role", "createdAt");
+
+        assertNotNull(errorOf(validator, "", "Drip", "", "", "2023-01-02"));
+        assertNotNull(errorOf(validator, "Leak", "Drip", "closed", "", "2023-01-02"));
+        assertNotNull(errorOf(validator, "Leak", "Drip", "", "Visitor", "2023-01-02"));
+        assertNotNull(errorOf(validator, "Leak", "Drip", "", "", "2023-01-02junk"));
+        assertNotNull(errorOf(validator, "Leak", "Drip", "", "", ""));
+        assertNotNull(errorOf(validator, "Leak", "Drip", "", "", String.valueOf(NOW + 1)));
+        assertNull(errorOf(validator, "Leak", "Drip", "", "", String.valueOf(NOW - 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_requiresTitleAndDescription() {
+        validator("title", "status");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.cms;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReportIndex} sorting and filtering.
+ */
+public class ReportIndexTest {
+
+    private ReportIndex index;
+
+    @Before
+    public void setUp() {
+        index = new ReportIndex(2);
+        index.add("r1", "Broken bench", "u1", "Student", "pending", 100L);
+        index.add("r2", "Leaking roof", "u2", "Teacher", "verified", 300L);
+        index.add("r3", "Late bus", new String("u1"), "Student", "Pending", 200L);
+        index.add("r4", "Noise", "u3", null, "rejected", 200L);
+    }
+
+    @Test
+    public void select_sortsNewestFirstAndKeepsTiesInInsertionOrder() {
+        int[] positions = index.select(ReportIndex.ANY, ReportIndex.ANY, true);
+        assertArrayEquals(new String[] {"r2", "r3", "r4", "r1"}, reportIds(positions));
+    }
+
+    @Test
+    public void select_sortsOldestFirst() {
+        int[] positions = index.select(ReportIndex.ANY, ReportIndex.ANY, false);
+        assertEquals("r1", index.getReportId(positions[0]));
+        assertEquals("r2", index.getReportId(positions[positions.length - 1]));
+    }
+
+    @Test
+    public void select_filtersByStatusAndRole() {
+        int[] pending = index.select(ReportIndex.STATUS_PENDING, ReportIndex.ANY, true);
+        assertArrayEquals(new String[] {"r3", "r1"}, reportIds(pending));
+
+        int[] teachers = index.select(ReportIndex.ANY, index.roleId("Teacher"), true);
+        assertArrayEquals(new String[] {"r2"}, reportIds(teachers));
+
+        int[] noRole = index.select(ReportIndex.ANY, index.roleId(null), true);
+        assertArrayEquals(new String[] {"r4"}, reportIds(noRole));
+
+        assertEquals(0, index.select(ReportIndex.ANY, index.roleId("Principal"), true).length);
+    }
+
+    @Test
+    public void add_growsAndPoolsRepeatedStrings() {
+        assertEquals(4, index.size());
+        assertSame(index.getUserId(0), index.getUserId(2));
+        assertEquals("pending", index.getStatus(2));
+        assertEquals(3, index.distinctUserIds().size());
+    }
+
+    @Test
+    public void select_filtersByAssignee() {
+        index.add("r5", "Broken window", "u2", "Teacher", "investigating", 400L, "m1");
+
+        int[] mine = index.select(ReportIndex.ANY, ReportIndex.ANY, index.assigneeId("m1"), true);
+        assertArrayEquals(new String[] {"r5"}, reportIds(mine));
+
+        int[] unassigned = index.select(ReportIndex.STATUS_PENDING, ReportIndex.ANY, index.assigneeId(null), true);
+        assertArrayEquals(new String[] {"r3", "r1"}, reportIds(unassigned));
+        assertEquals(ReportIndex.NO_MATCH, index.assigneeId("m2"));
+    }
+
+    @Test
+    public void isMerged_marksOnlyMergedDuplicates() {
+        index.add("r5", "Broken bench again", "u2", "Teacher", "rejected", 400L, "m1", "r1");
+
+        assertTrue(index.isMerged(index.positionOf("r5")));
+        assertFalse(index.isMerged(index.positionOf("r4")));
+        assertEquals("rejected", index.getStatus(index.positionOf("r5")));
+    }
+
+    @Test
+    public void getRoles_listsNamedRolesInFirstSeenOrder() {
+        assertEquals(java.util.Arrays.asList("Student", "Teacher"), index.getRoles());
+    }
+
+    private String[] reportIds(int[] positions) {
+        String[] ids = new String[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            ids[i] = index.getReportId(positions[i]);
+        }
+        return ids;
+    }
+}
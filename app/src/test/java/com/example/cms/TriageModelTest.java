@@ -0,0 +1,59 @@
+package com.example.cms;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TriageModel} training and priority keys.
+ */
+public class TriageModelTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Test
+    public void train_learnsWhichReportsAreUpheld() {
+        List<TriageModel.Example> examples = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            examples.add(new TriageModel.Example("Water leak in room " + i, "Teacher", true));
+            examples.add(new TriageModel.Example("Wifi slow again " + i, "Student", false));
+        }
+        TriageModel model = new TriageModel();
+        model.train(examples);
+
+        assertTrue(model.isTrained());
+        assertTrue(model.probability("Leak in the hall", "Teacher") > 0.8);
+        assertTrue(model.probability("Slow wifi", "Student") < 0.2);
+    }
+
+    @Test
+    public void train_withTooFewExamples_staysNeutral() {
+        List<TriageModel.Example> examples = new ArrayList<>();
+        examples.add(new TriageModel.Example("Leak", "Teacher", true));
+        examples.add(new TriageModel.Example("Wifi", "Student", false));
+        TriageModel model = new TriageModel();
+        model.train(examples);
+
+        assertFalse(model.isTrained());
+        assertEquals(0.5, model.probability("Leak", "Teacher"), 0.0);
+    }
+
+    @Test
+    public void priorityKey_ordersByUrgencyThenAge() {
+        TriageModel model = new TriageModel();
+        long now = 1_000 * DAY;
+
+        double fireToday = model.priorityKey("Fire alarm broken", "Student", "pending", now);
+        double benchToday = model.priorityKey("Bench broken", "Student", "pending", now);
+        double benchOld = model.priorityKey("Bench broken", "Student", "pending", now - 30 * DAY);
+        double benchInvestigated = model.priorityKey("Bench broken", "Student", "investigating", now);
+
+        assertTrue(fireToday > benchToday);
+        assertTrue(benchOld > fireToday);
+        assertTrue(benchToday > benchInvestigated);
+        assertEquals(3.0, TriageModel.priorityAt(benchOld, now) - TriageModel.priorityAt(benchToday, now), 1e-9);
+    }
+}
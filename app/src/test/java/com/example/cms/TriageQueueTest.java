@@ -0,0 +1,61 @@
+package com.example.cms;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link TriageQueue} ordering and in-place updates.
+ */
+public class TriageQueueTest {
+
+    private TriageQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new TriageQueue();
+        for (int i = 0; i < 40; i++) {
+            queue.update("r" + i, i);
+        }
+    }
+
+    @Test
+    public void top_returnsHighestKeysInOrder() {
+        assertEquals("r39", queue.peek());
+        assertEquals(Arrays.asList("r39", "r38", "r37"), queue.top(3, id -> true));
+    }
+
+    @Test
+    public void update_movesReportBothWays() {
+        queue.update("r5", 100);
+        assertEquals("r5", queue.peek());
+
+        queue.update("r5", -1);
+        assertEquals(Arrays.asList("r39", "r38"), queue.top(2, id -> true));
+        assertEquals(-1, queue.keyOf("r5"), 0.0);
+        assertEquals(40, queue.size());
+    }
+
+    @Test
+    public void remove_andRetainAll_dropReports() {
+        assertTrue(queue.remove("r39"));
+        assertFalse(queue.remove("r39"));
+        assertEquals("r38", queue.peek());
+
+        queue.retainAll(new HashSet<>(Arrays.asList("r1", "r2", "unknown")));
+        assertEquals(2, queue.size());
+        assertEquals(Arrays.asList("r2", "r1"), queue.top(10, id -> true));
+        assertTrue(Double.isNaN(queue.keyOf("r38")));
+    }
+
+    @Test
+    public void top_skipsFilteredReports() {
+        assertEquals(Arrays.asList("r38", "r36", "r34"), queue.top(3, id -> Integer.parseInt(id.substring(1)) % 2 == 0));
+        assertEquals(Collections.emptyList(), queue.top(3, id -> false));
+    }
+}